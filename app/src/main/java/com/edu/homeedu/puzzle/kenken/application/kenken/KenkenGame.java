@@ -39,13 +39,13 @@ public class KenkenGame {
     private final Set<Unit> units = new HashSet<>();
     private final Map<Square, Cage> cageFor = new HashMap<>();
     private final Map<Square, AssociatedUnits> unitsFor = new HashMap<>();
-    private final Map<Square, Set<Square>> peersFor = new HashMap<>();
+    private volatile Map<Square, Set<Square>> peersFor;
 
     public KenkenGame(Collection<Cage> cages) {
         initSquaresCagesAndSize(cages);
         validateFields();
         initPossibleValues();
-        initUnitsAndPeers();
+        initUnits();
     }
 
     public static KenkenGame parseFromDescriptions(String[] cageDescriptions, String cagePartDelimiterRegex) {
@@ -94,8 +94,24 @@ public class KenkenGame {
         return unitsFor;
     }
 
+    /**
+     * @return the squares in the row or the column of every square, built on first use since large grids
+     * have many more peers than squares.
+     */
     public Map<Square, Set<Square>> getSquarePeersMap() {
-        return peersFor;
+        Map<Square, Set<Square>> peers = peersFor;
+        if (peers == null) {
+            peers = new HashMap<>();
+            for (Square square : squares) {
+                AssociatedUnits associatedUnits = unitsFor.get(square);
+                Set<Square> squarePeers = new TreeSet<>(associatedUnits.rowUnit().getSquares());
+                squarePeers.addAll(associatedUnits.columnUnit().getSquares());
+                squarePeers.remove(square);
+                peers.put(square, squarePeers);
+            }
+            peersFor = peers;
+        }
+        return peers;
     }
 
     public Map<Square, Boolean> check(KenkenAnswer answer) {
@@ -202,32 +218,20 @@ public class KenkenGame {
         IntStream.range(1, size + 1).forEach(possibleValues::add);
     }
 
-    private void initUnitsAndPeers() {
+    // Every square is added to its row and its column once, so the units are built in one pass
+    // over the squares; the peers are only built when asked for.
+    private void initUnits() {
+        Map<Integer, Unit> rowUnits = new HashMap<>();
+        Map<Integer, Unit> columnUnits = new HashMap<>();
         squares.forEach(square -> {
-            Unit rowUnit = new Unit();
-            Unit columnUnit = new Unit();
-            Set<Square> peers = new TreeSet<>();
-
-            squares
-                    .stream()
-                    .filter(sqr -> sqr.row() == square.row() || sqr.column() == square.column())
-                    .forEach(sqr -> {
-                        if (sqr != square) {
-                            peers.add(sqr);
-                        }
-                        if (sqr.row() == square.row()) {
-                            rowUnit.add(sqr);
-                        }
-                        if (sqr.column() == square.column()) {
-                            columnUnit.add(sqr);
-                        }
-                    });
-
+            Unit rowUnit = rowUnits.computeIfAbsent(square.row(), row -> new Unit());
+            Unit columnUnit = columnUnits.computeIfAbsent(square.column(), column -> new Unit());
+            rowUnit.add(square);
+            columnUnit.add(square);
             unitsFor.put(square, new AssociatedUnits(rowUnit, columnUnit));
-            peersFor.put(square, peers);
-            units.add(rowUnit);
-            units.add(columnUnit);
         });
+        units.addAll(rowUnits.values());
+        units.addAll(columnUnits.values());
     }
 
     private void validateFields() {
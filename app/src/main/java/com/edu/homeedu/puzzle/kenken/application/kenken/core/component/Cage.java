@@ -90,6 +90,10 @@ public class Cage {
                 .anyMatch(ordering -> MathHelpers.equals(operator.apply(ordering), target));
     }
     
+    public boolean isSolution(int[] values) {
+        return values != null && squares.size() == values.length && operator.isSatisfiedBy(getTarget(), values);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) {
@@ -4,13 +4,18 @@ import androidx.annotation.NonNull;
 
 import com.edu.homeedu.puzzle.kenken.utils.Converters;
 import com.edu.homeedu.puzzle.kenken.utils.Validators;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UnknownFormatConversionException;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * A square of the grid. Rows are written as letters like spreadsheet columns (A to Z, then AA, AB, ...)
+ * and columns as numbers, so {@code AB12} is row 28, column 12.
+ */
 public record Square(int row, int column) implements Comparable<Square> {
-    private static final Map<Integer, Square> pool = new HashMap<>();
+    // Keyed by both coordinates, since the hash codes of different squares can be equal
+    private static final Map<Long, Square> pool = new ConcurrentHashMap<>();
 
     /**
      * @throws IllegalArgumentException: if row or column is negative
@@ -21,10 +26,14 @@ public record Square(int row, int column) implements Comparable<Square> {
     }
 
     public static Square of(int row, int column) throws IllegalArgumentException {
-        Square instance = getFromPool(row, column);
+        long key = getPoolKey(row, column);
+        Square instance = pool.get(key);
         if (instance == null) {
             instance = new Square(row, column);
-            addToPool(instance);
+            Square pooled = pool.putIfAbsent(key, instance);
+            if (pooled != null) {
+                instance = pooled;
+            }
         }
 
         return instance;
@@ -32,13 +41,16 @@ public record Square(int row, int column) implements Comparable<Square> {
 
     public static Square of(String sqrString) throws IllegalArgumentException {
         sqrString = sqrString.trim();
-        if (sqrString.length() <= 1 || !Character.isUpperCase(sqrString.charAt(0))) {
+        int labelLength = 0;
+        while (labelLength < sqrString.length() && isRowLabelChar(sqrString.charAt(labelLength))) {
+            labelLength++;
+        }
+        if (labelLength == 0 || labelLength == sqrString.length()) {
             throw new UnknownFormatConversionException(sqrString);
         }
 
-        char rowLabel = Character.toUpperCase(sqrString.charAt(0));
-        int row = Converters.upperCharToOrdinal(rowLabel);
-        int column = Integer.parseInt(sqrString.substring(1));
+        int row = Converters.upperLabelToOrdinal(sqrString.substring(0, labelLength));
+        int column = Integer.parseInt(sqrString.substring(labelLength));
         return of(row, column);
     }
 
@@ -71,17 +83,19 @@ public record Square(int row, int column) implements Comparable<Square> {
     @NonNull
     @Override
     public String toString() {
-        if (isRowConvertibleToUpperChar()) {
-            return String.format(Locale.getDefault(), "%s%d", Converters.ordinalToUpperChar(row), column);
+        if (isRowConvertibleToUpperLabel()) {
+            return String.format(Locale.getDefault(), "%s%d", Converters.ordinalToUpperLabel(row), column);
         } else {
             return String.format(Locale.getDefault(), "sqr(%d, %d)", row, column);
         }
     }
 
-    private boolean isRowConvertibleToUpperChar() {
-        final int lowerBound = 1;
-        final int upperBound = 'Z' - 'A' + 1;
-        return lowerBound <= row && row <= upperBound;
+    private boolean isRowConvertibleToUpperLabel() {
+        return row >= 1;
+    }
+
+    private static boolean isRowLabelChar(char c) {
+        return 'A' <= c && c <= 'Z';
     }
 
     private static int getCoordinatesHashCode(int row, int column) {
@@ -91,13 +105,7 @@ public record Square(int row, int column) implements Comparable<Square> {
         return hash;
     }
 
-    private static Square getFromPool(int row, int column) {
-        int hash = getCoordinatesHashCode(row, column);
-        return pool.getOrDefault(hash, null);
-    }
-
-    private static void addToPool(Square instance) {
-        int hash = instance.hashCode();
-        pool.putIfAbsent(hash, instance);
+    private static long getPoolKey(int row, int column) {
+        return ((long) row << Integer.SIZE) | column;
     }
 }
@@ -11,6 +11,15 @@ public class Addition extends Operator {
         return CollectionHelpers.firstOrReduce(operands, BigDecimal::add);
     }
 
+    @Override
+    public boolean isSatisfiedBy(int target, int[] operands) {
+        long sum = 0;
+        for (int operand : operands) {
+            sum += operand;
+        }
+        return operands.length > 0 && sum == target;
+    }
+
     @Override
     public boolean isCommutative() {
         return true;
@@ -16,6 +16,23 @@ public class Division extends Operator {
         );
     }
 
+    // Some operand divided by all the others reaches the target.
+    @Override
+    public boolean isSatisfiedBy(int target, int[] operands) {
+        for (int i = 0; i < operands.length; i++) {
+            long divisor = 1;
+            for (int j = 0; j < operands.length; j++) {
+                if (j != i) {
+                    divisor *= operands[j];
+                }
+            }
+            if (divisor != 0 && (long) target * divisor == operands[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isCommutative() {
         return false;
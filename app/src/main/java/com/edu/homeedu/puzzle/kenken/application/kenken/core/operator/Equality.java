@@ -11,6 +11,11 @@ public class Equality extends Operator {
         return CollectionHelpers.singleOrThrow(operands);
     }
 
+    @Override
+    public boolean isSatisfiedBy(int target, int[] operands) {
+        return operands.length == 1 && operands[0] == target;
+    }
+
     @Override
     public boolean isCommutative() {
         return true;
@@ -11,6 +11,18 @@ public class Multiplication extends Operator {
         return CollectionHelpers.firstOrReduce(operands, BigDecimal::multiply);
     }
 
+    @Override
+    public boolean isSatisfiedBy(int target, int[] operands) {
+        long product = 1;
+        for (int operand : operands) {
+            product *= operand;
+            if (product > target) {
+                return false;
+            }
+        }
+        return operands.length > 0 && product == target;
+    }
+
     @Override
     public boolean isCommutative() {
         return true;
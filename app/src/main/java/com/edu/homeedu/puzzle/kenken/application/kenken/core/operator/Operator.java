@@ -6,7 +6,12 @@
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.Answers;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.CageAnswer;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.MathHelpers;
+
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -20,6 +25,18 @@ public abstract class Operator {
         return reduce(operands.stream().map(BigDecimal::valueOf).collect(Collectors.toList()));
     }
 
+    /**
+     * Checks whether some ordering of the operands reduces to the target, as {@code Cage.isSolution} does.
+     * Subclasses override it with plain integer arithmetic; this fallback goes through {@link #apply(List)}.
+     */
+    public boolean isSatisfiedBy(int target, int[] operands) {
+        CageAnswer answer = Answers.newCageAnswer(Arrays.stream(operands).boxed().collect(Collectors.toList()));
+        BigDecimal expected = BigDecimal.valueOf(target);
+        return answer
+                .orderings(this)
+                .anyMatch(ordering -> MathHelpers.equals(apply(ordering), expected));
+    }
+
     public boolean hasCommutativeInverse() {
         return false;
     }
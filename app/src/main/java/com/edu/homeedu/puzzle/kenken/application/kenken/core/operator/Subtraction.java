@@ -11,6 +11,21 @@ public class Subtraction extends Operator {
         return CollectionHelpers.firstOrReduce(operands, BigDecimal::subtract);
     }
 
+    // Some operand minus all the others reaches the target.
+    @Override
+    public boolean isSatisfiedBy(int target, int[] operands) {
+        long sum = 0;
+        for (int operand : operands) {
+            sum += operand;
+        }
+        for (int operand : operands) {
+            if (2L * operand - sum == target) {
+                return operands.length > 0;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isCommutative() {
         return false;
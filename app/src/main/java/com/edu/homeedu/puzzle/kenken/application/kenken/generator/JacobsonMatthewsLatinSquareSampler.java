@@ -0,0 +1,170 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import java.util.Random;
+
+/**
+ * {@link LatinSquareSampler} that walks the Jacobson-Matthews Markov chain, whose stationary distribution
+ * is uniform over the latin squares of the size.
+ * <p>
+ * A square is held as its incidence cube, a flat array where the entry of row x, column y and value z is 1
+ * when the square has z at (x, y), and 0 otherwise. A step picks an entry that is 0 and moves the three
+ * other corners of a subcube around it, which may leave a single entry at -1, an improper square; the next
+ * steps start from that entry until the square is proper again. Every step costs three scans of a line of
+ * the cube and allocates nothing.
+ * <p>
+ * Only the steps that land on a proper square are counted: the chain is uniform over the proper squares it
+ * passes through, while stopping at the first proper square after a count of steps of any kind would favour
+ * the squares reached through fewer improper ones. A cold sample walks {@code size³} proper steps from the
+ * cyclic square. Warm starting from a square that was itself sampled walks {@code size²} proper steps only,
+ * since the chain is already mixed, at the cost of some resemblance between consecutive squares. The walk
+ * only depends on the random number generator, so a seeded one gives the same squares again.
+ */
+public class JacobsonMatthewsLatinSquareSampler implements LatinSquareSampler {
+    private static final int PROPER = -1;
+
+    @Override
+    public int[][] sample(int size, Random random) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Unsupported latin square size: " + size);
+        }
+
+        int[] cube = new int[size * size * size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                cube[index(size, row, column, (row + column) % size)] = 1;
+            }
+        }
+        walk(cube, size, (long) size * size * size, random);
+        return toSquare(cube, size);
+    }
+
+    /**
+     * Draws a latin square by walking the chain from the given one, which is left unchanged.
+     *
+     * @param start a latin square with the values from 1 to its size, indexed from 0.
+     * @throws IllegalArgumentException if the start is not a latin square.
+     */
+    public int[][] sample(int[][] start, Random random) {
+        int size = start.length;
+        int[] cube = new int[size * size * size];
+        for (int row = 0; row < size; row++) {
+            if (start[row].length != size) {
+                throw new IllegalArgumentException("The start is not a square");
+            }
+            for (int column = 0; column < size; column++) {
+                int value = start[row][column];
+                if (value < 1 || value > size) {
+                    throw new IllegalArgumentException("Value out of range at " + row + ", " + column);
+                }
+                cube[index(size, row, column, value - 1)] = 1;
+            }
+        }
+        if (!isProper(cube, size)) {
+            throw new IllegalArgumentException("The start is not a latin square");
+        }
+        walk(cube, size, (long) size * size, random);
+        return toSquare(cube, size);
+    }
+
+    // Walks until the chain has stepped onto a proper square the given number of times.
+    private static void walk(int[] cube, int size, long steps, Random random) {
+        if (size < 2) {
+            return; // The only square of size 1 has no 0 entry
+        }
+        int rowStride = size * size;
+        int improper = PROPER;
+        for (long step = 0; step < steps; ) {
+            int row;
+            int column;
+            int value;
+            if (improper == PROPER) {
+                // About one in every size draws hits a 1, so this takes a little over one draw
+                do {
+                    row = random.nextInt(size);
+                    column = random.nextInt(size);
+                    value = random.nextInt(size);
+                } while (cube[index(size, row, column, value)] != 0);
+            }
+            else {
+                row = improper / rowStride;
+                column = improper / size % size;
+                value = improper % size;
+            }
+
+            // A proper square has a single 1 on every line through a 0 entry,
+            // and an improper one has two on every line through its -1 entry.
+            int otherRow = findOne(cube, index(size, 0, column, value), rowStride, size, random);
+            int otherColumn = findOne(cube, index(size, row, 0, value), size, size, random);
+            int otherValue = findOne(cube, index(size, row, column, 0), 1, size, random);
+
+            cube[index(size, row, column, value)]++;
+            cube[index(size, row, otherColumn, otherValue)]++;
+            cube[index(size, otherRow, column, otherValue)]++;
+            cube[index(size, otherRow, otherColumn, value)]++;
+            cube[index(size, row, column, otherValue)]--;
+            cube[index(size, row, otherColumn, value)]--;
+            cube[index(size, otherRow, column, value)]--;
+            int corner = index(size, otherRow, otherColumn, otherValue);
+            cube[corner]--;
+            improper = cube[corner] < 0 ? corner : PROPER;
+            if (improper == PROPER) {
+                step++;
+            }
+        }
+    }
+
+    // The position along the line of an entry at 1, picked at random when there are two.
+    private static int findOne(int[] cube, int start, int stride, int size, Random random) {
+        int first = -1;
+        int second = -1;
+        for (int i = 0; i < size; i++) {
+            if (cube[start + i * stride] == 1) {
+                if (first < 0) {
+                    first = i;
+                }
+                else {
+                    second = i;
+                }
+            }
+        }
+        return second < 0 || random.nextBoolean() ? first : second;
+    }
+
+    private static boolean isProper(int[] cube, int size) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int rowLine = 0;
+                int columnLine = 0;
+                int valueLine = 0;
+                for (int k = 0; k < size; k++) {
+                    rowLine += cube[index(size, k, i, j)];
+                    columnLine += cube[index(size, i, k, j)];
+                    valueLine += cube[index(size, i, j, k)];
+                }
+                if (rowLine != 1 || columnLine != 1 || valueLine != 1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[][] toSquare(int[] cube, int size) {
+        int[][] square = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int line = index(size, row, column, 0);
+                int value = 0;
+                while (cube[line + value] != 1) {
+                    value++;
+                }
+                square[row][column] = value + 1;
+            }
+        }
+        return square;
+    }
+
+    private static int index(int size, int row, int column, int value) {
+        return (row * size + column) * size + value;
+    }
+}
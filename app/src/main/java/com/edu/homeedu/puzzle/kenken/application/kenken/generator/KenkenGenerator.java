@@ -0,0 +1,26 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+
+import java.util.List;
+import java.util.Random;
+
+public interface KenkenGenerator {
+    /**
+     * Generates a random kenken that has exactly one solution.
+     *
+     * @return the kenken, or null if none was found within the attempts of the generator
+     * or the thread was interrupted.
+     */
+    KenkenGame generate(int size, Random random);
+
+    /**
+     * Generates the kenkens with up to {@code parallelism} threads, the calling thread being one of them.
+     * The kenken at every position only depends on the seed and the position, so the same seed gives
+     * the same kenkens whatever the parallelism.
+     *
+     * @return {@code count} kenkens of the size that each have exactly one solution, null at the positions
+     * {@link #generate} gave up on.
+     */
+    List<KenkenGame> generateAll(int size, int count, long seed, int parallelism);
+}
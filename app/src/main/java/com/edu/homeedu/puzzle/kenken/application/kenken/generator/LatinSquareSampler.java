@@ -0,0 +1,13 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import java.util.Random;
+
+public interface LatinSquareSampler {
+    /**
+     * Draws a random latin square, a grid where every value from 1 to the size appears once in every row
+     * and once in every column.
+     *
+     * @return the values by row then column, both indexed from 0.
+     */
+    int[][] sample(int size, Random random);
+}
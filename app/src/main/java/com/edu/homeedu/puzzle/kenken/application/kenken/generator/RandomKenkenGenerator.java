@@ -0,0 +1,259 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Addition;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Division;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Equality;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Multiplication;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Subtraction;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * {@link KenkenGenerator} that lays random cages over a random latin square and keeps the layouts
+ * the solver finds a single solution for.
+ * <p>
+ * A kenken is made in four stages: the {@link LatinSquareSampler} draws the solution, the grid is split
+ * into connected cages grown from random squares, every cage gets an operator and the target its values
+ * give, and the solver counts the solutions up to the second one. The cages are mostly pairs and triples
+ * with few single squares, and pairs favour division and subtraction, which leave few value pairs, so most
+ * layouts are unique at the first try. A layout that is not is drawn again over the same square
+ * up to {@value #MAX_LAYOUT_ATTEMPTS} times before a new square is drawn, and up to
+ * {@value #MAX_SQUARE_ATTEMPTS} squares are drawn before giving up, so a generation on a background
+ * thread always ends. It also gives up when its thread is interrupted.
+ * <p>
+ * Each kenken is generated on its own, so {@link #generateAll} scales with the threads of the pool it is
+ * given, as long as the solver can be shared between them. Its workers take the next position not generated
+ * yet, the calling thread being one of them.
+ */
+public class RandomKenkenGenerator implements KenkenGenerator {
+    public static final int MAX_CAGE_SIZE = 4;
+    public static final int MAX_LAYOUT_ATTEMPTS = 8;
+    public static final int MAX_SQUARE_ATTEMPTS = 64;
+
+    // Indexed by the size of the cage
+    private static final int[] CAGE_SIZE_WEIGHTS = { 0, 1, 10, 8, 3 };
+    private static final int CAGE_SIZE_WEIGHT_TOTAL = IntStream.of(CAGE_SIZE_WEIGHTS).sum();
+    // The chance a pair whose values divide each other gets a division, and any other pair a subtraction
+    private static final double PAIR_DIVISION_RATE = 0.7;
+    private static final double PAIR_SUBTRACTION_RATE = 0.8;
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final KenkenSolver solver;
+    private final LatinSquareSampler sampler;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool the pool the batch generations run on, which the caller owns.
+     */
+    public RandomKenkenGenerator(KenkenSolver solver, LatinSquareSampler sampler, ForkJoinPool pool) {
+        this.solver = solver;
+        this.sampler = sampler;
+        this.pool = pool;
+    }
+
+    public RandomKenkenGenerator(KenkenSolver solver, LatinSquareSampler sampler) {
+        this(solver, sampler, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public KenkenGame generate(int size, Random random) {
+        if (size < 1 || size > BitmaskHelpers.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported kenken size: " + size);
+        }
+
+        for (int squareAttempt = 0; squareAttempt < MAX_SQUARE_ATTEMPTS; squareAttempt++) {
+            int[][] solution = sampler.sample(size, random);
+            for (int attempt = 0; attempt < MAX_LAYOUT_ATTEMPTS; attempt++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                KenkenGame kenken = new KenkenGame(assignOperators(partition(size, random), solution, random));
+                if (solver.isUnique(kenken)) {
+                    return kenken;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<KenkenGame> generateAll(int size, int count, long seed, int parallelism) {
+        KenkenGame[] kenkens = new KenkenGame[count];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                kenkens[i] = generate(size, new Random(seed + i * SEED_INCREMENT));
+            }
+        };
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int i = 1; i < Math.min(parallelism, count); i++) {
+            workers.add(pool.submit(worker));
+        }
+        worker.run();
+        workers.forEach(ForkJoinTask::join);
+        return Arrays.asList(kenkens);
+    }
+
+    /**
+     * Splits the grid into connected cages. Every square not in a cage yet, taken in a random order,
+     * starts a cage of a random size that grows into random free neighbours of its squares. A cage that
+     * is left as a single square with no free neighbour is merged into a neighbouring cage when one has room.
+     *
+     * @return the cells of every cage, a cell being {@code row * size + column}.
+     */
+    private static List<List<Integer>> partition(int size, Random random) {
+        int cellCount = size * size;
+        int[] cageOf = new int[cellCount];
+        Arrays.fill(cageOf, -1);
+        List<List<Integer>> cages = new ArrayList<>();
+        List<Integer> frontier = new ArrayList<>();
+
+        for (int start : shuffledCells(cellCount, random)) {
+            if (cageOf[start] >= 0) {
+                continue;
+            }
+            int cageSize = drawCageSize(random);
+            List<Integer> cage = new ArrayList<>(cageSize);
+            cage.add(start);
+            cageOf[start] = cages.size();
+            while (cage.size() < cageSize) {
+                frontier.clear();
+                for (int cell : cage) {
+                    addFreeNeighbours(cell, size, cageOf, frontier);
+                }
+                if (frontier.isEmpty()) {
+                    break;
+                }
+                int next = frontier.get(random.nextInt(frontier.size()));
+                cage.add(next);
+                cageOf[next] = cages.size();
+            }
+
+            if (cage.size() == 1 && cageSize > 1) {
+                frontier.clear();
+                addNeighbourCages(start, size, cageOf, cages, frontier);
+                if (!frontier.isEmpty()) {
+                    int merged = frontier.get(random.nextInt(frontier.size()));
+                    cages.get(merged).add(start);
+                    cageOf[start] = merged;
+                    continue;
+                }
+            }
+            cages.add(cage);
+        }
+        return cages;
+    }
+
+    private static List<Cage> assignOperators(List<List<Integer>> cellsOfCages, int[][] solution, Random random) {
+        int size = solution.length;
+        List<Cage> cages = new ArrayList<>(cellsOfCages.size());
+        for (List<Integer> cells : cellsOfCages) {
+            int[] values = new int[cells.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = solution[cells.get(i) / size][cells.get(i) % size];
+            }
+
+            Cage cage = newCage(values, random);
+            for (int cell : cells) {
+                cage.add(Square.of(cell / size + 1, cell % size + 1));
+            }
+            cages.add(cage);
+        }
+        return cages;
+    }
+
+    private static Cage newCage(int[] values, Random random) {
+        if (values.length == 1) {
+            return new Cage(values[0], new Equality());
+        }
+        if (values.length == 2) {
+            int high = Math.max(values[0], values[1]);
+            int low = Math.min(values[0], values[1]);
+            if (high % low == 0 && random.nextDouble() < PAIR_DIVISION_RATE) {
+                return new Cage(high / low, new Division());
+            }
+            if (random.nextDouble() < PAIR_SUBTRACTION_RATE) {
+                return new Cage(high - low, new Subtraction());
+            }
+        }
+
+        if (random.nextBoolean()) {
+            int sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            return new Cage(sum, new Addition());
+        }
+        int product = 1;
+        for (int value : values) {
+            product *= value;
+        }
+        return new Cage(product, new Multiplication());
+    }
+
+    private static int drawCageSize(Random random) {
+        int draw = random.nextInt(CAGE_SIZE_WEIGHT_TOTAL);
+        int cageSize = 0;
+        while (draw >= CAGE_SIZE_WEIGHTS[cageSize]) {
+            draw -= CAGE_SIZE_WEIGHTS[cageSize];
+            cageSize++;
+        }
+        return cageSize;
+    }
+
+    private static int[] shuffledCells(int cellCount, Random random) {
+        int[] cells = new int[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            int j = random.nextInt(i + 1);
+            cells[i] = cells[j];
+            cells[j] = i;
+        }
+        return cells;
+    }
+
+    private static void addFreeNeighbours(int cell, int size, int[] cageOf, List<Integer> frontier) {
+        for (int neighbour : neighbours(cell, size)) {
+            if (neighbour >= 0 && cageOf[neighbour] < 0 && !frontier.contains(neighbour)) {
+                frontier.add(neighbour);
+            }
+        }
+    }
+
+    private static void addNeighbourCages(
+            int cell, int size, int[] cageOf, List<List<Integer>> cages, List<Integer> frontier) {
+        for (int neighbour : neighbours(cell, size)) {
+            if (neighbour < 0 || cageOf[neighbour] < 0 || cageOf[neighbour] >= cages.size()) {
+                continue;
+            }
+            int cage = cageOf[neighbour];
+            if (cages.get(cage).size() < MAX_CAGE_SIZE && !frontier.contains(cage)) {
+                frontier.add(cage);
+            }
+        }
+    }
+
+    // The cells above, below, left and right of the cell, -1 where the grid ends
+    private static int[] neighbours(int cell, int size) {
+        int row = cell / size;
+        int column = cell % size;
+        return new int[] {
+                row > 0 ? cell - size : -1,
+                row < size - 1 ? cell + size : -1,
+                column > 0 ? cell - 1 : -1,
+                column < size - 1 ? cell + 1 : -1
+        };
+    }
+}
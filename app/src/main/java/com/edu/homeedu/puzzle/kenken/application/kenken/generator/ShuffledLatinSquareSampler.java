@@ -0,0 +1,37 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import java.util.Random;
+
+/**
+ * {@link LatinSquareSampler} that shuffles the rows, the columns and the values of the cyclic latin square.
+ * <p>
+ * A square costs a few permutations and no search, but the squares drawn are all isotopic to the cyclic one,
+ * so only a small part of the latin squares of the size can come out;
+ * {@link JacobsonMatthewsLatinSquareSampler} draws from all of them.
+ */
+public class ShuffledLatinSquareSampler implements LatinSquareSampler {
+    @Override
+    public int[][] sample(int size, Random random) {
+        int[] rows = permutation(size, random);
+        int[] columns = permutation(size, random);
+        int[] values = permutation(size, random);
+        int[][] square = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                square[row][column] = values[(rows[row] + columns[column]) % size] + 1;
+            }
+        }
+        return square;
+    }
+
+    // Fisher-Yates shuffle of 0 to size - 1
+    private static int[] permutation(int size, Random random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            permutation[i] = permutation[j];
+            permutation[j] = i;
+        }
+        return permutation;
+    }
+}
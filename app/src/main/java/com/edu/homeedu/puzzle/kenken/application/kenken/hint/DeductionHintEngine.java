@@ -0,0 +1,279 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.hint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageBoundsConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenCageConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenUnitConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.SubsetConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.UnitInvariantConstraint;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link KenkenHintEngine} that solves the kenken the way a player would, with no search.
+ * <p>
+ * The candidates of every square start from the whole value range, and the techniques are applied in
+ * their order, going back to the first one after any of them removes a candidate. After each step, the
+ * squares left with a single candidate are compared with the progress, and the first one the player has
+ * not filled in with that value is the hint, along with the technique of the step that left it single.
+ * The candidates only follow from the puzzle, never from the player's values, so a hint is right even
+ * when the progress holds mistakes, which it then points out.
+ * <p>
+ * A step costs a pass of one technique over the grid, so a hint needs no more than propagation work.
+ * When the techniques are not enough, no hint is given and the caller is left to search for one.
+ */
+public class DeductionHintEngine implements KenkenHintEngine {
+    /**
+     * The largest cages whose value tuples are enumerated; larger addition and multiplication cages are
+     * bounded instead (see {@link CageBoundsConstraint}).
+     */
+    public static final int MAX_ENUMERATED_CAGE_SIZE = 4;
+
+    /**
+     * What the techniques find on their own.
+     *
+     * @param steps the number of steps made with every technique.
+     * @param hardestTechnique the hardest technique used, or null if none removed a candidate.
+     * @param solved true if the techniques solve the kenken without any search.
+     * @param candidates the values every square is left with.
+     */
+    public record DeductionResult(
+            Map<Technique, Integer> steps,
+            Technique hardestTechnique,
+            boolean solved,
+            Map<Square, Set<Integer>> candidates) {}
+
+    private static final int STUCK = -1;
+    private static final int FAILED = -2;
+
+    private final List<Technique> techniques;
+    private final KenkenCageConstraint[] cageConstraints = {
+            new CageConsistencyConstraint(MAX_ENUMERATED_CAGE_SIZE),
+            new CageBoundsConstraint()
+    };
+    private final KenkenUnitConstraint subsetConstraint = new SubsetConsistencyConstraint();
+    private final KenkenUnitConstraint invariantConstraint = new UnitInvariantConstraint();
+    private SolvingTopology topology;
+
+    public DeductionHintEngine() {
+        this(Arrays.asList(Technique.values()));
+    }
+
+    /**
+     * @param techniques the techniques to use, from the easiest to the hardest.
+     */
+    public DeductionHintEngine(List<Technique> techniques) {
+        this.techniques = List.copyOf(techniques);
+    }
+
+    @Override
+    public synchronized Hint nextHint(KenkenGame kenken, KenkenAnswer progress) {
+        if (kenken == null || techniques.isEmpty()) {
+            return null;
+        }
+
+        Deduction deduction = new Deduction(getTopology(kenken));
+        while (true) {
+            Hint hint = findForcedSquare(deduction.context, progress, deduction.forcedBy);
+            if (hint != null) {
+                return hint;
+            }
+            if (deduction.step() < 0) {
+                return null; // Every technique is stuck, or the puzzle has no solution
+            }
+        }
+    }
+
+    /**
+     * Applies the techniques to the kenken until they are stuck, with no progress from the player.
+     * Unlike {@link #nextHint}, it may run on several threads at once.
+     */
+    public DeductionResult deduce(KenkenGame kenken) {
+        Map<Technique, Integer> steps = new EnumMap<>(Technique.class);
+        if (kenken == null || techniques.isEmpty()) {
+            return new DeductionResult(steps, null, false, Map.of());
+        }
+
+        Deduction deduction = new Deduction(new SolvingTopology(kenken));
+        Technique hardest = null;
+        int applied;
+        while ((applied = deduction.step()) >= 0) {
+            Technique technique = techniques.get(applied);
+            steps.merge(technique, 1, Integer::sum);
+            if (hardest == null || technique.compareTo(hardest) > 0) {
+                hardest = technique;
+            }
+        }
+        SolvingContext context = deduction.context;
+        Map<Square, Set<Integer>> candidates = new HashMap<>();
+        for (int cell = 0; cell < context.getCellCount(); cell++) {
+            candidates.put(context.getSquare(cell), BitmaskHelpers.toSet(context.getDomain(cell)));
+        }
+        return new DeductionResult(steps, hardest, applied == STUCK && context.isSolved(), candidates);
+    }
+
+    // The single candidate squares the player filled in wrongly come first, then the ones left empty.
+    private static Hint findForcedSquare(SolvingContext context, KenkenAnswer progress, Technique[] forcedBy) {
+        Hint emptySquareHint = null;
+        for (int cell = 0; cell < context.getCellCount(); cell++) {
+            if (!context.isSingle(cell)) {
+                continue;
+            }
+            int value = BitmaskHelpers.lowest(context.getDomain(cell));
+            int filledValue = progress != null ? progress.getValue(context.getSquare(cell)) : 0;
+            if (filledValue == value) {
+                continue;
+            }
+            if (filledValue > 0) {
+                return new Hint(context.getSquare(cell), value, forcedBy[cell], true);
+            }
+            else if (emptySquareHint == null) {
+                emptySquareHint = new Hint(context.getSquare(cell), value, forcedBy[cell], false);
+            }
+        }
+        return emptySquareHint;
+    }
+
+    // Applies one pass of the technique over the grid; false if a square is left without a candidate.
+    private boolean apply(Technique technique, SolvingContext context) {
+        SolvingTopology topology = context.getTopology();
+        switch (technique) {
+            case SINGLES:
+                return applySingles(context);
+            case CAGE_COMBINATIONS:
+                for (int cageIndex = 0; cageIndex < topology.getCageCount(); cageIndex++) {
+                    for (KenkenCageConstraint constraint : cageConstraints) {
+                        if (!constraint.testCage(context, cageIndex)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            case SUBSETS:
+                return applyToUnits(subsetConstraint, context);
+            case UNIT_INVARIANTS:
+                return applyToUnits(invariantConstraint, context);
+            default:
+                throw new IllegalArgumentException("Unknown technique: " + technique);
+        }
+    }
+
+    private static boolean applyToUnits(KenkenUnitConstraint constraint, SolvingContext context) {
+        for (int unitIndex = 0; unitIndex < context.getTopology().getUnitCount(); unitIndex++) {
+            if (!constraint.testUnit(context, unitIndex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Removes the value of every single candidate square from its peers (naked singles), then fills every
+    // value that has a single square left in a row or column (hidden singles).
+    private static boolean applySingles(SolvingContext context) {
+        for (int cell = 0; cell < context.getCellCount(); cell++) {
+            if (!context.isSingle(cell)) {
+                continue;
+            }
+            int value = BitmaskHelpers.lowest(context.getDomain(cell));
+            for (int peer : context.getPeers(cell)) {
+                if (context.contains(peer, value) && !context.eliminate(peer, value)) {
+                    return false;
+                }
+            }
+        }
+
+        SolvingTopology topology = context.getTopology();
+        int fullDomain = topology.getFullDomain();
+        for (int unitIndex = 0; unitIndex < topology.getUnitCount(); unitIndex++) {
+            int[] cells = topology.getUnitCells(unitIndex);
+            for (int rest = fullDomain; rest != 0; rest &= rest - 1) {
+                int value = BitmaskHelpers.lowest(rest);
+                int place = -1;
+                int placeCount = 0;
+                for (int cell : cells) {
+                    if (context.contains(cell, value)) {
+                        place = cell;
+                        placeCount++;
+                    }
+                }
+                if (placeCount == 0) {
+                    return false;
+                }
+                if (placeCount == 1 && !context.isSingle(place) && context.fill(place, value).isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Single square cages are given by the puzzle, so they are filled before any technique.
+    private static int[] initialDomains(SolvingTopology topology) {
+        int[] domains = new int[topology.getCellCount()];
+        Arrays.fill(domains, topology.getFullDomain());
+        for (int cageIndex = 0; cageIndex < topology.getCageCount(); cageIndex++) {
+            Cage cage = topology.getCage(cageIndex);
+            int[] cells = topology.getCageCells(cageIndex);
+            if (cells.length == 1 && 0 < cage.getTarget() && cage.getTarget() <= BitmaskHelpers.MAX_VALUE) {
+                domains[cells[0]] &= BitmaskHelpers.of(cage.getTarget());
+            }
+        }
+        return domains;
+    }
+
+    // The candidates of a kenken, narrowed one technique step at a time.
+    private final class Deduction {
+        private final int[] domains;
+        private final int[] previousDomains;
+        private final SolvingContext context;
+        private final Technique[] forcedBy;
+
+        Deduction(SolvingTopology topology) {
+            domains = initialDomains(topology);
+            previousDomains = new int[domains.length];
+            context = new SolvingContext(topology, new DeductionProcessor(domains), domains);
+            forcedBy = new Technique[domains.length];
+            Arrays.fill(forcedBy, techniques.get(0));
+        }
+
+        // Applies the first technique that removes a candidate and returns its index,
+        // or STUCK if none does, or FAILED if a square is left without a candidate.
+        int step() {
+            for (int i = 0; i < techniques.size(); i++) {
+                System.arraycopy(domains, 0, previousDomains, 0, domains.length);
+                if (!apply(techniques.get(i), context)) {
+                    return FAILED;
+                }
+                if (Arrays.equals(previousDomains, domains)) {
+                    continue;
+                }
+                for (int cell = 0; cell < domains.length; cell++) {
+                    if (!BitmaskHelpers.isSingle(previousDomains[cell]) && BitmaskHelpers.isSingle(domains[cell])) {
+                        forcedBy[cell] = techniques.get(i);
+                    }
+                }
+                return i;
+            }
+            return STUCK;
+        }
+    }
+
+    private SolvingTopology getTopology(KenkenGame kenken) {
+        if (topology == null || topology.getKenken() != kenken) {
+            topology = new SolvingTopology(kenken);
+        }
+        return topology;
+    }
+}
@@ -0,0 +1,38 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.hint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContextProcessor;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Processor of the contexts the techniques work on. It removes values from the domains the context was
+ * created on without propagating them, so that every removal is made by the technique being applied
+ * and not by the ones after it.
+ */
+final class DeductionProcessor implements SolvingContextProcessor {
+    private final int[] domains;
+
+    /**
+     * @param domains the domains of the context this processor is used by.
+     */
+    DeductionProcessor(int[] domains) {
+        this.domains = domains;
+    }
+
+    @Override
+    public SolvingContext fill(SolvingContext context, int cell, int filledValue) {
+        int otherValues = BitmaskHelpers.remove(domains[cell], filledValue);
+        for (int rest = otherValues; rest != 0; rest &= rest - 1) {
+            if (!eliminate(context, cell, BitmaskHelpers.lowest(rest))) {
+                return SolvingContext.emptyContext();
+            }
+        }
+        return context;
+    }
+
+    @Override
+    public boolean eliminate(SolvingContext context, int cell, int eliminatedValue) {
+        domains[cell] = BitmaskHelpers.remove(domains[cell], eliminatedValue);
+        return domains[cell] != 0;
+    }
+}
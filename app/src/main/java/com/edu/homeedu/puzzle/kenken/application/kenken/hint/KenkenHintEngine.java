@@ -0,0 +1,49 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.hint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+
+public interface KenkenHintEngine {
+    /**
+     * Human solving techniques, from the easiest to the hardest.
+     */
+    enum Technique {
+        /**
+         * A square has a single value left, or a value has a single square left in a row or column.
+         */
+        SINGLES,
+        /**
+         * The value tuples that solve a cage leave some values out of some of its squares.
+         */
+        CAGE_COMBINATIONS,
+        /**
+         * A few squares of a row or column share as many values between them (naked subsets),
+         * or a few values fit only as many squares (hidden subsets).
+         */
+        SUBSETS,
+        /**
+         * The values of a row or column always add up to, and multiply to, the same totals.
+         */
+        UNIT_INVARIANTS
+    }
+
+    /**
+     * A value the player can fill in, and the technique that finds it.
+     *
+     * @param square the square to fill in.
+     * @param value the value of the square.
+     * @param technique the technique that left the square with a single value.
+     * @param correction true if the player has filled in the square with another value.
+     */
+    record Hint(Square square, int value, Technique technique, boolean correction) {}
+
+    /**
+     * Looks for a square whose value follows from the techniques alone.
+     *
+     * @param progress the values the player has filled in so far, may be empty.
+     * @return the first square found that the player has not filled in with its value yet,
+     * or null if the techniques do not find any.
+     */
+    Hint nextHint(KenkenGame kenken, KenkenAnswer progress);
+}
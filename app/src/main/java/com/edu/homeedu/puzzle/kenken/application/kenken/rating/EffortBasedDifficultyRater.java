@@ -0,0 +1,124 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.rating;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.DeductionHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.KenkenHintEngine.Technique;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.CancellationToken;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolverStatistics;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link KenkenDifficultyRater} that rates a kenken by the effort it takes to solve it.
+ * <p>
+ * The techniques of the {@link DeductionHintEngine} are applied first, the way a player would, and the
+ * hardest one needed sets the base of the score, with every step adding a little. When the techniques are
+ * stuck, the solver searches from the candidates they leave, and the branches it explores and the ones that
+ * fail add to the score on a logarithmic scale. The search is capped at {@value #MAX_SEARCH_NODES} nodes,
+ * which is already far beyond what a player would take on. The grid size only adds a small part, so a
+ * large kenken solved with singles alone rates easier than a small one that needs a search.
+ * <p>
+ * The search effort is read from the {@link SolverStatistics} of the solver, which must have statistics
+ * enabled; otherwise only the techniques count.
+ * <p>
+ * {@link #rateAll} runs its workers on the pool the rater is given, the calling thread being one of them.
+ * Each worker takes the next kenken not rated yet, so a few hard kenkens do not hold up the others.
+ */
+public class EffortBasedDifficultyRater implements KenkenDifficultyRater {
+    public static final long MAX_SEARCH_NODES = 100_000;
+
+    // Indexed by the ordinal of the technique
+    private static final double[] TECHNIQUE_SCORES = { 1, 2, 3.5, 5 };
+    private static final double[] STEP_SCORES = { 0.05, 0.1, 0.2, 0.3 };
+    private static final double SEARCH_WEIGHT = 1.5;
+    // The lowest score of every difficulty after the first
+    private static final double[] DIFFICULTY_THRESHOLDS = { 2, 4, 6, 8, 11, 15 };
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    private final DeductionHintEngine deductions;
+    private final KenkenSolver solver;
+    private final KenkenSolver.SolvingBudget searchBudget =
+            new KenkenSolver.SolvingBudget(MAX_SEARCH_NODES, Long.MAX_VALUE, Long.MAX_VALUE);
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool the pool the batch ratings run on, which the caller owns.
+     */
+    public EffortBasedDifficultyRater(DeductionHintEngine deductions, KenkenSolver solver, ForkJoinPool pool) {
+        this.deductions = deductions;
+        this.solver = solver;
+        this.pool = pool;
+    }
+
+    public EffortBasedDifficultyRater(DeductionHintEngine deductions, KenkenSolver solver) {
+        this(deductions, solver, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public DifficultyRating rate(KenkenGame kenken) {
+        DeductionHintEngine.DeductionResult deduction = deductions.deduce(kenken);
+        Technique hardest = deduction.hardestTechnique();
+        double score = Math.log(kenken.getSize() * kenken.getSize()) / Math.log(2) / 2;
+        if (hardest != null) {
+            score += TECHNIQUE_SCORES[hardest.ordinal()];
+        }
+        for (Map.Entry<Technique, Integer> steps : deduction.steps().entrySet()) {
+            score += STEP_SCORES[steps.getKey().ordinal()] * steps.getValue();
+        }
+
+        long nodes = 0;
+        long backtracks = 0;
+        int maxDepth = 0;
+        if (!deduction.solved()) {
+            KenkenSolver.SolvingResult result = solver.solve(
+                    kenken, deduction.candidates(), searchBudget, new CancellationToken());
+            SolverStatistics statistics = result.statistics();
+            if (statistics != null) {
+                nodes = statistics.getNodes();
+                backtracks = statistics.getBacktracks();
+                maxDepth = statistics.getMaxDepth();
+            }
+            score += SEARCH_WEIGHT * (log2(1 + nodes) + log2(1 + backtracks));
+        }
+        return new DifficultyRating(score, difficultyOf(score), hardest, nodes, backtracks, maxDepth);
+    }
+
+    @Override
+    public List<DifficultyRating> rateAll(List<KenkenGame> kenkens, int parallelism) {
+        DifficultyRating[] ratings = new DifficultyRating[kenkens.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < ratings.length; i = next.getAndIncrement()) {
+                ratings[i] = rate(kenkens.get(i));
+            }
+        };
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int i = 1; i < Math.min(parallelism, kenkens.size()); i++) {
+            workers.add(pool.submit(worker));
+        }
+        worker.run();
+        workers.forEach(ForkJoinTask::join);
+        return Arrays.asList(ratings);
+    }
+
+    private static Difficulty difficultyOf(double score) {
+        int i = 0;
+        while (i < DIFFICULTY_THRESHOLDS.length && score >= DIFFICULTY_THRESHOLDS[i]) {
+            i++;
+        }
+        return DIFFICULTIES[i];
+    }
+
+    private static double log2(long value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
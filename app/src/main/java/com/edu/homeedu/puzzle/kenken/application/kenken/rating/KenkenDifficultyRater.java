@@ -0,0 +1,36 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.rating;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.KenkenHintEngine.Technique;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+
+import java.util.List;
+
+public interface KenkenDifficultyRater {
+    /**
+     * Difficulty of a kenken and the effort it was rated from.
+     *
+     * @param score the difficulty on an open scale, 0 for the easiest kenkens.
+     * @param difficulty the level the score falls in.
+     * @param hardestTechnique the hardest technique needed before any search, or null if none is.
+     * @param nodes the number of branches the search explored after the techniques were stuck.
+     * @param backtracks the number of those branches that failed.
+     * @param maxDepth the deepest the search went.
+     */
+    record DifficultyRating(
+            double score,
+            Difficulty difficulty,
+            Technique hardestTechnique,
+            long nodes,
+            long backtracks,
+            int maxDepth) {}
+
+    DifficultyRating rate(KenkenGame kenken);
+
+    /**
+     * Rates the kenkens with up to {@code parallelism} threads, the calling thread being one of them.
+     *
+     * @return the ratings, in the order of the kenkens.
+     */
+    List<DifficultyRating> rateAll(List<KenkenGame> kenkens, int parallelism);
+}
@@ -0,0 +1,310 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.repair;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Addition;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Equality;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Multiplication;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Operator;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link KenkenRepairEngine} that splits the cages two solutions disagree on until one solution is left.
+ * <p>
+ * The first solution the solver finds is kept, and the search goes on for another one. The squares where
+ * the two differ show which cages fail to tell them apart, and one of those is split into connected parts
+ * that each get the operator of the cage and the target the kept solution gives them, picked so that the
+ * other solution no longer fits. Addition and multiplication cages are split in two, with as few single
+ * squares as possible; other cages, and cages no split in two works for, give up single squares.
+ * <p>
+ * Every part of a split cage keeps its operator, so the parts add up, or multiply, to the target of the
+ * cage, and any solution of the repaired cages solves the original ones too. The search started on the
+ * original cages therefore goes on where it stopped after each split: it is the retained solver state, and
+ * the solutions it finds next are only checked against the current cages, which costs no search. Once it
+ * ends, the kept solution is the only one left. A search that keeps finding solutions the splits already
+ * ruled out is restarted from the current cages after {@value #MAX_SKIPPED_SOLUTIONS} of them.
+ */
+public class CageSplittingRepairEngine implements KenkenRepairEngine {
+    public static final int MAX_SKIPPED_SOLUTIONS = 256;
+    /**
+     * The largest cages whose splits in two are all tried; larger cages give up single squares.
+     */
+    public static final int MAX_ENUMERATED_CAGE_SIZE = 12;
+
+    private final KenkenSolver solver;
+
+    public CageSplittingRepairEngine(KenkenSolver solver) {
+        this.solver = solver;
+    }
+
+    @Override
+    public Repair repair(KenkenGame kenken) {
+        int size = kenken.getSize();
+        List<Part> parts = new ArrayList<>();
+        for (Cage cage : kenken.getCages()) {
+            parts.add(new Part(toCells(cage, size), cage.getOperator(), cage.getTarget()));
+        }
+
+        Iterator<KenkenAnswer> solutions = solver.solutions(kenken, Map.of()).iterator();
+        int fullSolves = 1;
+        if (!solutions.hasNext()) {
+            return null;
+        }
+        int[] solution = toGrid(solutions.next(), size);
+
+        int splitCages = 0;
+        int skipped = 0;
+        while (true) {
+            int[] other = null;
+            while (other == null && solutions.hasNext()) {
+                int[] candidate = toGrid(solutions.next(), size);
+                if (!Arrays.equals(candidate, solution) && fits(parts, candidate)) {
+                    other = candidate;
+                    skipped = 0;
+                }
+                else if (++skipped > MAX_SKIPPED_SOLUTIONS) {
+                    solutions = solver.solutions(toKenken(parts, size), Map.of()).iterator();
+                    fullSolves++;
+                    skipped = 0;
+                }
+            }
+            if (other == null) {
+                break;
+            }
+            split(parts, solution, other, size);
+            splitCages++;
+        }
+
+        KenkenGame repaired = splitCages == 0 ? kenken : toKenken(parts, size);
+        return new Repair(repaired, toAnswer(solution, size), splitCages, fullSolves);
+    }
+
+    // Replaces the cage whose best split rules the other solution out by its parts.
+    private static void split(List<Part> parts, int[] solution, int[] other, int size) {
+        int bestIndex = -1;
+        List<Part> bestSplit = null;
+        int bestScore = Integer.MAX_VALUE;
+        for (int i = 0; i < parts.size(); i++) {
+            Part part = parts.get(i);
+            if (part.cells().length < 2 || !differs(part.cells(), solution, other)) {
+                continue;
+            }
+            List<Part> split = bestSplit(part, solution, other, size);
+            int score = score(split);
+            if (score < bestScore) {
+                bestIndex = i;
+                bestSplit = split;
+                bestScore = score;
+            }
+        }
+        if (bestSplit == null) {
+            // Cannot happen, the other solution would fit the single square cages
+            throw new IllegalStateException("No cage tells the solutions apart");
+        }
+        parts.remove(bestIndex);
+        parts.addAll(bestSplit);
+    }
+
+    private static List<Part> bestSplit(Part part, int[] solution, int[] other, int size) {
+        int[] cells = part.cells();
+        boolean additive = part.operator() instanceof Addition || part.operator() instanceof Multiplication;
+        List<Part> best = null;
+        int bestScore = Integer.MAX_VALUE;
+        if (additive && cells.length <= MAX_ENUMERATED_CAGE_SIZE) {
+            // The first cell is always in the first part, so every split is seen once
+            int all = (1 << cells.length) - 1;
+            for (int mask = 1; mask < all; mask += 2) {
+                int[] first = select(cells, mask);
+                int[] second = select(cells, all & ~mask);
+                if (!isConnected(first, size) || !isConnected(second, size)) {
+                    continue;
+                }
+                List<Part> split = List.of(
+                        newPart(first, part.operator(), solution),
+                        newPart(second, part.operator(), solution));
+                int score = score(split);
+                if (score < bestScore && !fits(split, other)) {
+                    best = split;
+                    bestScore = score;
+                }
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+
+        // The first square the solutions differ on stands alone, and the rest keeps the operator
+        // in connected parts; cages of other operators are given up as single squares.
+        int alone = -1;
+        for (int cell : cells) {
+            if (solution[cell] != other[cell]) {
+                alone = cell;
+                break;
+            }
+        }
+        List<Part> split = new ArrayList<>();
+        split.add(newPart(new int[] { alone }, part.operator(), solution));
+        int[] rest = new int[cells.length - 1];
+        int restCount = 0;
+        for (int cell : cells) {
+            if (cell != alone) {
+                rest[restCount++] = cell;
+            }
+        }
+        if (additive) {
+            for (int[] component : components(rest, size)) {
+                split.add(newPart(component, part.operator(), solution));
+            }
+        }
+        else {
+            for (int cell : rest) {
+                split.add(newPart(new int[] { cell }, part.operator(), solution));
+            }
+        }
+        return split;
+    }
+
+    // Lower is better: few single square parts first, then parts of even sizes.
+    private static int score(List<Part> split) {
+        int singles = 0;
+        int smallest = Integer.MAX_VALUE;
+        int largest = 0;
+        for (Part part : split) {
+            if (part.cells().length == 1) {
+                singles++;
+            }
+            smallest = Math.min(smallest, part.cells().length);
+            largest = Math.max(largest, part.cells().length);
+        }
+        return singles * (MAX_ENUMERATED_CAGE_SIZE + 1) + largest - smallest;
+    }
+
+    private static Part newPart(int[] cells, Operator operator, int[] solution) {
+        if (cells.length == 1) {
+            return new Part(cells, new Equality(), solution[cells[0]]);
+        }
+        int target = operator instanceof Multiplication ? 1 : 0;
+        for (int cell : cells) {
+            target = operator instanceof Multiplication ? target * solution[cell] : target + solution[cell];
+        }
+        return new Part(cells, operator, target);
+    }
+
+    private static boolean fits(List<Part> parts, int[] grid) {
+        for (Part part : parts) {
+            int[] operands = new int[part.cells().length];
+            for (int i = 0; i < operands.length; i++) {
+                operands[i] = grid[part.cells()[i]];
+            }
+            if (!part.operator().isSatisfiedBy(part.target(), operands)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean differs(int[] cells, int[] solution, int[] other) {
+        for (int cell : cells) {
+            if (solution[cell] != other[cell]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] select(int[] cells, int mask) {
+        int[] selected = new int[Integer.bitCount(mask)];
+        int count = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                selected[count++] = cells[i];
+            }
+        }
+        return selected;
+    }
+
+    private static boolean isConnected(int[] cells, int size) {
+        return components(cells, size).size() == 1;
+    }
+
+    private static List<int[]> components(int[] cells, int size) {
+        List<int[]> components = new ArrayList<>();
+        boolean[] reached = new boolean[cells.length];
+        int[] pending = new int[cells.length];
+        for (int start = 0; start < cells.length; start++) {
+            if (reached[start]) {
+                continue;
+            }
+            int pendingCount = 0;
+            int[] component = new int[cells.length];
+            int componentCount = 0;
+            reached[start] = true;
+            pending[pendingCount++] = start;
+            while (pendingCount > 0) {
+                int i = pending[--pendingCount];
+                component[componentCount++] = cells[i];
+                for (int j = 0; j < cells.length; j++) {
+                    if (!reached[j] && areNeighbours(cells[i], cells[j], size)) {
+                        reached[j] = true;
+                        pending[pendingCount++] = j;
+                    }
+                }
+            }
+            components.add(Arrays.copyOf(component, componentCount));
+        }
+        return components;
+    }
+
+    private static boolean areNeighbours(int cell, int otherCell, int size) {
+        int rowDistance = Math.abs(cell / size - otherCell / size);
+        int columnDistance = Math.abs(cell % size - otherCell % size);
+        return rowDistance + columnDistance == 1;
+    }
+
+    private static int[] toCells(Cage cage, int size) {
+        return cage
+                .getSquares()
+                .stream()
+                .mapToInt(square -> (square.row() - 1) * size + square.column() - 1)
+                .toArray();
+    }
+
+    private static int[] toGrid(KenkenAnswer answer, int size) {
+        int[] grid = new int[size * size];
+        for (int cell = 0; cell < grid.length; cell++) {
+            grid[cell] = answer.getValue(Square.of(cell / size + 1, cell % size + 1));
+        }
+        return grid;
+    }
+
+    private static KenkenAnswer toAnswer(int[] grid, int size) {
+        KenkenAnswer answer = KenkenAnswer.emptyAnswer();
+        for (int cell = 0; cell < grid.length; cell++) {
+            answer.setValue(Square.of(cell / size + 1, cell % size + 1), grid[cell]);
+        }
+        return answer;
+    }
+
+    private static KenkenGame toKenken(List<Part> parts, int size) {
+        List<Cage> cages = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            Cage cage = new Cage(part.target(), part.operator());
+            for (int cell : part.cells()) {
+                cage.add(Square.of(cell / size + 1, cell % size + 1));
+            }
+            cages.add(cage);
+        }
+        return new KenkenGame(cages);
+    }
+
+    // A cage of the layout being repaired, its cells being (row - 1) * size + column - 1
+    private record Part(int[] cells, Operator operator, int target) {}
+}
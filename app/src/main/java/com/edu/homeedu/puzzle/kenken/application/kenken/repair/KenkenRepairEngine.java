@@ -0,0 +1,24 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.repair;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+
+public interface KenkenRepairEngine {
+    /**
+     * A kenken made unique, and what it took.
+     *
+     * @param kenken the repaired kenken, which has a single solution.
+     * @param solution the solution of the repaired kenken, which also solves the original one.
+     * @param splitCages the number of cages that were split.
+     * @param fullSolves the number of searches started from the cages alone, the first one included.
+     */
+    record Repair(KenkenGame kenken, KenkenAnswer solution, int splitCages, int fullSolves) {}
+
+    /**
+     * Changes the cages of a kenken that has several solutions until it has a single one.
+     * A kenken that already has a single solution is returned as it is.
+     *
+     * @return the repair, or null if the kenken has no solution.
+     */
+    Repair repair(KenkenGame kenken);
+}
@@ -0,0 +1,145 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.BranchingStrategy;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Conflict-directed backjumping search with nogood learning, on a trailed {@link SolvingContext}.
+ * <p>
+ * Every removal is explained by the decisions it depends on (see {@link SolvingExplanations}). When a branch
+ * fails, its conflict set tells which decisions caused the failure. If the decision of the current level is
+ * not among them, trying its other values cannot help, so the search jumps back to the latest decision that
+ * is. When every value of a square fails, the decisions of the conflict set form a nogood, which is kept
+ * in a {@link NogoodStore} and checked after later decisions so that the same conflict is not searched again
+ * under other branches.
+ */
+final class BackjumpingSearch {
+    private final ConstraintBasedKenkenSolver solver;
+    private final SolvingContext context;
+    private final BooleanSupplier stopped;
+    private final SolvingExplanations explanations;
+    private final NogoodStore nogoods;
+    private final int[] decisionCells;
+    private final int[] decisionValues;
+    private boolean solved = false;
+    private boolean aborted = false;
+
+    BackjumpingSearch(ConstraintBasedKenkenSolver solver, SolvingContext context, BooleanSupplier stopped) {
+        this.solver = solver;
+        this.context = context;
+        this.stopped = stopped;
+        this.explanations = new SolvingExplanations(context.getCellCount());
+        this.nogoods = new NogoodStore(NogoodStore.DEFAULT_CAPACITY, context.getCellCount());
+        this.decisionCells = new int[context.getCellCount()];
+        this.decisionValues = new int[context.getCellCount()];
+    }
+
+    /**
+     * Searches a solution, leaving it in the context when one is found.
+     *
+     * @return true if the context is solved.
+     */
+    boolean search() {
+        context.setExplanations(explanations);
+        try {
+            search(0);
+            return solved;
+        } finally {
+            context.setExplanations(null);
+        }
+    }
+
+    // Returns the levels of the decisions that explain why the subtree has no solution.
+    private long search(int level) {
+        if (context.isSolved()) {
+            solved = true;
+            return 0;
+        }
+        else if (stopped.getAsBoolean()) {
+            aborted = true;
+            return 0;
+        }
+
+        BranchingStrategy.Brancher brancher = context.getBrancher();
+        int unfilledCell = brancher.selectCell(context);
+        if (unfilledCell < 0) {
+            return SolvingExplanations.levelsBelow(level); // Some square has no value left, blame every decision
+        }
+
+        SolverStatistics statistics = context.getStatistics();
+        long levelBit = SolvingExplanations.levelBit(level);
+        // The values removed from the square before this level are part of the conflict of every value left
+        long conflicts = explanations.getReason(unfilledCell);
+        for (int value : brancher.orderValues(context, unfilledCell)) {
+            int mark = context.mark();
+            decisionCells[level] = unfilledCell;
+            decisionValues[level] = value;
+            if (statistics != null) {
+                statistics.enterBranch();
+            }
+
+            long conflict = tryValue(level, brancher, unfilledCell, value);
+            if (solved || aborted) {
+                return 0;
+            }
+            context.undoTo(mark);
+            if (statistics != null) {
+                statistics.exitBranch();
+            }
+
+            if ((conflict & levelBit) == 0) {
+                if (statistics != null) {
+                    statistics.countBackjump();
+                }
+                return conflict; // This decision is not to blame, jump back over it
+            }
+            conflicts |= level > SolvingExplanations.MAX_LEVEL ? conflict : conflict & ~levelBit;
+        }
+
+        learn(conflicts, statistics);
+        return conflicts;
+    }
+
+    private long tryValue(int level, BranchingStrategy.Brancher brancher, int cell, int value) {
+        explanations.startDecision(level);
+        if (!solver.fillBranch(context, brancher, cell, value)) {
+            return explanations.getConflict();
+        }
+
+        int[] violatedCells = nogoods.findViolated(context, cell, value);
+        if (violatedCells != null) {
+            return SolvingExplanations.levelBit(level) | reasonOf(violatedCells);
+        }
+        return search(level + 1);
+    }
+
+    private long reasonOf(int[] cells) {
+        long reason = 0;
+        for (int cell : cells) {
+            reason |= explanations.getReason(cell);
+        }
+        return reason;
+    }
+
+    // The decisions of the conflict set cannot all hold together.
+    private void learn(long conflicts, SolverStatistics statistics) {
+        if (conflicts == 0 || (conflicts & SolvingExplanations.levelBit(SolvingExplanations.MAX_LEVEL)) != 0) {
+            return; // Unsolvable from the root, or depends on decisions that cannot be told apart
+        }
+
+        int length = Long.bitCount(conflicts);
+        int[] cells = new int[length];
+        int[] values = new int[length];
+        int i = 0;
+        for (long rest = conflicts; rest != 0; rest &= rest - 1) {
+            int level = Long.numberOfTrailingZeros(rest);
+            cells[i] = decisionCells[level];
+            values[i] = decisionValues[level];
+            i++;
+        }
+        if (nogoods.add(cells, values) && statistics != null) {
+            statistics.countNogood();
+        }
+    }
+}
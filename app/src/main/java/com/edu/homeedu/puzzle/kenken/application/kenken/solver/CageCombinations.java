@@ -0,0 +1,215 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Operator;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Table of the value tuples that solve a cage, built once per (operator, target, cage size, grid size)
+ * and shared by every cage with the same key.
+ * <p>
+ * Whether a tuple solves a cage does not depend on the order of its values, so the table is built by
+ * checking every multiset of values once and adding all of its distinct orderings. Each tuple is stored
+ * as the bitmasks of its values (see {@link BitmaskHelpers}), so it can be matched against domains
+ * without any arithmetic.
+ * <p>
+ * The last {@value #MAX_TABLES} tables used are kept, so the memory stays bounded however many games
+ * are generated or solved.
+ */
+public final class CageCombinations {
+    public static final int MAX_TABLES = 1024;
+
+    private record Key(Operator operator, int target, int cageSize, int gridSize) {}
+
+    private static final Map<Key, CageCombinations> tables = new LinkedHashMap<>(MAX_TABLES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CageCombinations> eldest) {
+            return size() > MAX_TABLES;
+        }
+    };
+
+    private final int cageSize;
+    private final int tupleCount;
+    private final int[] tupleMasks;
+
+    private CageCombinations(int cageSize, int tupleCount, int[] tupleMasks) {
+        this.cageSize = cageSize;
+        this.tupleCount = tupleCount;
+        this.tupleMasks = tupleMasks;
+    }
+
+    /**
+     * @return the memoized table of the cage in a grid of the given size.
+     */
+    public static CageCombinations of(Cage cage, int gridSize) {
+        Key key = new Key(cage.getOperator(), cage.getTarget(), cage.size(), gridSize);
+        synchronized (tables) {
+            CageCombinations table = tables.get(key);
+            if (table != null) {
+                return table;
+            }
+        }
+
+        // Built outside the lock; two threads may build the same table, the first one kept is returned
+        CageCombinations table = build(key);
+        synchronized (tables) {
+            CageCombinations cached = tables.putIfAbsent(key, table);
+            return cached != null ? cached : table;
+        }
+    }
+
+    public int getCageSize() {
+        return cageSize;
+    }
+
+    public int getTupleCount() {
+        return tupleCount;
+    }
+
+    /**
+     * Keeps the tuples that fit the given domains and returns the values they use.
+     *
+     * @param domains the candidate masks of the cage squares, in the ascending order of the squares.
+     * @return the masks of the values used by at least one fitting tuple, in the same order as the domains.
+     * Every mask is 0 when no tuple fits.
+     */
+    public int[] possibleValues(int[] domains) {
+        int[] possible = new int[cageSize];
+        if (domains.length != cageSize) {
+            return possible;
+        }
+
+        for (int offset = 0; offset < tupleMasks.length; offset += cageSize) {
+            if (fits(domains, offset)) {
+                for (int i = 0; i < cageSize; i++) {
+                    possible[i] |= tupleMasks[offset + i];
+                }
+            }
+        }
+        return possible;
+    }
+
+    /**
+     * Keeps the tuples that fit the given values of the squares of a cage and returns the values they use.
+     *
+     * @param cage the cage the table was built for.
+     * @param values the candidate values of the squares of the cage.
+     * @return the values each square of the cage can take, or an empty map when no tuple fits.
+     */
+    public Map<Square, Set<Integer>> possibleValues(Cage cage, Map<Square, Set<Integer>> values) {
+        List<Square> squares = cage.getSquares().stream().sorted().collect(Collectors.toList());
+        int[] domains = squares.stream().mapToInt(sqr -> BitmaskHelpers.fromValues(values.get(sqr))).toArray();
+        int[] possible = possibleValues(domains);
+
+        Map<Square, Set<Integer>> possibleValues = new HashMap<>();
+        if (possible.length == 0 || possible[0] == 0) {
+            return possibleValues;
+        }
+        for (int i = 0; i < squares.size(); i++) {
+            possibleValues.put(squares.get(i), BitmaskHelpers.toSet(possible[i]));
+        }
+        return possibleValues;
+    }
+
+    private boolean fits(int[] domains, int offset) {
+        for (int i = 0; i < cageSize; i++) {
+            if ((domains[i] & tupleMasks[offset + i]) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CageCombinations build(Key key) {
+        int cageSize = key.cageSize();
+        if (cageSize == 0 || key.gridSize() <= 0) {
+            return new CageCombinations(cageSize, 0, new int[0]);
+        }
+
+        TupleBuffer buffer = new TupleBuffer(cageSize);
+        int[] multiset = new int[cageSize];
+        collectMultisets(key, multiset, 0, 1, buffer);
+        return new CageCombinations(cageSize, buffer.count(), buffer.toArray());
+    }
+
+    // Walks the non-decreasing value sequences and adds every ordering of the solving ones.
+    private static void collectMultisets(Key key, int[] multiset, int position, int from, TupleBuffer buffer) {
+        if (position == multiset.length) {
+            if (key.operator().isSatisfiedBy(key.target(), multiset)) {
+                int[] ordering = multiset.clone();
+                do {
+                    buffer.add(ordering);
+                } while (nextPermutation(ordering));
+            }
+            return;
+        }
+
+        for (int value = from; value <= key.gridSize(); value++) {
+            multiset[position] = value;
+            collectMultisets(key, multiset, position + 1, value, buffer);
+        }
+    }
+
+    // Rearranges the values into the next ordering in lexicographic order; false when it was the last one.
+    private static boolean nextPermutation(int[] values) {
+        int i = values.length - 2;
+        while (i >= 0 && values[i] >= values[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+
+        int j = values.length - 1;
+        while (values[j] <= values[i]) {
+            j--;
+        }
+        swap(values, i, j);
+        for (int left = i + 1, right = values.length - 1; left < right; left++, right--) {
+            swap(values, left, right);
+        }
+        return true;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    private static final class TupleBuffer {
+        private final int cageSize;
+        private int[] masks = new int[64];
+        private int length = 0;
+
+        TupleBuffer(int cageSize) {
+            this.cageSize = cageSize;
+        }
+
+        void add(int[] tuple) {
+            if (length + cageSize > masks.length) {
+                masks = Arrays.copyOf(masks, Math.max(masks.length * 2, length + cageSize));
+            }
+            for (int value : tuple) {
+                masks[length++] = BitmaskHelpers.of(value);
+            }
+        }
+
+        int count() {
+            return length / cageSize;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(masks, length);
+        }
+    }
+}
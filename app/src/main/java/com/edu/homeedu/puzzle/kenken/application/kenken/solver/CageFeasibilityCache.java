@@ -0,0 +1,92 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+/**
+ * Cache of the values the {@link com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint}
+ * keeps, keyed by the cage index and the domains of its squares.
+ * The values kept only depend on the domains, so the same result is found again on sibling branches of
+ * the search and in later solves of the same game.
+ * <p>
+ * The cache is a fixed table where every key has a single slot, so a new entry replaces the one in its slot
+ * and the memory stays bounded. It is not thread safe; every search thread works with its own cache.
+ */
+public final class CageFeasibilityCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int mask;
+    private final int[] cageIndexes;
+    private final int[][] keys;
+    private final int[][] values;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two.
+     */
+    public CageFeasibilityCache(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mask = slots - 1;
+        cageIndexes = new int[slots];
+        keys = new int[slots][];
+        values = new int[slots][];
+    }
+
+    public CageFeasibilityCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param domains the masks of the cage squares, in the order of the cage squares.
+     * @return the cached masks of the values kept, which must not be modified, or null if they are not cached.
+     */
+    public int[] get(int cageIndex, int[] domains) {
+        int slot = slotOf(cageIndex, domains);
+        if (keys[slot] != null && cageIndexes[slot] == cageIndex && sameDomains(keys[slot], domains)) {
+            hits++;
+            return values[slot];
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches the masks of the values kept for the given domains, replacing the entry in their slot.
+     * Both arrays are kept, so the caller must not modify them afterwards.
+     */
+    public void put(int cageIndex, int[] domains, int[] possibleValues) {
+        int slot = slotOf(cageIndex, domains);
+        cageIndexes[slot] = cageIndex;
+        keys[slot] = domains;
+        values[slot] = possibleValues;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private int slotOf(int cageIndex, int[] domains) {
+        int hash = cageIndex;
+        for (int domain : domains) {
+            hash = 31 * hash + domain;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+
+    private static boolean sameDomains(int[] key, int[] domains) {
+        if (key.length != domains.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != domains[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+/**
+ * Cooperative cancellation of a solve. The solver polls the token while searching and propagating,
+ * and stops with {@link KenkenSolver.Status#CANCELLED} once it is cancelled.
+ * <p>
+ * A token also counts as cancelled on a thread that has been interrupted, so a solve running in a task
+ * of an executor stops when the executor is shut down with {@code shutdownNow()}.
+ */
+public final class CancellationToken {
+    private volatile boolean cancelled = false;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+}
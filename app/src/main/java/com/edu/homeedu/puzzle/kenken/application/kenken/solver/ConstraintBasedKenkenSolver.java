@@ -3,114 +3,663 @@ package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
 import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.BranchingStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.MinimumRemainingValuesStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenCageConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenEliminatingConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenUnitConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.KenkenValuesInitializer;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.CollectionHelpers;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ConstraintBasedKenkenSolver implements KenkenSolver, SolvingContextProcessor {
+    /**
+     * How the search restores the domains when a branch fails.
+     */
+    public enum Backtracking {
+        /**
+         * Every branch works on its own copy of the domains.
+         */
+        COPY,
+        /**
+         * Every branch works on the same domains and its removals are undone from a trail.
+         */
+        TRAIL,
+        /**
+         * Same as {@link #TRAIL}, but a failed branch jumps back to the decision that caused the failure
+         * and the failure is learned as a nogood (see {@link BackjumpingSearch}).
+         */
+        BACKJUMPING
+    }
+
     private final KenkenValuesInitializer valuesInitializer;
-    private final Collection<KenkenEliminatingConstraint> constraints;
-    
+    private final KenkenEliminatingConstraint[] constraints;
+    private final KenkenUnitConstraint[] unitConstraints;
+    private final KenkenCageConstraint[] cageConstraints;
+    private final Backtracking backtracking;
+    private final BranchingStrategy branchingStrategy;
+    private final List<Class<? extends KenkenEliminatingConstraint>> constraintClasses;
+    private volatile LongSupplier statisticsCpuClock;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool the pool the parallel searches run on, which the caller owns.
+     */
     public ConstraintBasedKenkenSolver(
             KenkenValuesInitializer valuesInitializer,
-            Collection<KenkenEliminatingConstraint> constraints) {
+            Collection<KenkenEliminatingConstraint> constraints,
+            Backtracking backtracking,
+            BranchingStrategy branchingStrategy,
+            ForkJoinPool pool) {
         this.valuesInitializer = valuesInitializer;
-        this.constraints = constraints;
+        this.constraints = constraints
+                .stream()
+                .filter(constraint -> !(constraint instanceof KenkenUnitConstraint)
+                        && !(constraint instanceof KenkenCageConstraint))
+                .toArray(KenkenEliminatingConstraint[]::new);
+        this.unitConstraints = constraints
+                .stream()
+                .filter(KenkenUnitConstraint.class::isInstance)
+                .map(KenkenUnitConstraint.class::cast)
+                .toArray(KenkenUnitConstraint[]::new);
+        this.cageConstraints = constraints
+                .stream()
+                .filter(KenkenCageConstraint.class::isInstance)
+                .map(KenkenCageConstraint.class::cast)
+                .toArray(KenkenCageConstraint[]::new);
+        this.backtracking = backtracking;
+        this.branchingStrategy = branchingStrategy;
+        this.constraintClasses = Stream
+                .of(this.constraints, unitConstraints, cageConstraints)
+                .flatMap(Arrays::stream)
+                .<Class<? extends KenkenEliminatingConstraint>>map(KenkenEliminatingConstraint::getClass)
+                .collect(Collectors.toList());
+        this.pool = pool;
+    }
+
+    public ConstraintBasedKenkenSolver(
+            KenkenValuesInitializer valuesInitializer,
+            Collection<KenkenEliminatingConstraint> constraints,
+            Backtracking backtracking,
+            BranchingStrategy branchingStrategy) {
+        this(valuesInitializer, constraints, backtracking, branchingStrategy, ForkJoinPool.commonPool());
+    }
+
+    public ConstraintBasedKenkenSolver(
+            KenkenValuesInitializer valuesInitializer,
+            Collection<KenkenEliminatingConstraint> constraints,
+            Backtracking backtracking) {
+        this(valuesInitializer, constraints, backtracking, new MinimumRemainingValuesStrategy());
+    }
+
+    public ConstraintBasedKenkenSolver(
+            KenkenValuesInitializer valuesInitializer,
+            Collection<KenkenEliminatingConstraint> constraints) {
+        this(valuesInitializer, constraints, Backtracking.TRAIL);
+    }
+
+    /**
+     * Makes the budgeted solves return {@link SolverStatistics}. CPU time is read from the given clock,
+     * which must return the CPU time of the current thread in nanoseconds.
+     */
+    public void enableStatistics(LongSupplier threadCpuClock) {
+        statisticsCpuClock = threadCpuClock;
+    }
+
+    public void disableStatistics() {
+        statisticsCpuClock = null;
     }
-    
+
     @Override
     public KenkenAnswer solve(KenkenGame kenken, Map<Square, Set<Integer>> given) {
+        return solve(kenken, given, 1);
+    }
+
+    // With a parallelism above 1, the subtrees under the first branching squares are searched
+    // as ForkJoin tasks on the pool, each on its own trailed copy of the domains.
+    @Override
+    public KenkenAnswer solve(KenkenGame kenken, Map<Square, Set<Integer>> given, int parallelism) {
         if (kenken == null) {
             return null;
         }
 
-        Map<Square, Set<Integer>> initialValues = valuesInitializer.initialValues(kenken, given);
-        SolvingContext initialContext = new SolvingContext(kenken, this, initialValues);
-        SolvingContext solvedContext = solveImpl(initialContext);
+        SolvingContext initialContext = createInitialContext(kenken, given);
+        SolvingContext solvedContext;
+        if (initialContext.isEmpty()) {
+            solvedContext = initialContext;
+        }
+        else if (parallelism > 1) {
+            solvedContext = solveInParallel(initialContext.trailedCopy(), parallelism);
+        }
+        else if (backtracking != Backtracking.COPY) {
+            solvedContext = solveWithTrail(initialContext.trailedCopy());
+        }
+        else {
+            solvedContext = solveImpl(initialContext, () -> false);
+        }
+        return toAnswer(solvedContext);
+    }
+
+    @Override
+    public SolvingResult solve(
+            KenkenGame kenken,
+            Map<Square, Set<Integer>> given,
+            SolvingBudget budget,
+            CancellationToken token) {
+        SolvingMonitor monitor = new SolvingMonitor(budget, token);
+        SolverStatistics statistics = newStatistics();
+        if (kenken == null || monitor.check()) {
+            return toResult(SolvingContext.emptyContext(), monitor, statistics);
+        }
+
+        SolvingContext initialContext = createInitialContext(kenken, given, monitor, statistics);
+        SolvingContext solvedContext;
+        if (statistics != null) {
+            statistics.enterPhase(SolverStatistics.Phase.SEARCH);
+        }
+        if (initialContext.isEmpty()) {
+            solvedContext = initialContext;
+        }
+        else if (backtracking != Backtracking.COPY) {
+            SolvingContext context = initialContext.trailedCopy();
+            solvedContext = search(context, monitor::enterNode) ? context : SolvingContext.emptyContext();
+        }
+        else {
+            solvedContext = solveImpl(initialContext, monitor::enterNode);
+        }
+        if (statistics != null) {
+            statistics.exitPhase();
+        }
+        return toResult(solvedContext, monitor, statistics);
+    }
+
+    @Override
+    public SolutionCount countSolutions(KenkenGame kenken, int limit) {
+        if (kenken == null || limit <= 0) {
+            return new SolutionCount(0, 0, limit <= 0);
+        }
+
+        SolutionCounter counter = new SolutionCounter(limit);
+        SolvingContext initialContext = createInitialContext(kenken, null);
+        if (!initialContext.isEmpty()) {
+            countWithTrail(initialContext.trailedCopy(), counter);
+        }
+        return new SolutionCount(counter.solutions, counter.nodes, counter.isLimitReached());
+    }
+
+    // The root is only propagated once the stream is consumed.
+    @Override
+    public Stream<KenkenAnswer> solutions(KenkenGame kenken, Map<Square, Set<Integer>> given) {
+        Supplier<Spliterator<KenkenAnswer>> spliterator = () -> {
+            SolvingContext initialContext = kenken != null
+                    ? createInitialContext(kenken, given)
+                    : SolvingContext.emptyContext();
+            return new SolutionSpliterator(
+                    this, !initialContext.isEmpty() ? initialContext.trailedCopy() : initialContext);
+        };
+        return StreamSupport.stream(spliterator, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL, false);
+    }
+
+    @Override
+    public KenkenSolvingSession openSession(KenkenGame kenken) {
+        return new IncrementalSolvingSession(this, kenken);
+    }
+
+    // Builds the domains from the initializer and propagates them once, so that values given as
+    // single candidates are removed from their peers and checked against their cages before searching.
+    SolvingContext createInitialContext(KenkenGame kenken, Map<Square, Set<Integer>> given) {
+        return createInitialContext(kenken, given, null, null);
+    }
+
+    private SolvingContext createInitialContext(
+            KenkenGame kenken,
+            Map<Square, Set<Integer>> given,
+            SolvingMonitor monitor,
+            SolverStatistics statistics) {
+        if (statistics != null) {
+            statistics.enterPhase(SolverStatistics.Phase.INITIALIZATION);
+        }
+        try {
+            Map<Square, Set<Integer>> initialValues = valuesInitializer.initialValues(kenken, given);
+            SolvingContext context = new SolvingContext(new SolvingTopology(kenken), this, initialValues);
+            context.setMonitor(monitor);
+            context.setStatistics(statistics);
+            context.setBrancher(branchingStrategy.newBrancher(context.getTopology()));
+            int fullDomain = context.getTopology().getFullDomain();
+            for (int cell = 0; cell < context.getCellCount(); cell++) {
+                if (context.getDomain(cell) == 0) {
+                    return SolvingContext.emptyContext();
+                }
+                int missingValues = fullDomain & ~context.getDomain(cell);
+                for (int rest = missingValues; rest != 0; rest &= rest - 1) {
+                    schedule(context, cell, BitmaskHelpers.lowest(rest));
+                }
+            }
+            return propagate(context) ? context : SolvingContext.emptyContext();
+        } finally {
+            if (statistics != null) {
+                statistics.exitPhase();
+            }
+        }
+    }
+
+    /**
+     * @return a new statistics collector if statistics are enabled, null otherwise.
+     */
+    SolverStatistics newStatistics() {
+        LongSupplier cpuClock = statisticsCpuClock;
+        return cpuClock != null ? new SolverStatistics(constraintClasses, cpuClock) : null;
+    }
+
+    static KenkenAnswer toAnswer(SolvingContext solvedContext) {
         if (solvedContext.isEmpty()) {
             return KenkenAnswer.emptyAnswer();
         }
 
-        return solvedContext
-                .stream()
-                .collect(
-                        KenkenAnswer::new,
-                        (answer, pair) -> {
-                            Square square = pair.square();
-                            int value = CollectionHelpers.singleOrThrow(pair.values());
-                            answer.setValue(square, value);
-                        },
-                        KenkenAnswer::update
-                );
-    }
-    
-    private SolvingContext solveImpl(SolvingContext context) {
-        if (context.isEmpty() || allSquareValuesSingle(context)) {
+        KenkenAnswer answer = new KenkenAnswer();
+        for (int cell = 0; cell < solvedContext.getCellCount(); cell++) {
+            answer.setValue(solvedContext.getSquare(cell), BitmaskHelpers.lowest(solvedContext.getDomain(cell)));
+        }
+        return answer;
+    }
+
+    // An empty context is unsolvable unless the monitor stopped the solve first.
+    static SolvingResult toResult(SolvingContext solvedContext, SolvingMonitor monitor, SolverStatistics statistics) {
+        if (!solvedContext.isEmpty()) {
+            return new SolvingResult(Status.SOLVED, toAnswer(solvedContext), statistics);
+        }
+
+        Status stopStatus = monitor.getStopStatus();
+        return new SolvingResult(
+                stopStatus != null ? stopStatus : Status.UNSOLVABLE,
+                KenkenAnswer.emptyAnswer(),
+                statistics);
+    }
+
+    private SolvingContext solveImpl(SolvingContext context, BooleanSupplier stopped) {
+        if (context.isEmpty() || context.isSolved()) {
             return context;
         }
-        
-        Square unfilledSquare = getUnfilledSquareWithLowestPossibleValues(context);
-        Set<Integer> possibleValues = context.getValues(unfilledSquare);
-        for (int value : possibleValues) {
-            SolvingContext filledContext = fill(context.copy(), unfilledSquare, value);
-            SolvingContext solvedContext = solveImpl(filledContext);
+        else if (stopped.getAsBoolean()) {
+            return SolvingContext.emptyContext();
+        }
+
+        BranchingStrategy.Brancher brancher = context.getBrancher();
+        int unfilledCell = brancher.selectCell(context);
+        if (unfilledCell < 0) {
+            return SolvingContext.emptyContext(); // Some square has no value left
+        }
+        SolverStatistics statistics = context.getStatistics();
+        for (int value : brancher.orderValues(context, unfilledCell)) {
+            if (statistics != null) {
+                statistics.enterBranch();
+            }
+            brancher.beforeBranch(context, unfilledCell, value);
+            SolvingContext filledContext = fill(context.copy(), unfilledCell, value);
+            boolean consistent = !filledContext.isEmpty();
+            brancher.afterBranch(consistent ? filledContext : context, unfilledCell, value, consistent);
+            SolvingContext solvedContext = solveImpl(filledContext, stopped);
             if (!solvedContext.isEmpty()) {
                 return solvedContext;
             }
+            if (statistics != null) {
+                statistics.exitBranch();
+            }
         }
         return SolvingContext.emptyContext();
     }
-    
+
+    // Same search as solveImpl, but the branches share one context and undo their removals on failure.
+    private SolvingContext solveWithTrail(SolvingContext context) {
+        return search(context, () -> false) ? context : SolvingContext.emptyContext();
+    }
+
+    /**
+     * Searches a solution on a trailed context with the configured backtracking, leaving it in the context.
+     */
+    boolean search(SolvingContext context, BooleanSupplier stopped) {
+        if (backtracking == Backtracking.BACKJUMPING) {
+            return new BackjumpingSearch(this, context, stopped).search();
+        }
+        return searchWithTrail(context, stopped);
+    }
+
+    boolean searchWithTrail(SolvingContext context, BooleanSupplier stopped) {
+        if (context.isSolved()) {
+            return true;
+        }
+        else if (stopped.getAsBoolean()) {
+            return false;
+        }
+
+        BranchingStrategy.Brancher brancher = context.getBrancher();
+        int unfilledCell = brancher.selectCell(context);
+        if (unfilledCell < 0) {
+            return false; // Some square has no value left
+        }
+        SolverStatistics statistics = context.getStatistics();
+        for (int value : brancher.orderValues(context, unfilledCell)) {
+            int mark = context.mark();
+            if (statistics != null) {
+                statistics.enterBranch();
+            }
+            if (fillBranch(context, brancher, unfilledCell, value) && searchWithTrail(context, stopped)) {
+                return true;
+            }
+            context.undoTo(mark);
+            if (statistics != null) {
+                statistics.exitBranch();
+            }
+        }
+        return false;
+    }
+
+    private void countWithTrail(SolvingContext context, SolutionCounter counter) {
+        if (context.isSolved()) {
+            counter.solutions++;
+            return;
+        }
+
+        BranchingStrategy.Brancher brancher = context.getBrancher();
+        int unfilledCell = brancher.selectCell(context);
+        if (unfilledCell < 0) {
+            return; // Some square has no value left
+        }
+        for (int value : brancher.orderValues(context, unfilledCell)) {
+            if (counter.isLimitReached()) {
+                break;
+            }
+            int mark = context.mark();
+            counter.nodes++;
+            if (fillBranch(context, brancher, unfilledCell, value)) {
+                countWithTrail(context, counter);
+            }
+            context.undoTo(mark);
+        }
+    }
+
+    private static final class SolutionCounter {
+        private final int limit;
+        private int solutions = 0;
+        private long nodes = 0;
+
+        SolutionCounter(int limit) {
+            this.limit = limit;
+        }
+
+        boolean isLimitReached() {
+            return solutions >= limit;
+        }
+    }
+
+    private SolvingContext solveInParallel(SolvingContext context, int parallelism) {
+        AtomicReference<SolvingContext> solution = new AtomicReference<>();
+        int splitDepth = Integer.SIZE - Integer.numberOfLeadingZeros(parallelism) + 1;
+        pool.invoke(new SearchTask(context, 0, splitDepth, solution));
+        SolvingContext solvedContext = solution.get();
+        return solvedContext != null ? solvedContext : SolvingContext.emptyContext();
+    }
+
+    // Searches one subtree; above the split depth every value of the branching square becomes a subtask.
+    // The first task reaching a solution publishes it, and the running siblings give up at their next node.
+    // Every task branches with its own brancher and caches with its own cage cache, since neither is thread safe.
+    private final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SolvingContext context;
+        private final int depth;
+        private final int splitDepth;
+        private final AtomicReference<SolvingContext> solution;
+
+        SearchTask(SolvingContext context, int depth, int splitDepth, AtomicReference<SolvingContext> solution) {
+            this.context = context;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+            this.solution = solution;
+        }
+
+        @Override
+        protected void compute() {
+            if (solution.get() != null) {
+                return;
+            }
+            context.setBrancher(branchingStrategy.newBrancher(context.getTopology()));
+            context.detachCageCache();
+            if (depth >= splitDepth || context.isSolved()) {
+                if (searchWithTrail(context, () -> solution.get() != null)) {
+                    solution.compareAndSet(null, context);
+                }
+                return;
+            }
+
+            BranchingStrategy.Brancher brancher = context.getBrancher();
+            int unfilledCell = brancher.selectCell(context);
+            if (unfilledCell < 0) {
+                return; // Some square has no value left
+            }
+            List<SearchTask> subtasks = new ArrayList<>();
+            for (int value : brancher.orderValues(context, unfilledCell)) {
+                SolvingContext filledContext = fill(context.trailedCopy(), unfilledCell, value);
+                if (!filledContext.isEmpty()) {
+                    subtasks.add(new SearchTask(filledContext, depth + 1, splitDepth, solution));
+                }
+            }
+            invokeAll(subtasks);
+        }
+    }
+
     // Eliminate all the other values (except the filled value) from values for square and propagate.
     @Override
-    public SolvingContext fill(SolvingContext context, Square square, int filledValue) {
-        boolean filled = false;
-        filled = CollectionHelpers
-                .filter(context.getValues(square), v -> v != filledValue)
-                .stream()
-                .allMatch(v -> eliminate(context, square, v));
-        return filled ? context : SolvingContext.emptyContext();
+    public SolvingContext fill(SolvingContext context, int cell, int filledValue) {
+        int otherValues = BitmaskHelpers.remove(context.getDomain(cell), filledValue);
+        for (int rest = otherValues; rest != 0; rest &= rest - 1) {
+            if (!remove(context, cell, BitmaskHelpers.lowest(rest))) {
+                return SolvingContext.emptyContext();
+            }
+        }
+        return propagate(context) ? context : SolvingContext.emptyContext();
     }
-    
+
+    // Fills a value chosen by the brancher, letting it see the domains before and after the propagation.
+    boolean fillBranch(SolvingContext context, BranchingStrategy.Brancher brancher, int cell, int value) {
+        brancher.beforeBranch(context, cell, value);
+        boolean consistent = !fill(context, cell, value).isEmpty();
+        brancher.afterBranch(context, cell, value, consistent);
+        return consistent;
+    }
+
     // Eliminate v from the values for square; return true if all constraints are satisfied.
     @Override
-    public boolean eliminate(SolvingContext context, Square square, int eliminatedValue) {
-        Set<Integer> values = context.getValues(square);
-        if (!values.contains(eliminatedValue)) {
+    public boolean eliminate(SolvingContext context, int cell, int eliminatedValue) {
+        if (!context.contains(cell, eliminatedValue)) {
             return true; // Already eliminated
         }
-        
-        values.remove(eliminatedValue);
-        return !values.isEmpty() && areAllConstraintsSatisfied(context, square, eliminatedValue);
+
+        return remove(context, cell, eliminatedValue) && propagate(context);
     }
 
-    private boolean areAllConstraintsSatisfied(SolvingContext context, Square square, int eliminatedValue) {
-        return constraints
-                .stream()
-                .allMatch(constraint -> constraint.test(context, square, eliminatedValue));
+    // Removes the value and queues the constraints to run for it; false if the square has no value left.
+    private boolean remove(SolvingContext context, int cell, int value) {
+        SolverStatistics statistics = context.getStatistics();
+        if (statistics != null) {
+            statistics.countElimination();
+        }
+        if (context.removeValue(cell, value) == 0) {
+            if (context.getExplanations() != null) {
+                context.getExplanations().explainConflict(cell);
+            }
+            if (!context.getQueue().isRunning()) {
+                context.getQueue().stop();
+            }
+            return false;
+        }
+        schedule(context, cell, value);
+        return true;
     }
-    
-    private static boolean allSquareValuesSingle(SolvingContext context) {
-        return context
-                .getSquares()
-                .stream()
-                .map(context::getValues)
-                .allMatch(CollectionHelpers::hasExactlyOneItem);
+
+    private void schedule(SolvingContext context, int cell, int value) {
+        PropagationQueue queue = context.getQueue();
+        queue.addRemoval(cell, value);
+        if (unitConstraints.length > 0) {
+            queue.units().add(context.getTopology().getRowUnitIndex(cell));
+            queue.units().add(context.getTopology().getColumnUnitIndex(cell));
+        }
+        if (cageConstraints.length > 0) {
+            queue.cages().add(context.getTopology().getCageIndex(cell));
+        }
     }
-    
-    private static Square getUnfilledSquareWithLowestPossibleValues(SolvingContext context) {
-        Set<Square> squares = context.getSquares();
-        return context
-                .stream()
-                .filter(pair -> squares.contains(pair.square()) && pair.values().size() > 1)
-                .sorted(Comparator.comparingInt(pair -> pair.values().size()))
-                .map(SolvingContext.SquareValuesPair::square)
-                .findFirst()
-                .orElse(null);
+
+    // Runs the queued constraints until nothing is left to do. The removals made by the constraints are
+    // only queued, since a fill or eliminate called from a constraint returns before propagating, so the
+    // stack depth does not grow with the length of the propagation chain.
+    // Single removals are handled first, then the rows and columns, then the cages, which are the costliest.
+    // Units and cages run after the single removals, so they see all the removals so far at once.
+    private boolean propagate(SolvingContext context) {
+        PropagationQueue queue = context.getQueue();
+        if (queue.isRunning()) {
+            return true; // The running loop handles the queued work
+        }
+
+        SolvingMonitor monitor = context.getMonitor();
+        SolverStatistics statistics = context.getStatistics();
+        SolvingExplanations explanations = context.getExplanations();
+        SolvingTopology topology = context.getTopology();
+        BranchingStrategy.Brancher brancher = context.getBrancher();
+        if (statistics != null) {
+            statistics.enterPhase(SolverStatistics.Phase.PROPAGATION);
+        }
+        queue.start();
+        try {
+            boolean satisfied;
+            while (true) {
+                int[] scope;
+                int[] otherScope = null;
+                if (monitor != null && monitor.enterPropagation()) {
+                    return false;
+                }
+                else if (queue.hasRemoval()) {
+                    int cell = queue.peekRemovedCell();
+                    int value = queue.peekRemovedValue();
+                    queue.pollRemoval();
+                    scope = context.getRowCells(cell);
+                    otherScope = context.getColumnCells(cell);
+                    satisfied = areAllConstraintsSatisfied(context, cell, value);
+                }
+                else if (!queue.units().isEmpty()) {
+                    int unitIndex = queue.units().poll();
+                    scope = topology.getUnitCells(unitIndex);
+                    if (explanations != null) {
+                        explanations.setCurrentReason(scope);
+                    }
+                    satisfied = areAllUnitConstraintsSatisfied(context, unitIndex);
+                    queue.units().finish();
+                }
+                else if (!queue.cages().isEmpty()) {
+                    int cageIndex = queue.cages().poll();
+                    scope = topology.getCageCells(cageIndex);
+                    if (explanations != null) {
+                        explanations.setCurrentReason(scope);
+                    }
+                    satisfied = areAllCageConstraintsSatisfied(context, cageIndex);
+                    queue.cages().finish();
+                }
+                else {
+                    return true;
+                }
+
+                if (!satisfied) {
+                    if (explanations != null) {
+                        explanations.explainConflict();
+                    }
+                    if (brancher != null) {
+                        brancher.onConflict(scope);
+                        if (otherScope != null) {
+                            brancher.onConflict(otherScope);
+                        }
+                    }
+                    return false;
+                }
+            }
+        } finally {
+            queue.stop();
+            if (statistics != null) {
+                statistics.exitPhase();
+            }
+        }
+    }
+
+    // The statistics number the constraints in the order of constraintClasses: single removal
+    // constraints first, then unit constraints, then cage constraints.
+    private boolean areAllConstraintsSatisfied(SolvingContext context, int cell, int eliminatedValue) {
+        SolverStatistics statistics = context.getStatistics();
+        SolvingExplanations explanations = context.getExplanations();
+        for (int i = 0; i < constraints.length; i++) {
+            if (statistics != null) {
+                statistics.enterConstraint(i);
+            }
+            if (explanations != null) {
+                // A single removal constraint may look at the row and the column of the square
+                explanations.setCurrentReason(context.getRowCells(cell));
+                explanations.addCurrentReason(context.getColumnCells(cell));
+            }
+            boolean satisfied = constraints[i].test(context, cell, eliminatedValue);
+            if (statistics != null) {
+                statistics.exitConstraint();
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean areAllUnitConstraintsSatisfied(SolvingContext context, int unitIndex) {
+        SolverStatistics statistics = context.getStatistics();
+        for (int i = 0; i < unitConstraints.length; i++) {
+            if (statistics != null) {
+                statistics.enterConstraint(constraints.length + i);
+            }
+            boolean satisfied = unitConstraints[i].testUnit(context, unitIndex);
+            if (statistics != null) {
+                statistics.exitConstraint();
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean areAllCageConstraintsSatisfied(SolvingContext context, int cageIndex) {
+        SolverStatistics statistics = context.getStatistics();
+        for (int i = 0; i < cageConstraints.length; i++) {
+            if (statistics != null) {
+                statistics.enterConstraint(constraints.length + unitConstraints.length + i);
+            }
+            boolean satisfied = cageConstraints[i].testCage(context, cageIndex);
+            if (statistics != null) {
+                statistics.exitConstraint();
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
     }
 }
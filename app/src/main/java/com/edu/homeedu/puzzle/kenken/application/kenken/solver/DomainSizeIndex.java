@@ -0,0 +1,49 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Cells of a {@link SolvingContext} grouped by the number of values left in their domain,
+ * kept up to date on every removal and undo, so that a square with the fewest values can be found
+ * without looking at every domain.
+ * Every group is a bitset of cells, so the cell found is the lowest one among those with the fewest values.
+ */
+public final class DomainSizeIndex {
+    private final long[][] cellsBySize;
+
+    DomainSizeIndex(int[] domains, int maxSize) {
+        int words = (domains.length + Long.SIZE - 1) / Long.SIZE;
+        cellsBySize = new long[maxSize + 1][words];
+        for (int cell = 0; cell < domains.length; cell++) {
+            add(BitmaskHelpers.count(domains[cell]), cell);
+        }
+    }
+
+    /**
+     * @return the lowest cell among those with the fewest values but more than one, or -1 if there is none.
+     */
+    public int getCellWithFewestValues() {
+        for (int size = 2; size < cellsBySize.length; size++) {
+            long[] cells = cellsBySize[size];
+            for (int word = 0; word < cells.length; word++) {
+                if (cells[word] != 0) {
+                    return word * Long.SIZE + Long.numberOfTrailingZeros(cells[word]);
+                }
+            }
+        }
+        return -1;
+    }
+
+    void update(int cell, int previousDomain, int domain) {
+        int previousSize = BitmaskHelpers.count(previousDomain);
+        int size = BitmaskHelpers.count(domain);
+        if (previousSize != size) {
+            cellsBySize[previousSize][cell / Long.SIZE] &= ~(1L << cell);
+            add(size, cell);
+        }
+    }
+
+    private void add(int size, int cell) {
+        cellsBySize[size][cell / Long.SIZE] |= 1L << cell;
+    }
+}
@@ -0,0 +1,170 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver.SolvingBudget;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver.SolvingResult;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver.Status;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link KenkenSolvingSession} of the {@link ConstraintBasedKenkenSolver}.
+ * <p>
+ * The session keeps the propagated root domains on a trail and applies the givens on top of them
+ * one at a time, remembering the trail mark before each one. When the givens change, only the givens
+ * applied after the first changed one are undone and applied again. Before any search, the last
+ * solution is checked against the givens and returned as is when it still agrees with them.
+ * A solve stopped by its budget or token leaves the applied givens in place, so the next solve
+ * continues from them.
+ */
+final class IncrementalSolvingSession implements KenkenSolvingSession {
+    private record AppliedGiven(int cell, int value, int mark) {}
+
+    private final ConstraintBasedKenkenSolver solver;
+    private final KenkenGame kenken;
+    private final SolvingContext context;
+    private final List<AppliedGiven> appliedGivens = new ArrayList<>();
+    private int[] lastSolution;
+    private KenkenAnswer lastAnswer;
+
+    IncrementalSolvingSession(ConstraintBasedKenkenSolver solver, KenkenGame kenken) {
+        this.solver = solver;
+        this.kenken = kenken;
+        SolvingContext rootContext = solver.createInitialContext(kenken, null);
+        this.context = !rootContext.isEmpty() ? rootContext.trailedCopy() : rootContext;
+    }
+
+    @Override
+    public KenkenGame getKenken() {
+        return kenken;
+    }
+
+    // Applying the givens counts as the initialization phase of the statistics.
+    @Override
+    public synchronized SolvingResult solve(KenkenAnswer progress, SolvingBudget budget, CancellationToken token) {
+        SolvingMonitor monitor = new SolvingMonitor(budget, token);
+        SolverStatistics statistics = solver.newStatistics();
+        if (context.isEmpty() || monitor.check()) {
+            return ConstraintBasedKenkenSolver.toResult(SolvingContext.emptyContext(), monitor, statistics);
+        }
+
+        int[] givens = toGivens(progress);
+        if (agreesWithLastSolution(givens)) {
+            return new SolvingResult(Status.SOLVED, lastAnswer, statistics);
+        }
+
+        context.setMonitor(monitor);
+        context.setStatistics(statistics);
+        try {
+            if (!applyGivens(givens, statistics)) {
+                return ConstraintBasedKenkenSolver.toResult(SolvingContext.emptyContext(), monitor, statistics);
+            }
+
+            int mark = context.mark();
+            SolvingContext solvedContext = SolvingContext.emptyContext();
+            if (statistics != null) {
+                statistics.enterPhase(SolverStatistics.Phase.SEARCH);
+            }
+            if (solver.search(context, monitor::enterNode)) {
+                lastSolution = new int[context.getCellCount()];
+                for (int cell = 0; cell < lastSolution.length; cell++) {
+                    lastSolution[cell] = BitmaskHelpers.lowest(context.getDomain(cell));
+                }
+                solvedContext = context;
+            }
+            if (statistics != null) {
+                statistics.exitPhase();
+            }
+            SolvingResult result = ConstraintBasedKenkenSolver.toResult(solvedContext, monitor, statistics);
+            if (result.isSolved()) {
+                lastAnswer = result.answer();
+            }
+            context.undoTo(mark);
+            return result;
+        } finally {
+            context.setMonitor(null);
+            context.setStatistics(null);
+        }
+    }
+
+    private int[] toGivens(KenkenAnswer progress) {
+        SolvingTopology topology = context.getTopology();
+        int[] givens = new int[topology.getCellCount()];
+        if (progress == null) {
+            return givens;
+        }
+
+        for (Square square : progress.getSquares()) {
+            int value = progress.getValue(square);
+            int cell = topology.indexOf(square);
+            if (value > 0 && cell >= 0 && cell < givens.length) {
+                givens[cell] = value;
+            }
+        }
+        return givens;
+    }
+
+    private boolean agreesWithLastSolution(int[] givens) {
+        if (lastSolution == null) {
+            return false;
+        }
+
+        for (int cell = 0; cell < givens.length; cell++) {
+            if (givens[cell] != 0 && givens[cell] != lastSolution[cell]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Keeps the applied givens up to the first one that changed, then applies the missing ones.
+    private boolean applyGivens(int[] givens, SolverStatistics statistics) {
+        if (statistics != null) {
+            statistics.enterPhase(SolverStatistics.Phase.INITIALIZATION);
+        }
+        try {
+            return applyGivens(givens);
+        } finally {
+            if (statistics != null) {
+                statistics.exitPhase();
+            }
+        }
+    }
+
+    private boolean applyGivens(int[] givens) {
+        int kept = 0;
+        while (kept < appliedGivens.size() && givens[appliedGivens.get(kept).cell()] == appliedGivens.get(kept).value()) {
+            kept++;
+        }
+        undoGivensFrom(kept);
+
+        boolean[] applied = new boolean[givens.length];
+        appliedGivens.forEach(given -> applied[given.cell()] = true);
+        for (int cell = 0; cell < givens.length; cell++) {
+            if (givens[cell] == 0 || applied[cell]) {
+                continue;
+            }
+
+            int mark = context.mark();
+            appliedGivens.add(new AppliedGiven(cell, givens[cell], mark));
+            if (solver.fill(context, cell, givens[cell]).isEmpty()) {
+                undoGivensFrom(appliedGivens.size() - 1);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void undoGivensFrom(int index) {
+        if (index >= appliedGivens.size()) {
+            return;
+        }
+
+        context.undoTo(appliedGivens.get(index).mark());
+        appliedGivens.subList(index, appliedGivens.size()).clear();
+    }
+}
@@ -2,11 +2,110 @@ package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
 import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
 
 public interface KenkenSolver {
+    /**
+     * Outcome of counting the solutions of a kenken.
+     *
+     * @param solutions the number of solutions found, never more than the limit.
+     * @param nodes the number of branches the search explored.
+     * @param limitReached true if the search stopped because the limit was reached.
+     */
+    record SolutionCount(int solutions, long nodes, boolean limitReached) {}
+
+    /**
+     * How a budgeted solve ended.
+     */
+    enum Status {
+        SOLVED,
+        /**
+         * The whole search space was explored without finding a solution.
+         */
+        UNSOLVABLE,
+        /**
+         * The solve ran out of nodes, propagation steps or time before finding a solution.
+         */
+        BUDGET_EXCEEDED,
+        CANCELLED
+    }
+
+    /**
+     * Limits of a budgeted solve. {@code Long.MAX_VALUE} means no limit.
+     *
+     * @param maxNodes the number of search nodes the solve may explore.
+     * @param maxPropagations the number of propagation steps the solve may run.
+     * @param maxMillis the wall-clock time the solve may take, in milliseconds.
+     */
+    record SolvingBudget(long maxNodes, long maxPropagations, long maxMillis) {
+        public static final SolvingBudget UNLIMITED = new SolvingBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        public static SolvingBudget ofMillis(long maxMillis) {
+            return new SolvingBudget(Long.MAX_VALUE, Long.MAX_VALUE, maxMillis);
+        }
+    }
+
+    /**
+     * Outcome of a budgeted solve.
+     *
+     * @param status how the solve ended.
+     * @param answer the solution if the status is {@link Status#SOLVED}, an empty answer otherwise.
+     * @param statistics the counters of the solve, or null if the solver does not collect them.
+     */
+    record SolvingResult(Status status, KenkenAnswer answer, SolverStatistics statistics) {
+        public SolvingResult(Status status, KenkenAnswer answer) {
+            this(status, answer, null);
+        }
+
+        public boolean isSolved() {
+            return status == Status.SOLVED;
+        }
+    }
+
     KenkenAnswer solve(KenkenGame kenken, Map<Square, Set<Integer>> given);
+
+    /**
+     * Solves the kenken within the budget, stopping early once the token is cancelled.
+     */
+    SolvingResult solve(
+            KenkenGame kenken,
+            Map<Square, Set<Integer>> given,
+            SolvingBudget budget,
+            CancellationToken token);
+
+    /**
+     * Counts the solutions of the kenken, stopping as soon as {@code limit} solutions are found.
+     */
+    SolutionCount countSolutions(KenkenGame kenken, int limit);
+
+    /**
+     * Streams the solutions of the kenken. Each solution is searched for only when the stream asks for it
+     * and none is kept once given, so {@code limit()} or {@code findFirst()} stop the search early and
+     * the memory used stays the same however many solutions there are. The stream is sequential.
+     */
+    Stream<KenkenAnswer> solutions(KenkenGame kenken, Map<Square, Set<Integer>> given);
+
+    /**
+     * Opens a session that keeps the solving state of the kenken between solves.
+     */
+    KenkenSolvingSession openSession(KenkenGame kenken);
+
+    /**
+     * @return true if the kenken has exactly one solution; the search stops at the second one.
+     */
+    default boolean isUnique(KenkenGame kenken) {
+        return countSolutions(kenken, 2).solutions() == 1;
+    }
+
+    /**
+     * Solves the kenken with the search split into tasks for {@code parallelism} threads, run on the worker
+     * pool the solver was given. Solvers without a parallel search solve on the calling thread.
+     */
+    default KenkenAnswer solve(KenkenGame kenken, Map<Square, Set<Integer>> given, int parallelism) {
+        return solve(kenken, given);
+    }
 }
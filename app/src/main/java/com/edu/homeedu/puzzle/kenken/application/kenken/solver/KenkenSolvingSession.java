@@ -0,0 +1,30 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+
+/**
+ * Solving state bound to one {@link KenkenGame}, kept between solves so that a solve after a small
+ * change of the player's progress does not start over from the puzzle description.
+ */
+public interface KenkenSolvingSession {
+    KenkenGame getKenken();
+
+    /**
+     * Solves the kenken with the filled squares of the progress as givens.
+     *
+     * @param progress the values the player has filled in so far, may be empty.
+     * @return a solution agreeing with the progress, or an empty answer if there is none.
+     */
+    default KenkenAnswer solve(KenkenAnswer progress) {
+        return solve(progress, KenkenSolver.SolvingBudget.UNLIMITED, new CancellationToken()).answer();
+    }
+
+    /**
+     * Same as {@link #solve(KenkenAnswer)} within the budget, stopping early once the token is cancelled.
+     */
+    KenkenSolver.SolvingResult solve(
+            KenkenAnswer progress,
+            KenkenSolver.SolvingBudget budget,
+            CancellationToken token);
+}
@@ -0,0 +1,103 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded store of the nogoods learned by a {@link BackjumpingSearch}.
+ * <p>
+ * A nogood is a set of {@code (cell, value)} decisions that cannot all hold in a solution. The nogoods
+ * are indexed by their decisions, so after a decision only the nogoods containing it are checked.
+ * When the store is full, the oldest nogood is forgotten.
+ */
+final class NogoodStore {
+    static final int DEFAULT_CAPACITY = 1024;
+    static final int MAX_LENGTH = 8;
+
+    private record Nogood(int[] cells, int[] values) {}
+
+    private final Nogood[] nogoods;
+    private final List<List<Nogood>> nogoodsByDecision;
+    private int next = 0;
+    private int size = 0;
+
+    NogoodStore(int capacity, int cellCount) {
+        this.nogoods = new Nogood[capacity];
+        this.nogoodsByDecision = new ArrayList<>(cellCount * Integer.SIZE);
+        for (int i = 0; i < cellCount * Integer.SIZE; i++) {
+            nogoodsByDecision.add(null);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Stores the nogood unless it is longer than {@link #MAX_LENGTH}, since long nogoods are rarely matched again.
+     *
+     * @return true if the nogood was stored.
+     */
+    boolean add(int[] cells, int[] values) {
+        if (cells.length == 0 || cells.length > MAX_LENGTH || nogoods.length == 0) {
+            return false;
+        }
+
+        Nogood evicted = nogoods[next];
+        if (evicted != null) {
+            for (int i = 0; i < evicted.cells().length; i++) {
+                nogoodsByDecision.get(decisionIndex(evicted.cells()[i], evicted.values()[i])).remove(evicted);
+            }
+            size--;
+        }
+
+        Nogood nogood = new Nogood(cells, values);
+        nogoods[next] = nogood;
+        next = (next + 1) % nogoods.length;
+        size++;
+        for (int i = 0; i < cells.length; i++) {
+            int index = decisionIndex(cells[i], values[i]);
+            List<Nogood> indexed = nogoodsByDecision.get(index);
+            if (indexed == null) {
+                indexed = new ArrayList<>();
+                nogoodsByDecision.set(index, indexed);
+            }
+            indexed.add(nogood);
+        }
+        return true;
+    }
+
+    /**
+     * Looks for a nogood containing the decision whose decisions all hold in the context.
+     *
+     * @return the cells of the violated nogood, or null if no nogood is violated.
+     */
+    int[] findViolated(SolvingContext context, int cell, int value) {
+        List<Nogood> indexed = nogoodsByDecision.get(decisionIndex(cell, value));
+        if (indexed == null) {
+            return null;
+        }
+
+        for (Nogood nogood : indexed) {
+            if (holds(context, nogood)) {
+                return nogood.cells();
+            }
+        }
+        return null;
+    }
+
+    private static boolean holds(SolvingContext context, Nogood nogood) {
+        for (int i = 0; i < nogood.cells().length; i++) {
+            if (context.getDomain(nogood.cells()[i]) != BitmaskHelpers.of(nogood.values()[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int decisionIndex(int cell, int value) {
+        return cell * Integer.SIZE + value;
+    }
+}
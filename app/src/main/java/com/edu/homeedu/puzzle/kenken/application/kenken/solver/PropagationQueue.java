@@ -0,0 +1,148 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import java.util.Arrays;
+
+/**
+ * Pending work of one propagation wave on a {@link SolvingContext}.
+ * <p>
+ * Every value removal is queued once as a {@code (cell, value)} event for the constraints that react to
+ * single removals. Unit and cage constraints only need to know which rows, columns or cages changed, so
+ * a changed unit or cage is queued once however many of its values were removed, and is not queued again
+ * by its own removals while it runs.
+ * The solver drains the queue in a loop, so the constraints never call each other recursively.
+ */
+final class PropagationQueue {
+    private int[] removedCells;
+    private int[] removedValues;
+    private int removalHead = 0;
+    private int removalTail = 0;
+
+    private final PendingIndexes units;
+    private final PendingIndexes cages;
+
+    private boolean running = false;
+
+    PropagationQueue(int removalCapacity, int unitCapacity, int cageCapacity) {
+        removedCells = new int[Math.max(removalCapacity, 1)];
+        removedValues = new int[removedCells.length];
+        units = new PendingIndexes(unitCapacity);
+        cages = new PendingIndexes(cageCapacity);
+    }
+
+    void addRemoval(int cell, int value) {
+        if (removalTail == removedCells.length) {
+            removedCells = Arrays.copyOf(removedCells, removalTail * 2);
+            removedValues = Arrays.copyOf(removedValues, removalTail * 2);
+        }
+        removedCells[removalTail] = cell;
+        removedValues[removalTail] = value;
+        removalTail++;
+    }
+
+    boolean hasRemoval() {
+        return removalHead < removalTail;
+    }
+
+    int peekRemovedCell() {
+        return removedCells[removalHead];
+    }
+
+    int peekRemovedValue() {
+        return removedValues[removalHead];
+    }
+
+    void pollRemoval() {
+        removalHead++;
+        if (removalHead == removalTail) {
+            removalHead = 0;
+            removalTail = 0;
+        }
+    }
+
+    /**
+     * @return the changed rows and columns, numbered as the units of the {@link SolvingTopology}.
+     */
+    PendingIndexes units() {
+        return units;
+    }
+
+    PendingIndexes cages() {
+        return cages;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    void start() {
+        running = true;
+    }
+
+    /**
+     * Drops the pending work, used when the wave ends or fails.
+     */
+    void stop() {
+        removalHead = 0;
+        removalTail = 0;
+        units.clear();
+        cages.clear();
+        running = false;
+    }
+
+    /**
+     * Deduplicated FIFO of the indexes of changed units or cages.
+     */
+    static final class PendingIndexes {
+        private static final int NONE = -1;
+
+        private final int[] indexes;
+        private final boolean[] pending;
+        private int head = 0;
+        private int count = 0;
+        private int running = NONE;
+
+        PendingIndexes(int capacity) {
+            indexes = new int[capacity];
+            pending = new boolean[capacity];
+        }
+
+        void add(int index) {
+            if (pending[index] || index == running) {
+                return;
+            }
+            pending[index] = true;
+            indexes[(head + count) % indexes.length] = index;
+            count++;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        /**
+         * Takes the next index and marks it as running until {@link #finish()}.
+         */
+        int poll() {
+            int index = indexes[head];
+            head = (head + 1) % indexes.length;
+            count--;
+            pending[index] = false;
+            running = index;
+            return index;
+        }
+
+        void finish() {
+            running = NONE;
+        }
+
+        void clear() {
+            while (count > 0) {
+                pending[indexes[head]] = false;
+                head = (head + 1) % indexes.length;
+                count--;
+            }
+            head = 0;
+            running = NONE;
+        }
+    }
+}
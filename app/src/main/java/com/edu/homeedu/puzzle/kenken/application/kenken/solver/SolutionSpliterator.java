@@ -0,0 +1,112 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.BranchingStrategy;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Enumerates the solutions of a trailed context one at a time, for {@link KenkenSolver#solutions}.
+ * <p>
+ * The search is the chronological search of the {@link ConstraintBasedKenkenSolver}, with its recursion
+ * turned into an explicit stack of branches so that it can stop after a solution and resume from it on the
+ * next call. Nothing but the current branch is kept: the stack holds one entry per branching square and
+ * the trail at most one entry per removed value, so the memory used does not depend on the number of
+ * solutions already found or left to find.
+ * <p>
+ * The search runs on the context of its caller and cannot be split, so the stream it backs is sequential.
+ */
+final class SolutionSpliterator implements Spliterator<KenkenAnswer> {
+    private final ConstraintBasedKenkenSolver solver;
+    private SolvingContext context;
+    private final BranchingStrategy.Brancher brancher;
+    // The branches from the root down to the current one
+    private final int[] cells;
+    private final int[][] values;
+    private final int[] nextValues;
+    private final int[] marks;
+    private int depth = 0;
+    private boolean started = false;
+
+    /**
+     * @param context the propagated root of the search, trailed unless empty; the search takes it over.
+     */
+    SolutionSpliterator(ConstraintBasedKenkenSolver solver, SolvingContext context) {
+        this.solver = solver;
+        this.context = !context.isEmpty() ? context : null;
+        int cellCount = this.context != null ? context.getCellCount() : 0;
+        this.brancher = this.context != null ? context.getBrancher() : null;
+        this.cells = new int[cellCount];
+        this.values = new int[cellCount][];
+        this.nextValues = new int[cellCount];
+        this.marks = new int[cellCount];
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super KenkenAnswer> action) {
+        if (context == null) {
+            return false; // Every solution was already given
+        }
+        if (!started) {
+            started = true;
+            if (context.isSolved()) {
+                action.accept(ConstraintBasedKenkenSolver.toAnswer(context));
+                context = null;
+                return true;
+            }
+            openBranch();
+        }
+
+        // Each pass tries the next value of the deepest branch, from the domains the branch started with
+        while (depth > 0) {
+            int top = depth - 1;
+            context.undoTo(marks[top]);
+            if (nextValues[top] == values[top].length) {
+                values[top] = null;
+                depth--;
+                continue;
+            }
+
+            int value = values[top][nextValues[top]++];
+            if (!solver.fillBranch(context, brancher, cells[top], value)) {
+                continue;
+            }
+            if (context.isSolved()) {
+                action.accept(ConstraintBasedKenkenSolver.toAnswer(context));
+                return true;
+            }
+            openBranch();
+        }
+        context = null;
+        return false;
+    }
+
+    // Pushes a branch on the square chosen by the brancher, unless some square has no value left.
+    private void openBranch() {
+        int cell = brancher.selectCell(context);
+        if (cell < 0) {
+            return;
+        }
+        cells[depth] = cell;
+        values[depth] = brancher.orderValues(context, cell);
+        nextValues[depth] = 0;
+        marks[depth] = context.mark();
+        depth++;
+    }
+
+    @Override
+    public Spliterator<KenkenAnswer> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return context != null ? Long.MAX_VALUE : 0;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+}
@@ -0,0 +1,252 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenEliminatingConstraint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters and phase timings of one solve, collected by a {@link ConstraintBasedKenkenSolver} with
+ * statistics enabled and returned in its {@link KenkenSolver.SolvingResult}.
+ * <p>
+ * Counting is a field increment. Time is charged to a phase when the solve switches phases, which happens
+ * once for the initialization and once per propagation wave. A phase entered inside another one, such as
+ * the propagation inside the search, is not charged to the outer phase, so the phase times add up to the
+ * whole solve. A collector belongs to a single solve on a single thread.
+ */
+public final class SolverStatistics {
+    public enum Phase {
+        INITIALIZATION,
+        PROPAGATION,
+        SEARCH
+    }
+
+    /**
+     * Work done by the constraints of one class.
+     *
+     * @param constraint the class of the constraints.
+     * @param invocations the number of times the constraints were run.
+     * @param eliminations the number of values the constraints removed.
+     */
+    public record ConstraintStatistics(
+            Class<? extends KenkenEliminatingConstraint> constraint,
+            long invocations,
+            long eliminations) {}
+
+    private static final int NO_CONSTRAINT = -1;
+
+    private final List<Class<? extends KenkenEliminatingConstraint>> constraintClasses;
+    private final LongSupplier cpuClock;
+    private final long[] invocations;
+    private final long[] constraintEliminations;
+    private int runningConstraint = NO_CONSTRAINT;
+
+    private long nodes = 0;
+    private long backtracks = 0;
+    private long backjumps = 0;
+    private long nogoods = 0;
+    private int depth = 0;
+    private int maxDepth = 0;
+    private long eliminations = 0;
+    private long cageTupleEvaluations = 0;
+    private long cageCacheHits = 0;
+    private long cageCacheMisses = 0;
+
+    private final long[] wallNanos = new long[Phase.values().length];
+    private final long[] cpuNanos = new long[Phase.values().length];
+    private final Phase[] phases = new Phase[Phase.values().length];
+    private int phaseDepth = 0;
+    private long lastWallTime;
+    private long lastCpuTime;
+
+    /**
+     * @param constraintClasses the classes of the constraints, in the order of the indexes passed to
+     *                          {@link #enterConstraint(int)}.
+     * @param cpuClock the CPU time of the current thread in nanoseconds.
+     */
+    SolverStatistics(List<Class<? extends KenkenEliminatingConstraint>> constraintClasses, LongSupplier cpuClock) {
+        this.constraintClasses = constraintClasses;
+        this.cpuClock = cpuClock;
+        this.invocations = new long[constraintClasses.size()];
+        this.constraintEliminations = new long[constraintClasses.size()];
+    }
+
+    /**
+     * @return the number of branches the search explored.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of branches the search undid after they failed.
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * @return the number of times the backjumping search skipped the values left at a level.
+     */
+    public long getBackjumps() {
+        return backjumps;
+    }
+
+    /**
+     * @return the number of nogoods the backjumping search learned.
+     */
+    public long getNogoods() {
+        return nogoods;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the number of values removed, by the constraints and by the search choices.
+     */
+    public long getEliminations() {
+        return eliminations;
+    }
+
+    /**
+     * @return the number of cage tuples matched against the domains by the cage constraints.
+     */
+    public long getCageTupleEvaluations() {
+        return cageTupleEvaluations;
+    }
+
+    /**
+     * @return the number of times a cage constraint found its result in the {@link CageFeasibilityCache}.
+     */
+    public long getCageCacheHits() {
+        return cageCacheHits;
+    }
+
+    public long getCageCacheMisses() {
+        return cageCacheMisses;
+    }
+
+    public long getWallNanos(Phase phase) {
+        return wallNanos[phase.ordinal()];
+    }
+
+    public long getCpuNanos(Phase phase) {
+        return cpuNanos[phase.ordinal()];
+    }
+
+    /**
+     * @return the work of the constraints, merged by class, in the order the solver runs them.
+     */
+    public List<ConstraintStatistics> getConstraintStatistics() {
+        Map<Class<? extends KenkenEliminatingConstraint>, long[]> byClass = new LinkedHashMap<>();
+        for (int i = 0; i < constraintClasses.size(); i++) {
+            long[] counts = byClass.computeIfAbsent(constraintClasses.get(i), constraint -> new long[2]);
+            counts[0] += invocations[i];
+            counts[1] += constraintEliminations[i];
+        }
+
+        List<ConstraintStatistics> statistics = new ArrayList<>();
+        byClass.forEach((constraint, counts) ->
+                statistics.add(new ConstraintStatistics(constraint, counts[0], counts[1])));
+        return statistics;
+    }
+
+    /**
+     * Counts tuples evaluated by a cage constraint.
+     */
+    public void addCageTupleEvaluations(int count) {
+        cageTupleEvaluations += count;
+    }
+
+    /**
+     * Counts a lookup of a cage constraint in the {@link CageFeasibilityCache}.
+     */
+    public void countCageCacheLookup(boolean hit) {
+        if (hit) {
+            cageCacheHits++;
+        }
+        else {
+            cageCacheMisses++;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SolverStatistics{nodes=" + nodes
+                + ", backtracks=" + backtracks
+                + ", backjumps=" + backjumps
+                + ", nogoods=" + nogoods
+                + ", maxDepth=" + maxDepth
+                + ", eliminations=" + eliminations
+                + ", cageTupleEvaluations=" + cageTupleEvaluations
+                + ", cageCacheHits=" + cageCacheHits
+                + ", cageCacheMisses=" + cageCacheMisses
+                + ", wallNanos=" + Arrays.toString(wallNanos)
+                + ", cpuNanos=" + Arrays.toString(cpuNanos)
+                + ", constraints=" + getConstraintStatistics()
+                + '}';
+    }
+
+    void enterBranch() {
+        nodes++;
+        depth++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    void exitBranch() {
+        depth--;
+        backtracks++;
+    }
+
+    void countBackjump() {
+        backjumps++;
+    }
+
+    void countNogood() {
+        nogoods++;
+    }
+
+    void enterConstraint(int constraintIndex) {
+        invocations[constraintIndex]++;
+        runningConstraint = constraintIndex;
+    }
+
+    void exitConstraint() {
+        runningConstraint = NO_CONSTRAINT;
+    }
+
+    void countElimination() {
+        eliminations++;
+        if (runningConstraint != NO_CONSTRAINT) {
+            constraintEliminations[runningConstraint]++;
+        }
+    }
+
+    void enterPhase(Phase phase) {
+        chargeRunningPhase();
+        phases[phaseDepth++] = phase;
+    }
+
+    void exitPhase() {
+        chargeRunningPhase();
+        phaseDepth--;
+    }
+
+    private void chargeRunningPhase() {
+        long wallTime = System.nanoTime();
+        long cpuTime = cpuClock.getAsLong();
+        if (phaseDepth > 0) {
+            int phase = phases[phaseDepth - 1].ordinal();
+            wallNanos[phase] += wallTime - lastWallTime;
+            cpuNanos[phase] += cpuTime - lastCpuTime;
+        }
+        lastWallTime = wallTime;
+        lastCpuTime = cpuTime;
+    }
+}
@@ -3,82 +3,336 @@ package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
-import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Unit;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.CollectionHelpers;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.BranchingStrategy;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
 
+/**
+ * Domain store of a solve. The candidate values of every square are kept as an {@code int} bitmask
+ * (see {@link BitmaskHelpers}) in a flat array indexed by the cells of the {@link SolvingTopology}.
+ * A context created with a {@link SolvingTrail} records every removal so that it can be undone
+ * with {@link #undoTo(int)} instead of being copied before each branch.
+ * Removals made while a propagation wave runs are queued on the context (see {@link PropagationQueue})
+ * and handled by the solver loop instead of recursively.
+ */
 public class SolvingContext {
-    public record SquareValuesPair (Square square, Set<Integer> values) {}
-    
-    private final KenkenGame kenken;
+    private final SolvingTopology topology;
     private final SolvingContextProcessor processor;
-    private final Map<Square, Set<Integer>> valuesFor;
-    
+    private final int[] domains;
+    private final SolvingTrail trail;
+    private PropagationQueue queue;
+    private int[] unitMatching;
+    private SolvingMonitor monitor;
+    private SolverStatistics statistics;
+    private SolvingExplanations explanations;
+    private DomainSizeIndex sizeIndex;
+    private BranchingStrategy.Brancher brancher;
+    private CageFeasibilityCache cageCache;
+
     public SolvingContext(
-            KenkenGame kenken,
+            SolvingTopology topology,
             SolvingContextProcessor processor,
-            Map<Square, Set<Integer>> initialValues) {
+            int[] domains,
+            SolvingTrail trail) {
+        this.topology = topology;
         this.processor = processor;
-        this.kenken = kenken;
-        this.valuesFor = initialValues;
+        this.domains = domains;
+        this.trail = trail;
     }
-    
+
+    public SolvingContext(
+            SolvingTopology topology,
+            SolvingContextProcessor processor,
+            int[] domains) {
+        this(topology, processor, domains, null);
+    }
+
+    public SolvingContext(
+            SolvingTopology topology,
+            SolvingContextProcessor processor,
+            Map<Square, Set<Integer>> initialValues) {
+        this(topology, processor, toDomains(topology, initialValues));
+    }
+
     public static SolvingContext emptyContext() {
-        return new SolvingContext(null, null, null);
+        return new SolvingContext(null, null, (int[]) null);
     }
-    
+
     public boolean isEmpty() {
-        return kenken == null || processor == null || CollectionHelpers.isNullOrEmpty(valuesFor);
+        return topology == null || processor == null || domains == null || domains.length == 0;
     }
 
-    public Map<Square, Set<Integer>> getSquareValuesMap() {
-        return valuesFor;
+    public SolvingContext fill(int cell, int filledValue) {
+        return processor.fill(this, cell, filledValue);
     }
 
-    public Stream<SquareValuesPair> stream() {
-        return valuesFor
-                .entrySet()
-                .stream()
-                .map(entry -> new SquareValuesPair(entry.getKey(), entry.getValue()));
+    public boolean eliminate(int cell, int eliminatedValue) {
+        return processor.eliminate(this, cell, eliminatedValue);
     }
-    
-    public SolvingContext fill(Square square, int filledValue) {
-        return processor.fill(this, square, filledValue);
+
+    public SolvingTopology getTopology() {
+        return topology;
     }
-    
-    public boolean eliminate(Square square, int eliminatedValue) {
-        return processor.eliminate(this, square, eliminatedValue);
+
+    public KenkenGame getKenken() {
+        return topology.getKenken();
     }
-    
-    public Set<Square> getSquares() {
-        return kenken.getSquares();
+
+    public int getCellCount() {
+        return domains.length;
     }
-    
-    public Cage getCage(Square square) {
-        return kenken.getSquareCageMap().get(square);
+
+    public Square getSquare(int cell) {
+        return topology.getSquare(cell);
     }
-    
-    public Set<Square> getPeers(Square square) {
-        return kenken.getSquarePeersMap().get(square);
+
+    public int[] getPeers(int cell) {
+        return topology.getPeers(cell);
     }
-    
-    public Unit getRowUnit(Square square) {
-        KenkenGame.AssociatedUnits associatedUnits = kenken.getSquareUnitsMap().get(square);
-        return associatedUnits != null ? associatedUnits.rowUnit() : null;
+
+    public int[] getRowCells(int cell) {
+        return topology.getRowCells(cell);
     }
-    
-    public Unit getColumnUnit(Square square) {
-        KenkenGame.AssociatedUnits associatedUnits = kenken.getSquareUnitsMap().get(square);
-        return associatedUnits != null ? associatedUnits.columnUnit() : null;
+
+    public int[] getColumnCells(int cell) {
+        return topology.getColumnCells(cell);
     }
-    
+
+    public Cage getCage(int cell) {
+        return topology.getCage(topology.getCageIndex(cell));
+    }
+
+    public int[] getCageCells(int cell) {
+        return topology.getCageCells(topology.getCageIndex(cell));
+    }
+
+    public int getDomain(int cell) {
+        return domains[cell];
+    }
+
+    public boolean contains(int cell, int value) {
+        return BitmaskHelpers.contains(domains[cell], value);
+    }
+
+    public int countValues(int cell) {
+        return BitmaskHelpers.count(domains[cell]);
+    }
+
+    public boolean isSingle(int cell) {
+        return BitmaskHelpers.isSingle(domains[cell]);
+    }
+
+    public boolean isSolved() {
+        for (int domain : domains) {
+            if (!BitmaskHelpers.isSingle(domain)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public Set<Integer> getValues(Square square) {
-        return valuesFor.get(square);
+        return BitmaskHelpers.toSet(domains[topology.indexOf(square)]);
     }
-    
+
     public SolvingContext copy() {
-        return new SolvingContext(kenken, processor, CollectionHelpers.copy(valuesFor, true));
+        SolvingContext copy = new SolvingContext(topology, processor, domains.clone(), trail != null ? new SolvingTrail() : null);
+        copy.monitor = monitor;
+        copy.statistics = statistics;
+        copy.brancher = brancher;
+        copy.cageCache = cageCache;
+        return copy;
+    }
+
+    /**
+     * @return a context sharing no domains with this one that records its removals on a new trail.
+     */
+    public SolvingContext trailedCopy() {
+        SolvingContext copy = new SolvingContext(topology, processor, domains.clone(), new SolvingTrail());
+        copy.monitor = monitor;
+        copy.statistics = statistics;
+        copy.brancher = brancher;
+        copy.cageCache = cageCache;
+        return copy;
+    }
+
+    public boolean isTrailed() {
+        return trail != null;
+    }
+
+    /**
+     * @return the trail position to backtrack to with {@link #undoTo(int)}.
+     * @throws IllegalStateException if the context has no trail.
+     */
+    public int mark() {
+        return requireTrail().mark();
+    }
+
+    /**
+     * Restores the domains changed since the given mark was taken.
+     *
+     * @throws IllegalStateException if the context has no trail.
+     */
+    public void undoTo(int mark) {
+        requireTrail().undoTo(mark, domains, explanations != null ? explanations.getReasons() : null, sizeIndex);
+    }
+
+    /**
+     * Removes the value from the domain of the cell without any propagation.
+     *
+     * @return the remaining domain of the cell.
+     */
+    int removeValue(int cell, int value) {
+        int previousDomain = domains[cell];
+        if (trail != null) {
+            trail.push(cell, previousDomain, explanations != null ? explanations.getReason(cell) : 0);
+        }
+        if (explanations != null) {
+            explanations.explainRemoval(cell);
+        }
+        int domain = BitmaskHelpers.remove(previousDomain, value);
+        domains[cell] = domain;
+        if (sizeIndex != null) {
+            sizeIndex.update(cell, previousDomain, domain);
+        }
+        return domain;
+    }
+
+    /**
+     * @return the propagation queue of this context, created on first use.
+     */
+    PropagationQueue getQueue() {
+        if (queue == null) {
+            queue = new PropagationQueue(
+                    topology.getCellCount() * topology.getSize(),
+                    topology.getUnitCount(),
+                    topology.getCageCount());
+        }
+        return queue;
+    }
+
+    /**
+     * Returns the value matched to every square of every unit by the last run of a matching based
+     * constraint, indexed by {@code unitIndex * size + position}, 0 when nothing is matched.
+     * The matching is only a starting point for the next run and is not restored on backtracking.
+     */
+    public int[] getUnitMatching() {
+        if (unitMatching == null) {
+            unitMatching = new int[topology.getUnitCount() * topology.getSize()];
+        }
+        return unitMatching;
+    }
+
+    /**
+     * Returns the cache of the cage constraint results, shared by the copies of this context.
+     * The cached results only depend on the domains, so they stay valid on backtracking.
+     */
+    public CageFeasibilityCache getCageCache() {
+        if (cageCache == null) {
+            cageCache = new CageFeasibilityCache();
+        }
+        return cageCache;
+    }
+
+    /**
+     * Gives this context a cache of its own, for a search running on another thread.
+     */
+    void detachCageCache() {
+        cageCache = null;
+    }
+
+    /**
+     * @return the budget checks of the running solve, or null if it is not budgeted.
+     */
+    SolvingMonitor getMonitor() {
+        return monitor;
+    }
+
+    void setMonitor(SolvingMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * @return the statistics collector of the running solve, or null if statistics are disabled.
+     */
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
+    void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return the index of the cells by domain size, built on first use and kept up to date afterwards.
+     */
+    public DomainSizeIndex getDomainSizeIndex() {
+        if (sizeIndex == null) {
+            sizeIndex = new DomainSizeIndex(domains, topology.getSize());
+        }
+        return sizeIndex;
+    }
+
+    /**
+     * @return the branching state of the running search, or null if no search runs on this context.
+     */
+    BranchingStrategy.Brancher getBrancher() {
+        return brancher;
+    }
+
+    void setBrancher(BranchingStrategy.Brancher brancher) {
+        this.brancher = brancher;
+    }
+
+    /**
+     * Narrows the reason of the next removals of the running constraint to the domain of the cell.
+     * Without it, the removals of a constraint are explained by every square the constraint may look at,
+     * which is sound but makes the backjumping search jump less far. Does nothing when not explaining.
+     */
+    public void explainBy(int cell) {
+        if (explanations != null) {
+            explanations.setCurrentReason(explanations.getReason(cell));
+        }
+    }
+
+    /**
+     * Same as {@link #explainBy(int)} with the domains of all the given cells.
+     */
+    public void explainBy(int[] cells) {
+        if (explanations != null) {
+            explanations.setCurrentReason(cells);
+        }
+    }
+
+    /**
+     * @return the reasons of the removals, or null if the removals are not explained.
+     */
+    SolvingExplanations getExplanations() {
+        return explanations;
+    }
+
+    void setExplanations(SolvingExplanations explanations) {
+        this.explanations = explanations;
+    }
+
+    private SolvingTrail requireTrail() {
+        if (trail == null) {
+            throw new IllegalStateException("Solving context is not trailed");
+        }
+        return trail;
+    }
+
+    private static int[] toDomains(SolvingTopology topology, Map<Square, Set<Integer>> initialValues) {
+        if (topology == null || initialValues == null) {
+            return null;
+        }
+
+        int[] domains = new int[topology.getCellCount()];
+        int fullDomain = topology.getFullDomain();
+        initialValues.forEach((square, values) ->
+                domains[topology.indexOf(square)] = BitmaskHelpers.fromValues(values) & fullDomain);
+        return domains;
     }
 }
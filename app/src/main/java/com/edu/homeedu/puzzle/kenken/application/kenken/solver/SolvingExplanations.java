@@ -0,0 +1,96 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+/**
+ * Reasons of the domain removals, used by the backjumping search (see {@link BackjumpingSearch}).
+ * <p>
+ * A reason is the set of search decisions a removal depends on, as a {@code long} bitmask of decision levels.
+ * Removals made before the first decision have no reason. The reason of a cell is the union of the reasons
+ * of the values removed from it. A constraint deduces its removals from the domains of its squares, so
+ * the reason of a removal is the union of the reasons of the squares the running constraint looks at.
+ * This is coarser than a reason given by the constraint itself, but it is sound for every constraint and
+ * costs nothing to the constraints.
+ * <p>
+ * Levels from {@link #MAX_LEVEL} on share the last bit, so deep decisions are never told apart,
+ * which is again coarser but sound.
+ */
+final class SolvingExplanations {
+    static final int MAX_LEVEL = Long.SIZE - 1;
+
+    private final long[] reasons;
+    private long currentReason = 0;
+    private long conflict = 0;
+
+    SolvingExplanations(int cellCount) {
+        this.reasons = new long[cellCount];
+    }
+
+    static long levelBit(int level) {
+        return 1L << Math.min(level, MAX_LEVEL);
+    }
+
+    /**
+     * @return the bits of every level below the given one.
+     */
+    static long levelsBelow(int level) {
+        return level > MAX_LEVEL ? -1L : levelBit(level) - 1;
+    }
+
+    long[] getReasons() {
+        return reasons;
+    }
+
+    long getReason(int cell) {
+        return reasons[cell];
+    }
+
+    /**
+     * Sets the reason of the next removals, which is either a decision or the squares of the running constraint.
+     */
+    void setCurrentReason(long reason) {
+        currentReason = reason;
+    }
+
+    void setCurrentReason(int[] cells) {
+        long reason = 0;
+        for (int cell : cells) {
+            reason |= reasons[cell];
+        }
+        currentReason = reason;
+    }
+
+    void addCurrentReason(int[] cells) {
+        for (int cell : cells) {
+            currentReason |= reasons[cell];
+        }
+    }
+
+    void explainRemoval(int cell) {
+        reasons[cell] |= currentReason;
+    }
+
+    /**
+     * Starts a new decision, forgetting the previous conflict.
+     */
+    void startDecision(int level) {
+        currentReason = levelBit(level);
+        conflict = 0;
+    }
+
+    /**
+     * Records that the running constraint failed, or that it emptied the domain of the cell.
+     */
+    void explainConflict(int cell) {
+        conflict |= currentReason | reasons[cell];
+    }
+
+    void explainConflict() {
+        conflict |= currentReason;
+    }
+
+    /**
+     * @return the levels of the decisions that explain the last failure.
+     */
+    long getConflict() {
+        return conflict;
+    }
+}
@@ -0,0 +1,102 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver.SolvingBudget;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver.Status;
+
+/**
+ * Budget and cancellation checks of one solve, for a single thread.
+ * Counting a node or a propagation step is a field increment; the cancellation token and the clock
+ * are only polled every {@link #CHECK_INTERVAL} steps. Once stopped, every later check fails at once,
+ * so the search unwinds without doing more work.
+ */
+final class SolvingMonitor {
+    private static final int CHECK_INTERVAL = 128;
+
+    private final SolvingBudget budget;
+    private final CancellationToken token;
+    private final long deadline;
+    private long nodes = 0;
+    private long propagations = 0;
+    private int steps = 0;
+    private Status stopStatus = null;
+
+    SolvingMonitor(SolvingBudget budget, CancellationToken token) {
+        this.budget = budget;
+        this.token = token;
+        long maxNanos = budget.maxMillis() >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : budget.maxMillis() * 1_000_000;
+        long now = System.nanoTime();
+        this.deadline = maxNanos >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + maxNanos;
+    }
+
+    /**
+     * Counts a search node.
+     *
+     * @return true if the solve must stop.
+     */
+    boolean enterNode() {
+        if (stopStatus != null) {
+            return true;
+        }
+        else if (++nodes > budget.maxNodes()) {
+            return stop(Status.BUDGET_EXCEEDED);
+        }
+        return step();
+    }
+
+    /**
+     * Counts a step of the propagation loop.
+     *
+     * @return true if the solve must stop.
+     */
+    boolean enterPropagation() {
+        if (stopStatus != null) {
+            return true;
+        }
+        else if (++propagations > budget.maxPropagations()) {
+            return stop(Status.BUDGET_EXCEEDED);
+        }
+        return step();
+    }
+
+    /**
+     * Polls the cancellation token and the clock.
+     *
+     * @return true if the solve must stop.
+     */
+    boolean check() {
+        if (stopStatus != null) {
+            return true;
+        }
+        else if (token != null && token.isCancelled()) {
+            return stop(Status.CANCELLED);
+        }
+        else if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            return stop(Status.BUDGET_EXCEEDED);
+        }
+        return false;
+    }
+
+    /**
+     * @return why the solve stopped, or null if it was not stopped.
+     */
+    Status getStopStatus() {
+        return stopStatus;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    long getPropagations() {
+        return propagations;
+    }
+
+    private boolean step() {
+        return ++steps % CHECK_INTERVAL == 0 && check();
+    }
+
+    private boolean stop(Status status) {
+        stopStatus = status;
+        return true;
+    }
+}
@@ -0,0 +1,157 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Index-based view of a {@link KenkenGame} used by the solver.
+ * Every square is addressed by a cell index {@code (row - 1) * size + (column - 1)},
+ * so rows, columns, peers and cages can be stored as plain {@code int} arrays.
+ * Rows and columns are also numbered together as units: unit {@code r} is row {@code r + 1} and
+ * unit {@code size + c} is column {@code c + 1}.
+ * A topology is immutable and can be shared between solving contexts.
+ */
+public final class SolvingTopology {
+    private final KenkenGame kenken;
+    private final int size;
+    private final Square[] squares;
+    private final int[][] rows;
+    private final int[][] columns;
+    private final int[][] peers;
+    private final Cage[] cages;
+    private final int[][] cageCells;
+    private final int[] cageIndexOf;
+
+    public SolvingTopology(KenkenGame kenken) {
+        this.kenken = kenken;
+        this.size = kenken.getSize();
+
+        int cellCount = size * size;
+        squares = new Square[cellCount];
+        rows = new int[size][size];
+        columns = new int[size][size];
+        peers = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = cell / size;
+            int column = cell % size;
+            squares[cell] = Square.of(row + 1, column + 1);
+            rows[row][column] = cell;
+            columns[column][row] = cell;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            int[] cellPeers = new int[2 * (size - 1)];
+            int i = 0;
+            for (int other : rows[cell / size]) {
+                if (other != cell) {
+                    cellPeers[i++] = other;
+                }
+            }
+            for (int other : columns[cell % size]) {
+                if (other != cell) {
+                    cellPeers[i++] = other;
+                }
+            }
+            peers[cell] = cellPeers;
+        }
+
+        List<Cage> sortedCages = kenken
+                .getCages()
+                .stream()
+                .sorted(Comparator.comparing(Cage::getFirstSquare))
+                .collect(Collectors.toList());
+        cages = sortedCages.toArray(new Cage[0]);
+        cageCells = new int[cages.length][];
+        cageIndexOf = new int[cellCount];
+        for (int i = 0; i < cages.length; i++) {
+            cageCells[i] = cages[i].getSquares().stream().sorted().mapToInt(this::indexOf).toArray();
+            for (int cell : cageCells[i]) {
+                cageIndexOf[cell] = i;
+            }
+        }
+    }
+
+    public KenkenGame getKenken() {
+        return kenken;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellCount() {
+        return squares.length;
+    }
+
+    /**
+     * @return the mask of every value a square of this game can take.
+     */
+    public int getFullDomain() {
+        return BitmaskHelpers.range(1, size);
+    }
+
+    public int indexOf(Square square) {
+        return (square.row() - 1) * size + (square.column() - 1);
+    }
+
+    public Square getSquare(int cell) {
+        return squares[cell];
+    }
+
+    public int[] getRowCells(int cell) {
+        return rows[cell / size];
+    }
+
+    public int[] getColumnCells(int cell) {
+        return columns[cell % size];
+    }
+
+    public int[][] getRows() {
+        return rows;
+    }
+
+    public int[][] getColumns() {
+        return columns;
+    }
+
+    public int getUnitCount() {
+        return 2 * size;
+    }
+
+    public int getRowUnitIndex(int cell) {
+        return cell / size;
+    }
+
+    public int getColumnUnitIndex(int cell) {
+        return size + cell % size;
+    }
+
+    public int[] getUnitCells(int unitIndex) {
+        return unitIndex < size ? rows[unitIndex] : columns[unitIndex - size];
+    }
+
+    public int[] getPeers(int cell) {
+        return peers[cell];
+    }
+
+    public int getCageCount() {
+        return cages.length;
+    }
+
+    public int getCageIndex(int cell) {
+        return cageIndexOf[cell];
+    }
+
+    public Cage getCage(int cageIndex) {
+        return cages[cageIndex];
+    }
+
+    public int[] getCageCells(int cageIndex) {
+        return cageCells[cageIndex];
+    }
+}
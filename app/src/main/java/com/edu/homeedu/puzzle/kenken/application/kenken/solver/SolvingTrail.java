@@ -0,0 +1,60 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import java.util.Arrays;
+
+/**
+ * Undo log of the domain changes made on a {@link SolvingContext}.
+ * Every change pushes the cell and its previous domain; backtracking to a mark pops the changes
+ * made after it and writes the previous domains back, so a choice point costs only the changes
+ * made below it instead of a copy of the whole board.
+ * When the removals are explained (see {@link SolvingExplanations}), the previous reason of the cell
+ * is recorded with its previous domain.
+ */
+public final class SolvingTrail {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] cells = new int[INITIAL_CAPACITY];
+    private int[] previousDomains = new int[INITIAL_CAPACITY];
+    private long[] previousReasons = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @return the position to pass to {@link #undoTo(int, int[], long[], DomainSizeIndex)} to revert every later change.
+     */
+    public int mark() {
+        return size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    void push(int cell, int previousDomain, long previousReason) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+            previousDomains = Arrays.copyOf(previousDomains, size * 2);
+            previousReasons = Arrays.copyOf(previousReasons, size * 2);
+        }
+        cells[size] = cell;
+        previousDomains[size] = previousDomain;
+        previousReasons[size] = previousReason;
+        size++;
+    }
+
+    /**
+     * @param reasons the reasons to restore with the domains, or null if the removals are not explained.
+     * @param sizeIndex the index to update with the domains, or null if there is none.
+     */
+    void undoTo(int mark, int[] domains, long[] reasons, DomainSizeIndex sizeIndex) {
+        while (size > mark) {
+            size--;
+            if (sizeIndex != null) {
+                sizeIndex.update(cells[size], domains[cells[size]], previousDomains[size]);
+            }
+            domains[cells[size]] = previousDomains[size];
+            if (reasons != null) {
+                reasons[cells[size]] = previousReasons[size];
+            }
+        }
+    }
+}
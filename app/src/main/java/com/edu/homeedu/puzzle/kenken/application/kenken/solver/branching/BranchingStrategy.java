@@ -0,0 +1,45 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+
+/**
+ * Chooses the square the search branches on and the order in which its values are tried.
+ * A strategy is shared by the searches of a solver; the state it learns while searching lives in
+ * the {@link Brancher} it creates for every search.
+ */
+public interface BranchingStrategy {
+    /**
+     * Branching state of one search, used by a single thread.
+     */
+    interface Brancher {
+        /**
+         * @return the cell to branch on, or -1 if no cell has more than one value left.
+         */
+        int selectCell(SolvingContext context);
+
+        /**
+         * @return the values of the cell, in the order to try them.
+         */
+        int[] orderValues(SolvingContext context, int cell);
+
+        /**
+         * Called before the value is filled in the cell as a branch of the search.
+         */
+        default void beforeBranch(SolvingContext context, int cell, int value) {}
+
+        /**
+         * Called after the value was filled in the cell and propagated, before the search goes deeper.
+         *
+         * @param consistent false if the propagation failed.
+         */
+        default void afterBranch(SolvingContext context, int cell, int value, boolean consistent) {}
+
+        /**
+         * Called when a constraint on the given cells fails while propagating.
+         */
+        default void onConflict(int[] cells) {}
+    }
+
+    Brancher newBrancher(SolvingTopology topology);
+}
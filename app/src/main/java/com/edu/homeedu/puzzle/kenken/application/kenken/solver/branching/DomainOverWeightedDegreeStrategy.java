@@ -0,0 +1,57 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * dom/wdeg: branches on the square with the lowest ratio of values left to weight, trying its values
+ * in ascending order. Every time a constraint fails, the weight of each of its squares is bumped, so the
+ * search turns to the squares that keep taking part in conflicts.
+ * The weights are kept per square rather than per constraint, which is the sum of the weights of its
+ * constraints when every failure is counted once on each of their squares.
+ */
+public class DomainOverWeightedDegreeStrategy implements BranchingStrategy {
+    @Override
+    public Brancher newBrancher(SolvingTopology topology) {
+        return new WeightedBrancher(topology.getCellCount());
+    }
+
+    private static final class WeightedBrancher implements Brancher {
+        private final long[] weights;
+
+        WeightedBrancher(int cellCount) {
+            weights = new long[cellCount];
+        }
+
+        @Override
+        public int selectCell(SolvingContext context) {
+            int bestCell = -1;
+            long bestCount = 0;
+            long bestWeight = 1;
+            for (int cell = 0; cell < weights.length; cell++) {
+                int count = context.countValues(cell);
+                long weight = weights[cell] + 1;
+                // count / weight < bestCount / bestWeight, without dividing
+                if (count > 1 && (bestCell < 0 || count * bestWeight < bestCount * weight)) {
+                    bestCell = cell;
+                    bestCount = count;
+                    bestWeight = weight;
+                }
+            }
+            return bestCell;
+        }
+
+        @Override
+        public int[] orderValues(SolvingContext context, int cell) {
+            return BitmaskHelpers.toArray(context.getDomain(cell));
+        }
+
+        @Override
+        public void onConflict(int[] cells) {
+            for (int cell : cells) {
+                weights[cell]++;
+            }
+        }
+    }
+}
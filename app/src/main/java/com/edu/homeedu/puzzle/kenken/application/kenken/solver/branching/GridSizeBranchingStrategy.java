@@ -0,0 +1,31 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Uses a different strategy depending on the size of the grid: each strategy applies from its minimum
+ * size up to the next one.
+ */
+public class GridSizeBranchingStrategy implements BranchingStrategy {
+    private final NavigableMap<Integer, BranchingStrategy> strategiesByMinSize;
+
+    /**
+     * @param smallestGridStrategy the strategy of the grids smaller than every minimum size.
+     * @param strategiesByMinSize the strategies by the minimum grid size they apply to.
+     */
+    public GridSizeBranchingStrategy(
+            BranchingStrategy smallestGridStrategy,
+            Map<Integer, BranchingStrategy> strategiesByMinSize) {
+        this.strategiesByMinSize = new TreeMap<>(strategiesByMinSize);
+        this.strategiesByMinSize.put(Integer.MIN_VALUE, smallestGridStrategy);
+    }
+
+    @Override
+    public Brancher newBrancher(SolvingTopology topology) {
+        return strategiesByMinSize.floorEntry(topology.getSize()).getValue().newBrancher(topology);
+    }
+}
@@ -0,0 +1,105 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Impact-based branching, after Refalo.
+ * <p>
+ * The impact of filling a value in a square is the share of the search space the propagation removed,
+ * {@code 1 - after / before}, where the search space is the product of the domain sizes; a failed fill has
+ * an impact of 1. Impacts are averaged over the branches of the search. The search branches on the square
+ * whose values have the highest total impact, since deciding it early shrinks the space the most, and tries
+ * the values with the lowest impact first, since they leave the most room for a solution.
+ * Values not tried yet count as having no impact, and ties go to the square with the fewest values.
+ */
+public class ImpactBasedStrategy implements BranchingStrategy {
+    @Override
+    public Brancher newBrancher(SolvingTopology topology) {
+        return new ImpactBrancher(topology.getCellCount(), topology.getSize());
+    }
+
+    private static final class ImpactBrancher implements Brancher {
+        private final double[] impacts;
+        private final int[] samples;
+        private final double[] log2Sizes;
+        private double spaceBefore;
+
+        ImpactBrancher(int cellCount, int size) {
+            impacts = new double[cellCount * Integer.SIZE];
+            samples = new int[cellCount * Integer.SIZE];
+            log2Sizes = new double[size + 1];
+            for (int i = 1; i <= size; i++) {
+                log2Sizes[i] = Math.log(i) / Math.log(2);
+            }
+        }
+
+        @Override
+        public int selectCell(SolvingContext context) {
+            int bestCell = -1;
+            double bestImpact = -1;
+            int bestCount = Integer.MAX_VALUE;
+            for (int cell = 0; cell < context.getCellCount(); cell++) {
+                int domain = context.getDomain(cell);
+                int count = BitmaskHelpers.count(domain);
+                if (count <= 1) {
+                    continue;
+                }
+
+                double impact = 0;
+                for (int rest = domain; rest != 0; rest &= rest - 1) {
+                    impact += impacts[index(cell, BitmaskHelpers.lowest(rest))];
+                }
+                if (impact > bestImpact || (impact == bestImpact && count < bestCount)) {
+                    bestCell = cell;
+                    bestImpact = impact;
+                    bestCount = count;
+                }
+            }
+            return bestCell;
+        }
+
+        @Override
+        public int[] orderValues(SolvingContext context, int cell) {
+            int[] values = BitmaskHelpers.toArray(context.getDomain(cell));
+            // Insertion sort on the impacts, the values are few
+            for (int i = 1; i < values.length; i++) {
+                int value = values[i];
+                double impact = impacts[index(cell, value)];
+                int j = i - 1;
+                while (j >= 0 && impacts[index(cell, values[j])] > impact) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+            return values;
+        }
+
+        @Override
+        public void beforeBranch(SolvingContext context, int cell, int value) {
+            spaceBefore = log2Space(context);
+        }
+
+        @Override
+        public void afterBranch(SolvingContext context, int cell, int value, boolean consistent) {
+            double impact = consistent ? 1 - Math.pow(2, log2Space(context) - spaceBefore) : 1;
+            int index = index(cell, value);
+            samples[index]++;
+            impacts[index] += (impact - impacts[index]) / samples[index];
+        }
+
+        private double log2Space(SolvingContext context) {
+            double space = 0;
+            for (int cell = 0; cell < context.getCellCount(); cell++) {
+                space += log2Sizes[context.countValues(cell)];
+            }
+            return space;
+        }
+
+        private static int index(int cell, int value) {
+            return cell * Integer.SIZE + value;
+        }
+    }
+}
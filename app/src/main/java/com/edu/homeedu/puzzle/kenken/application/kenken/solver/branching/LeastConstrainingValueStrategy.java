@@ -0,0 +1,71 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+
+/**
+ * Branches on the square chosen by another strategy, trying first the values that the fewest peers
+ * of the square still have, since filling them removes the fewest values from the rest of the grid.
+ * Values removing as many keep the order of the other strategy.
+ */
+public class LeastConstrainingValueStrategy implements BranchingStrategy {
+    private final BranchingStrategy cellStrategy;
+
+    public LeastConstrainingValueStrategy(BranchingStrategy cellStrategy) {
+        this.cellStrategy = cellStrategy;
+    }
+
+    @Override
+    public Brancher newBrancher(SolvingTopology topology) {
+        Brancher cellBrancher = cellStrategy.newBrancher(topology);
+        return new Brancher() {
+            @Override
+            public int selectCell(SolvingContext context) {
+                return cellBrancher.selectCell(context);
+            }
+
+            @Override
+            public int[] orderValues(SolvingContext context, int cell) {
+                int[] values = cellBrancher.orderValues(context, cell);
+                int[] removals = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    for (int peer : context.getPeers(cell)) {
+                        if (context.contains(peer, values[i])) {
+                            removals[i]++;
+                        }
+                    }
+                }
+
+                // Stable insertion sort on the removals
+                for (int i = 1; i < values.length; i++) {
+                    int value = values[i];
+                    int removal = removals[i];
+                    int j = i - 1;
+                    while (j >= 0 && removals[j] > removal) {
+                        values[j + 1] = values[j];
+                        removals[j + 1] = removals[j];
+                        j--;
+                    }
+                    values[j + 1] = value;
+                    removals[j + 1] = removal;
+                }
+                return values;
+            }
+
+            @Override
+            public void beforeBranch(SolvingContext context, int cell, int value) {
+                cellBrancher.beforeBranch(context, cell, value);
+            }
+
+            @Override
+            public void afterBranch(SolvingContext context, int cell, int value, boolean consistent) {
+                cellBrancher.afterBranch(context, cell, value, consistent);
+            }
+
+            @Override
+            public void onConflict(int[] cells) {
+                cellBrancher.onConflict(cells);
+            }
+        };
+    }
+}
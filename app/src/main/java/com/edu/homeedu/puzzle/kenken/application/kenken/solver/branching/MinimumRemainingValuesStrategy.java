@@ -0,0 +1,29 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Branches on the square with the fewest values left, trying its values in ascending order.
+ * The square is looked up in the {@link com.edu.homeedu.puzzle.kenken.application.kenken.solver.DomainSizeIndex}
+ * of the context, which follows the removals and undos, instead of scanning every domain at every node.
+ */
+public class MinimumRemainingValuesStrategy implements BranchingStrategy {
+    private static final Brancher BRANCHER = new Brancher() {
+        @Override
+        public int selectCell(SolvingContext context) {
+            return context.getDomainSizeIndex().getCellWithFewestValues();
+        }
+
+        @Override
+        public int[] orderValues(SolvingContext context, int cell) {
+            return BitmaskHelpers.toArray(context.getDomain(cell));
+        }
+    };
+
+    @Override
+    public Brancher newBrancher(SolvingTopology topology) {
+        return BRANCHER; // Keeps no state of its own
+    }
+}
@@ -0,0 +1,161 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.Arrays;
+
+/**
+ * Generalized arc consistency of the all-different rule of a row or column, after Régin.
+ * <p>
+ * The squares of a unit take all of its values exactly once, so every solution of the unit is a perfect
+ * matching between its squares and its values. A value stays in the domain of a square only if some
+ * perfect matching gives it to that square. Given any perfect matching, that is the case when the square
+ * and the square matched to the value are in the same strongly connected component of the graph where
+ * every square points to the squares matched to the other values of its domain.
+ * <p>
+ * The matching of the previous run, kept in {@link SolvingContext#getUnitMatching()}, is repaired instead
+ * of being built again, so a run usually only needs to rematch the squares that lost their value.
+ */
+public class AllDifferentConsistencyConstraint implements KenkenUnitConstraint {
+    @Override
+    public boolean testUnit(SolvingContext context, int unitIndex) {
+        SolvingTopology topology = context.getTopology();
+        int[] cells = topology.getUnitCells(unitIndex);
+        int[] domains = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            domains[i] = context.getDomain(cells[i]);
+        }
+
+        UnitGraph graph = new UnitGraph(domains);
+        int[] matching = context.getUnitMatching();
+        int offset = unitIndex * cells.length;
+        if (!graph.match(matching, offset)) {
+            return false;
+        }
+        System.arraycopy(graph.valueOf, 0, matching, offset, cells.length);
+
+        int[] components = graph.components();
+        for (int i = 0; i < cells.length; i++) {
+            int otherValues = BitmaskHelpers.remove(domains[i], graph.valueOf[i]);
+            for (int rest = otherValues; rest != 0; rest &= rest - 1) {
+                int value = BitmaskHelpers.lowest(rest);
+                if (components[i] != components[graph.positionOf[value]]
+                        && !context.eliminate(cells[i], value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Bipartite graph between the positions of the squares in a unit and the values 1..n.
+    private static final class UnitGraph {
+        private final int[] domains;
+        private final int[] valueOf;
+        private final int[] positionOf;
+        private int visitedValues;
+
+        private int[] components;
+        private int[] order;
+        private int[] lowLink;
+        private int[] stack;
+        private boolean[] onStack;
+        private int stackSize;
+        private int counter;
+        private int componentCount;
+
+        UnitGraph(int[] domains) {
+            this.domains = domains;
+            this.valueOf = new int[domains.length];
+            this.positionOf = new int[domains.length + 1];
+            Arrays.fill(positionOf, -1);
+        }
+
+        // Keeps the previous matches still allowed by the domains, then augments the unmatched positions.
+        boolean match(int[] previous, int offset) {
+            for (int position = 0; position < domains.length; position++) {
+                int value = previous[offset + position];
+                if (value != 0 && BitmaskHelpers.contains(domains[position], value) && positionOf[value] < 0) {
+                    valueOf[position] = value;
+                    positionOf[value] = position;
+                }
+            }
+            for (int position = 0; position < domains.length; position++) {
+                if (valueOf[position] == 0) {
+                    visitedValues = 0;
+                    if (!augment(position)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean augment(int position) {
+            for (int rest = domains[position]; rest != 0; rest &= rest - 1) {
+                int value = BitmaskHelpers.lowest(rest);
+                if (BitmaskHelpers.contains(visitedValues, value)) {
+                    continue;
+                }
+                visitedValues |= BitmaskHelpers.of(value);
+
+                int owner = positionOf[value];
+                if (owner < 0 || augment(owner)) {
+                    valueOf[position] = value;
+                    positionOf[value] = position;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Tarjan's strongly connected components over the positions.
+        int[] components() {
+            int n = domains.length;
+            components = new int[n];
+            order = new int[n];
+            lowLink = new int[n];
+            stack = new int[n];
+            onStack = new boolean[n];
+            Arrays.fill(order, -1);
+            for (int position = 0; position < n; position++) {
+                if (order[position] < 0) {
+                    connect(position);
+                }
+            }
+            return components;
+        }
+
+        private void connect(int position) {
+            order[position] = counter;
+            lowLink[position] = counter;
+            counter++;
+            stack[stackSize++] = position;
+            onStack[position] = true;
+
+            int otherValues = BitmaskHelpers.remove(domains[position], valueOf[position]);
+            for (int rest = otherValues; rest != 0; rest &= rest - 1) {
+                int next = positionOf[BitmaskHelpers.lowest(rest)];
+                if (order[next] < 0) {
+                    connect(next);
+                    lowLink[position] = Math.min(lowLink[position], lowLink[next]);
+                }
+                else if (onStack[next]) {
+                    lowLink[position] = Math.min(lowLink[position], order[next]);
+                }
+            }
+
+            if (lowLink[position] == order[position]) {
+                int member;
+                do {
+                    member = stack[--stackSize];
+                    onStack[member] = false;
+                    components[member] = componentCount;
+                } while (member != position);
+                componentCount++;
+            }
+        }
+    }
+}
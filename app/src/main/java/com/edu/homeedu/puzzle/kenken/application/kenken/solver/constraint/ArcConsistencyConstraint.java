@@ -1,23 +1,24 @@
 package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
 
-import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.CollectionHelpers;
-import java.util.Set;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
 
 public class ArcConsistencyConstraint implements KenkenEliminatingConstraint {
     // If a square s is reduced to one value v, then eliminate v from the peers
     @Override
-    public boolean test(SolvingContext context, Square square, int eliminatedValue) {
-        Set<Integer> values = context.getValues(square);
-        if (values.size() > 1) {
+    public boolean test(SolvingContext context, int cell, int eliminatedValue) {
+        int domain = context.getDomain(cell);
+        if (!BitmaskHelpers.isSingle(domain)) {
             return true;
         }
-        
-        int singleValue = CollectionHelpers.firstOrThrow(values);
-        return context
-                .getPeers(square)
-                .stream()
-                .allMatch(peer -> context.eliminate(peer, singleValue));
+
+        int singleValue = BitmaskHelpers.lowest(domain);
+        context.explainBy(cell);
+        for (int peer : context.getPeers(cell)) {
+            if (!context.eliminate(peer, singleValue)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,255 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Addition;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Multiplication;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Bounds reasoning on addition and multiplication cages, without enumerating their tuples.
+ * <p>
+ * Both operations only grow with their operands, so a value {@code v} of a square is kept only if
+ * {@code v} combined with the smallest total of the other squares does not exceed the target, and
+ * {@code v} combined with their largest total reaches it. A multiplication value must also divide the target.
+ * <p>
+ * The squares of the cage in the same row (or column) take distinct values, so the total of such a group
+ * is at least the total of its smallest distinct values, which is often higher than the total of the
+ * smallest value of each square. The other squares in the row (or column) of the square also cannot take
+ * {@code v} itself. The bounds are taken by rows and by columns, and the tighter ones are kept.
+ * <p>
+ * The bounds of the rows and columns of the cage are taken once per pass over its squares; a candidate
+ * value then only bounds again the other squares of the cage in its own row and column. A pass costs
+ * about the number of candidate values times the squares sharing their row or column, far less than the
+ * tuples of the cage, so it is cheap enough to run before {@link CageConsistencyConstraint}, or instead
+ * of it on large cages. Bounds taken at the start of a pass only miss the values removed during it,
+ * which the next pass catches.
+ * Cages with other operators are left to the other cage constraints.
+ */
+public class CageBoundsConstraint implements KenkenCageConstraint {
+    /**
+     * @return true if the cage is checked by this constraint.
+     */
+    public static boolean supports(Cage cage) {
+        return cage.getOperator() instanceof Addition || cage.getOperator() instanceof Multiplication;
+    }
+
+    // Removing a value tightens the bounds of the other squares, so the cage is checked again until
+    // nothing is removed.
+    @Override
+    public boolean testCage(SolvingContext context, int cageIndex) {
+        SolvingTopology topology = context.getTopology();
+        Cage cage = topology.getCage(cageIndex);
+        if (!supports(cage)) {
+            return true;
+        }
+
+        int[] cells = topology.getCageCells(cageIndex);
+        CageBounds bounds = new CageBounds(
+                context, cells, cage.getTarget(), cage.getOperator() instanceof Multiplication);
+        boolean changed;
+        do {
+            changed = false;
+            bounds.boundGroups();
+            for (int position = 0; position < cells.length; position++) {
+                int impossible = bounds.impossibleValues(position);
+                for (int rest = impossible; rest != 0; rest &= rest - 1) {
+                    if (!context.eliminate(cells[position], BitmaskHelpers.lowest(rest))) {
+                        return false;
+                    }
+                    changed = true;
+                }
+            }
+        } while (changed);
+        return true;
+    }
+
+    private static final class CageBounds {
+        private final SolvingContext context;
+        private final int[] cells;
+        private final long target;
+        private final boolean product;
+        // The positions of the cage squares grouped by row, then by column
+        private final int[][][] partitions;
+        private final int[][] groupOf;
+        // The totals of the groups before and after each group, by partition, as of the start of the pass
+        private final long[][] lowerBefore;
+        private final long[][] upperBefore;
+        private final long[][] lowerAfter;
+        private final long[][] upperAfter;
+        private long lower;
+        private long upper;
+
+        CageBounds(SolvingContext context, int[] cells, int target, boolean product) {
+            this.context = context;
+            this.cells = cells;
+            this.target = target;
+            this.product = product;
+
+            SolvingTopology topology = context.getTopology();
+            int[] rowOf = new int[cells.length];
+            int[] columnOf = new int[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                rowOf[i] = topology.getRowUnitIndex(cells[i]);
+                columnOf[i] = topology.getColumnUnitIndex(cells[i]);
+            }
+            groupOf = new int[][] { new int[cells.length], new int[cells.length] };
+            partitions = new int[][][] { group(rowOf, groupOf[0]), group(columnOf, groupOf[1]) };
+            lowerBefore = new long[partitions.length][];
+            upperBefore = new long[partitions.length][];
+            lowerAfter = new long[partitions.length][];
+            upperAfter = new long[partitions.length][];
+            for (int p = 0; p < partitions.length; p++) {
+                int groupCount = partitions[p].length;
+                lowerBefore[p] = new long[groupCount + 1];
+                upperBefore[p] = new long[groupCount + 1];
+                lowerAfter[p] = new long[groupCount + 1];
+                upperAfter[p] = new long[groupCount + 1];
+            }
+        }
+
+        // Bounds every group on the current domains, and combines them from the first and from the last group.
+        void boundGroups() {
+            for (int p = 0; p < partitions.length; p++) {
+                int[][] groups = partitions[p];
+                long[] groupLower = new long[groups.length];
+                long[] groupUpper = new long[groups.length];
+                lowerBefore[p][0] = identity();
+                upperBefore[p][0] = identity();
+                for (int g = 0; g < groups.length; g++) {
+                    boundGroup(groups[g], -1, 0);
+                    groupLower[g] = lower;
+                    groupUpper[g] = upper;
+                    lowerBefore[p][g + 1] = combine(lowerBefore[p][g], lower);
+                    upperBefore[p][g + 1] = combine(upperBefore[p][g], upper);
+                }
+                lowerAfter[p][groups.length] = identity();
+                upperAfter[p][groups.length] = identity();
+                for (int g = groups.length - 1; g >= 0; g--) {
+                    lowerAfter[p][g] = combine(groupLower[g], lowerAfter[p][g + 1]);
+                    upperAfter[p][g] = combine(groupUpper[g], upperAfter[p][g + 1]);
+                }
+            }
+        }
+
+        // Numbers the groups of equal keys in order of first appearance.
+        private static int[][] group(int[] keys, int[] groupOf) {
+            int[] firstOfGroup = new int[keys.length];
+            int[] sizes = new int[keys.length];
+            int groupCount = 0;
+            for (int i = 0; i < keys.length; i++) {
+                int g = 0;
+                while (g < groupCount && keys[firstOfGroup[g]] != keys[i]) {
+                    g++;
+                }
+                if (g == groupCount) {
+                    firstOfGroup[groupCount++] = i;
+                }
+                groupOf[i] = g;
+                sizes[g]++;
+            }
+
+            int[][] groups = new int[groupCount][];
+            for (int g = 0; g < groupCount; g++) {
+                groups[g] = new int[sizes[g]];
+                sizes[g] = 0;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                groups[groupOf[i]][sizes[groupOf[i]]++] = i;
+            }
+            return groups;
+        }
+
+        int impossibleValues(int position) {
+            int domain = context.getDomain(cells[position]);
+            int impossible = 0;
+            for (int rest = domain; rest != 0; rest &= rest - 1) {
+                int value = BitmaskHelpers.lowest(rest);
+                if (product && target % value != 0) {
+                    impossible |= BitmaskHelpers.of(value);
+                    continue;
+                }
+
+                long othersLower = 0;
+                long othersUpper = Long.MAX_VALUE;
+                for (int p = 0; p < partitions.length; p++) {
+                    boundOthers(p, position, value);
+                    othersLower = Math.max(othersLower, lower);
+                    othersUpper = Math.min(othersUpper, upper);
+                }
+                if (combine(value, othersLower) > target || combine(value, othersUpper) < target) {
+                    impossible |= BitmaskHelpers.of(value);
+                }
+            }
+            return impossible;
+        }
+
+        // Bounds the total of the squares other than the given one, grouped by the given partition. Only the
+        // group of the square is bounded again: the squares sharing its row (or column) cannot take its value.
+        private void boundOthers(int partition, int position, int value) {
+            int ownGroup = groupOf[partition][position];
+            boundGroup(partitions[partition][ownGroup], position, BitmaskHelpers.of(value));
+            lower = combine(combine(lowerBefore[partition][ownGroup], lowerAfter[partition][ownGroup + 1]), lower);
+            upper = combine(combine(upperBefore[partition][ownGroup], upperAfter[partition][ownGroup + 1]), upper);
+        }
+
+        // Bounds the total of a group of squares taking distinct values, skipping a position and some values.
+        private void boundGroup(int[] group, int skippedPosition, int excludedValues) {
+            long simpleLower = identity();
+            long simpleUpper = identity();
+            int union = 0;
+            int count = 0;
+            for (int position : group) {
+                if (position == skippedPosition) {
+                    continue;
+                }
+                int domain = context.getDomain(cells[position]) & ~excludedValues;
+                if (domain == 0) {
+                    setInfeasible();
+                    return;
+                }
+                simpleLower = combine(simpleLower, BitmaskHelpers.lowest(domain));
+                simpleUpper = combine(simpleUpper, BitmaskHelpers.highest(domain));
+                union |= domain;
+                count++;
+            }
+            if (BitmaskHelpers.count(union) < count) {
+                setInfeasible();
+                return;
+            }
+
+            long distinctLower = identity();
+            int smallest = union;
+            for (int i = 0; i < count; i++) {
+                distinctLower = combine(distinctLower, BitmaskHelpers.lowest(smallest));
+                smallest &= smallest - 1;
+            }
+            long distinctUpper = identity();
+            int largest = union;
+            for (int i = 0; i < count; i++) {
+                int highest = BitmaskHelpers.highest(largest);
+                distinctUpper = combine(distinctUpper, highest);
+                largest = BitmaskHelpers.remove(largest, highest);
+            }
+            lower = Math.max(simpleLower, distinctLower);
+            upper = Math.min(simpleUpper, distinctUpper);
+        }
+
+        // No value fits, so no value of the checked square can reach the target.
+        private void setInfeasible() {
+            lower = target + 1;
+            upper = 0;
+        }
+
+        private long identity() {
+            return product ? 1 : 0;
+        }
+
+        // Totals are capped just above the target, which is all the comparisons need, so products cannot overflow.
+        private long combine(long total, long operand) {
+            long combined = product ? total * operand : total + operand;
+            return Math.min(combined, target + 1);
+        }
+    }
+}
@@ -1,36 +1,69 @@
 package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
 
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
-import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.CageCombinations;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.CageFeasibilityCache;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolverStatistics;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.CollectionHelpers;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.KenkenHelpers;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
 
-public class CageConsistencyConstraint implements KenkenEliminatingConstraint {
-    // Make sure that there is some assignment that satisfies the cage for square s,
+public class CageConsistencyConstraint implements KenkenCageConstraint {
+    private final int maxEnumeratedCageSize;
+
+    public CageConsistencyConstraint() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEnumeratedCageSize the size above which the cages supported by {@link CageBoundsConstraint}
+     * are not enumerated, since their tables grow too large. That constraint must then run with this one.
+     */
+    public CageConsistencyConstraint(int maxEnumeratedCageSize) {
+        this.maxEnumeratedCageSize = maxEnumeratedCageSize;
+    }
+
+    // Make sure that there is some assignment that satisfies the cage,
     // and eliminate the values that are impossible.
     @Override
-    public boolean test(SolvingContext context, Square square, int eliminatedValue) {
-        Cage cage = context.getCage(square);
-        Map<Square, Set<Integer>> possible = KenkenHelpers.possibleCageValues(
-                context.getSquareValuesMap(),
-                cage
-        );
-        if (CollectionHelpers.isNullOrEmpty(possible)) {
+    public boolean testCage(SolvingContext context, int cageIndex) {
+        SolvingTopology topology = context.getTopology();
+        Cage cage = topology.getCage(cageIndex);
+        if (cage.size() > maxEnumeratedCageSize && CageBoundsConstraint.supports(cage)) {
+            return true;
+        }
+        int[] cells = topology.getCageCells(cageIndex);
+        int[] domains = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            domains[i] = context.getDomain(cells[i]);
+        }
+
+        // The same domains come back on sibling branches, so the tuples are only matched on a cache miss
+        CageFeasibilityCache cache = context.getCageCache();
+        SolverStatistics statistics = context.getStatistics();
+        int[] possible = cache.get(cageIndex, domains);
+        if (statistics != null) {
+            statistics.countCageCacheLookup(possible != null);
+        }
+        if (possible == null) {
+            CageCombinations combinations = CageCombinations.of(cage, topology.getSize());
+            possible = combinations.possibleValues(domains);
+            cache.put(cageIndex, domains, possible);
+            if (statistics != null) {
+                statistics.addCageTupleEvaluations(combinations.getTupleCount());
+            }
+        }
+        if (possible[0] == 0) {
             return false;
         }
-        return cage
-                .getSquares()
-                .stream()
-                .allMatch(sqr -> {
-                    Set<Integer> possibleValues = Objects.requireNonNull(possible.get(sqr));
-                    return CollectionHelpers
-                            .filter(context.getValues(sqr), v -> !possibleValues.contains(v))
-                            .stream()
-                            .allMatch(v -> context.eliminate(sqr, v));
-                });
+        for (int i = 0; i < cells.length; i++) {
+            int impossible = context.getDomain(cells[i]) & ~possible[i];
+            for (int rest = impossible; rest != 0; rest &= rest - 1) {
+                if (!context.eliminate(cells[i], BitmaskHelpers.lowest(rest))) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 }
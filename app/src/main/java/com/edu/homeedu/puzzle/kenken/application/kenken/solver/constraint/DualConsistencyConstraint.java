@@ -1,34 +1,30 @@
 package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
 
-import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
-import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Unit;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 public class DualConsistencyConstraint implements KenkenEliminatingConstraint {
     @Override
-    public boolean test(SolvingContext context, Square square, int eliminatedValue) {
-        return placeForValue(context, context.getRowUnit(square), eliminatedValue) 
-            && placeForValue(context, context.getColumnUnit(square), eliminatedValue);
+    public boolean test(SolvingContext context, int cell, int eliminatedValue) {
+        return placeForValue(context, context.getRowCells(cell), eliminatedValue)
+            && placeForValue(context, context.getColumnCells(cell), eliminatedValue);
     }
     
     // If a unit u is reduced to only one place for a value v, then put it there.
-    private boolean placeForValue(SolvingContext context, Unit unit, int eliminatedValue) {
-        List<Square> places = unit
-                .getSquares()
-                .stream()
-                .filter(sqr -> context.getValues(sqr).contains(eliminatedValue))
-                .collect(Collectors.toList());
-        if (places.isEmpty()) {
-            return false;
+    private boolean placeForValue(SolvingContext context, int[] unit, int eliminatedValue) {
+        int singlePlace = -1;
+        for (int place : unit) {
+            if (context.contains(place, eliminatedValue)) {
+                if (singlePlace >= 0) {
+                    return true;
+                }
+                singlePlace = place;
+            }
         }
-        else if (places.size() > 1) {
-            return true;
+        if (singlePlace < 0) {
+            return false;
         }
-        
-        Square singlePlace = places.get(0);
+
+        context.explainBy(unit);
         SolvingContext filledContext = context.fill(singlePlace, eliminatedValue);
         return !filledContext.isEmpty();
     }
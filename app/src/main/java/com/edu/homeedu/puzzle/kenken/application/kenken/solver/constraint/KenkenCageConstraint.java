@@ -0,0 +1,16 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+
+/**
+ * Constraint on the values of a whole cage. It does not depend on which value was removed,
+ * so the solver runs it once per changed cage and propagation wave instead of once per removal.
+ */
+public interface KenkenCageConstraint extends KenkenEliminatingConstraint {
+    boolean testCage(SolvingContext context, int cageIndex);
+
+    @Override
+    default boolean test(SolvingContext context, int cell, int eliminatedValue) {
+        return testCage(context, context.getTopology().getCageIndex(cell));
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+
+/**
+ * Constraint on the values of a whole row or column, addressed by its unit index in the {@link SolvingTopology}.
+ * The solver runs it once per changed unit and propagation wave instead of once per removal.
+ */
+public interface KenkenUnitConstraint extends KenkenEliminatingConstraint {
+    boolean testUnit(SolvingContext context, int unitIndex);
+
+    @Override
+    default boolean test(SolvingContext context, int cell, int eliminatedValue) {
+        SolvingTopology topology = context.getTopology();
+        return testUnit(context, topology.getRowUnitIndex(cell))
+            && testUnit(context, topology.getColumnUnitIndex(cell));
+    }
+}
@@ -0,0 +1,148 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Multiplication;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+import java.util.Arrays;
+
+/**
+ * Prime exponent reasoning on multiplication cages, without enumerating their tuples.
+ * <p>
+ * The exponent of every prime in the target is the sum of its exponents in the values of the cage.
+ * Every other square of the cage contributes at least the smallest and at most the largest exponent among
+ * its values, so a value is kept only if, for every prime, its exponent plus the smallest contributions of
+ * the other squares stays within the budget of the target, and its exponent plus their largest
+ * contributions reaches it. Values with a prime the target does not have are removed on the way.
+ * <p>
+ * Values go up to {@link BitmaskHelpers#MAX_VALUE}, so the primes up to it are enough, whatever the grid size.
+ * Cages with other operators are left to the other cage constraints.
+ */
+public class PrimeFactorConstraint implements KenkenCageConstraint {
+    private static final int[] PRIMES = { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31 };
+    // The exponents of every prime in every value that fits in a mask
+    private static final int[][] EXPONENTS = new int[BitmaskHelpers.MAX_VALUE + 1][PRIMES.length];
+
+    static {
+        for (int value = 1; value <= BitmaskHelpers.MAX_VALUE; value++) {
+            int rest = value;
+            for (int p = 0; p < PRIMES.length; p++) {
+                while (rest % PRIMES[p] == 0) {
+                    EXPONENTS[value][p]++;
+                    rest /= PRIMES[p];
+                }
+            }
+        }
+    }
+
+    // Removing a value changes the contributions of its square, so the cage is checked again until
+    // nothing is removed.
+    @Override
+    public boolean testCage(SolvingContext context, int cageIndex) {
+        SolvingTopology topology = context.getTopology();
+        Cage cage = topology.getCage(cageIndex);
+        if (!(cage.getOperator() instanceof Multiplication)) {
+            return true;
+        }
+
+        int[] budget = factorize(cage.getTarget());
+        if (budget == null) {
+            return false; // The target has a prime factor no value has
+        }
+
+        int[] cells = topology.getCageCells(cageIndex);
+        int[][] minExponents = new int[cells.length][PRIMES.length];
+        int[][] maxExponents = new int[cells.length][PRIMES.length];
+        int[] minTotals = new int[PRIMES.length];
+        int[] maxTotals = new int[PRIMES.length];
+        boolean changed;
+        do {
+            changed = false;
+            if (!contributions(context, cells, minExponents, maxExponents, minTotals, maxTotals)) {
+                return false;
+            }
+            for (int i = 0; i < cells.length; i++) {
+                int domain = context.getDomain(cells[i]);
+                for (int rest = domain; rest != 0; rest &= rest - 1) {
+                    int value = BitmaskHelpers.lowest(rest);
+                    if (fits(EXPONENTS[value], budget, minExponents[i], maxExponents[i], minTotals, maxTotals)) {
+                        continue;
+                    }
+                    if (!context.eliminate(cells[i], value)) {
+                        return false;
+                    }
+                    changed = true;
+                }
+            }
+        } while (changed);
+        return true;
+    }
+
+    // The exponents of the target, or null if it has a prime factor larger than any value.
+    private static int[] factorize(int target) {
+        if (target <= 0) {
+            return null;
+        }
+
+        int[] exponents = new int[PRIMES.length];
+        int rest = target;
+        for (int p = 0; p < PRIMES.length; p++) {
+            while (rest % PRIMES[p] == 0) {
+                exponents[p]++;
+                rest /= PRIMES[p];
+            }
+        }
+        return rest == 1 ? exponents : null;
+    }
+
+    // Collects the smallest and largest exponents of every square and their totals; false if a square is empty.
+    private static boolean contributions(
+            SolvingContext context,
+            int[] cells,
+            int[][] minExponents,
+            int[][] maxExponents,
+            int[] minTotals,
+            int[] maxTotals) {
+        Arrays.fill(minTotals, 0);
+        Arrays.fill(maxTotals, 0);
+        for (int i = 0; i < cells.length; i++) {
+            int domain = context.getDomain(cells[i]);
+            if (domain == 0) {
+                return false;
+            }
+            Arrays.fill(minExponents[i], Integer.MAX_VALUE);
+            Arrays.fill(maxExponents[i], 0);
+            for (int rest = domain; rest != 0; rest &= rest - 1) {
+                int[] exponents = EXPONENTS[BitmaskHelpers.lowest(rest)];
+                for (int p = 0; p < PRIMES.length; p++) {
+                    minExponents[i][p] = Math.min(minExponents[i][p], exponents[p]);
+                    maxExponents[i][p] = Math.max(maxExponents[i][p], exponents[p]);
+                }
+            }
+            for (int p = 0; p < PRIMES.length; p++) {
+                minTotals[p] += minExponents[i][p];
+                maxTotals[p] += maxExponents[i][p];
+            }
+        }
+        return true;
+    }
+
+    private static boolean fits(
+            int[] exponents,
+            int[] budget,
+            int[] ownMin,
+            int[] ownMax,
+            int[] minTotals,
+            int[] maxTotals) {
+        for (int p = 0; p < PRIMES.length; p++) {
+            int othersMin = minTotals[p] - ownMin[p];
+            int othersMax = maxTotals[p] - ownMax[p];
+            if (exponents[p] + othersMin > budget[p] || exponents[p] + othersMax < budget[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Naked and hidden subsets of a row or column, from singles up to a maximum size (quads by default).
+ * <p>
+ * A naked subset is a set of k unfilled squares of a unit whose domains hold only k values between them:
+ * those values go to those squares, so they are removed from the other squares of the unit.
+ * A hidden subset is a set of k values that only k unfilled squares of a unit can take: those squares
+ * take those values, so their other values are removed.
+ * <p>
+ * Squares and values are both handled as bitmasks, the squares by their position in the unit, so a subset
+ * is checked with a few ORs and a bit count. This finds less than {@link AllDifferentConsistencyConstraint}
+ * but costs no graph, which makes it a lighter choice for slow devices.
+ */
+public class SubsetConsistencyConstraint implements KenkenUnitConstraint {
+    public static final int DEFAULT_MAX_SUBSET_SIZE = 4;
+
+    private static final int FAILED = -1;
+    private static final int UNCHANGED = 0;
+    private static final int CHANGED = 1;
+
+    private final int maxSubsetSize;
+
+    public SubsetConsistencyConstraint() {
+        this(DEFAULT_MAX_SUBSET_SIZE);
+    }
+
+    /**
+     * @param maxSubsetSize the size of the largest subsets to look for.
+     */
+    public SubsetConsistencyConstraint(int maxSubsetSize) {
+        this.maxSubsetSize = maxSubsetSize;
+    }
+
+    // Every subset found changes the domains the next ones are looked for in, so the unit is scanned
+    // again after each of them.
+    @Override
+    public boolean testUnit(SolvingContext context, int unitIndex) {
+        int[] cells = context.getTopology().getUnitCells(unitIndex);
+        int result;
+        do {
+            result = new UnitSubsets(context, cells).reduce();
+        } while (result == CHANGED);
+        return result != FAILED;
+    }
+
+    // The unfilled squares of a unit, numbered by their position among the unfilled squares.
+    private final class UnitSubsets {
+        private final SolvingContext context;
+        private final int[] cells;
+        private final int[] openCells;
+        private final int[] filledCells;
+        private final int[] domains;
+        private final int[] placesOf;
+        private final int[] openValues;
+        private int openCount;
+        private int filledCount;
+
+        UnitSubsets(SolvingContext context, int[] cells) {
+            this.context = context;
+            this.cells = cells;
+            this.openCells = new int[cells.length];
+            this.filledCells = new int[cells.length];
+            this.domains = new int[cells.length];
+            this.placesOf = new int[BitmaskHelpers.MAX_VALUE + 1];
+
+            int filledValues = 0;
+            for (int cell : cells) {
+                if (context.isSingle(cell)) {
+                    filledValues |= context.getDomain(cell);
+                    filledCells[filledCount++] = cell;
+                }
+            }
+            int valuesLeft = 0;
+            for (int cell : cells) {
+                if (!context.isSingle(cell)) {
+                    // The values of the filled squares are about to be removed from their peers anyway
+                    int domain = context.getDomain(cell) & ~filledValues;
+                    for (int rest = domain; rest != 0; rest &= rest - 1) {
+                        placesOf[BitmaskHelpers.lowest(rest)] |= 1 << openCount;
+                    }
+                    openCells[openCount] = cell;
+                    domains[openCount] = domain;
+                    valuesLeft |= domain;
+                    openCount++;
+                }
+            }
+            openValues = BitmaskHelpers.toArray(valuesLeft);
+        }
+
+        int reduce() {
+            if (openValues.length < openCount) {
+                return FAILED; // Some square is left without a value
+            }
+
+            int maxSize = Math.min(maxSubsetSize, openCount - 1);
+            for (int size = 1; size <= maxSize; size++) {
+                int result = findNaked(size, 0, 0, 0, 0);
+                if (result == UNCHANGED) {
+                    result = findHidden(size, 0, 0, 0, 0);
+                }
+                if (result != UNCHANGED) {
+                    return result;
+                }
+            }
+            return UNCHANGED;
+        }
+
+        // Adds squares from the given position on to the chosen ones, as long as they share at most size values.
+        private int findNaked(int size, int from, int chosen, int chosenPlaces, int values) {
+            if (chosen == size) {
+                int valueCount = BitmaskHelpers.count(values);
+                if (valueCount < size) {
+                    return FAILED;
+                }
+                return valueCount == size ? removeNaked(chosenPlaces, values) : UNCHANGED;
+            }
+
+            for (int place = from; place <= openCount - (size - chosen); place++) {
+                int union = values | domains[place];
+                if (BitmaskHelpers.count(union) <= size) {
+                    int result = findNaked(size, place + 1, chosen + 1, chosenPlaces | 1 << place, union);
+                    if (result != UNCHANGED) {
+                        return result;
+                    }
+                }
+            }
+            return UNCHANGED;
+        }
+
+        // Adds values from the given index on to the chosen ones, as long as they fit in at most size squares.
+        private int findHidden(int size, int from, int chosen, int values, int places) {
+            if (chosen == size) {
+                int placeCount = BitmaskHelpers.count(places);
+                if (placeCount < size) {
+                    return FAILED;
+                }
+                return placeCount == size ? removeHidden(places, values) : UNCHANGED;
+            }
+
+            for (int i = from; i <= openValues.length - (size - chosen); i++) {
+                int value = openValues[i];
+                int union = places | placesOf[value];
+                if (BitmaskHelpers.count(union) <= size) {
+                    int result = findHidden(size, i + 1, chosen + 1, values | BitmaskHelpers.of(value), union);
+                    if (result != UNCHANGED) {
+                        return result;
+                    }
+                }
+            }
+            return UNCHANGED;
+        }
+
+        // The values of the subset go to its squares, so the other squares cannot take them.
+        private int removeNaked(int subsetPlaces, int subsetValues) {
+            boolean explained = false;
+            for (int place = 0; place < openCount; place++) {
+                int removedValues = context.getDomain(openCells[place]) & subsetValues;
+                if ((subsetPlaces & 1 << place) != 0 || removedValues == 0) {
+                    continue;
+                }
+                if (!explained) {
+                    context.explainBy(reasonCells(subsetPlaces));
+                    explained = true;
+                }
+                if (!eliminateAll(openCells[place], removedValues)) {
+                    return FAILED;
+                }
+            }
+            return explained ? CHANGED : UNCHANGED;
+        }
+
+        // The squares of the subset take its values, so they cannot take any other.
+        private int removeHidden(int subsetPlaces, int subsetValues) {
+            boolean explained = false;
+            for (int rest = subsetPlaces; rest != 0; rest &= rest - 1) {
+                int cell = openCells[BitmaskHelpers.lowest(rest)];
+                int removedValues = context.getDomain(cell) & ~subsetValues;
+                if (removedValues == 0) {
+                    continue;
+                }
+                if (!explained) {
+                    context.explainBy(cells); // The other squares of the unit have no place for the values
+                    explained = true;
+                }
+                if (!eliminateAll(cell, removedValues)) {
+                    return FAILED;
+                }
+            }
+            return explained ? CHANGED : UNCHANGED;
+        }
+
+        private boolean eliminateAll(int cell, int values) {
+            for (int rest = values; rest != 0; rest &= rest - 1) {
+                if (!context.eliminate(cell, BitmaskHelpers.lowest(rest))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // The squares of the subset, and the filled squares whose values were left out of their domains.
+        private int[] reasonCells(int places) {
+            int[] reasonCells = new int[BitmaskHelpers.count(places) + filledCount];
+            int i = 0;
+            for (int rest = places; rest != 0; rest &= rest - 1) {
+                reasonCells[i++] = openCells[BitmaskHelpers.lowest(rest)];
+            }
+            System.arraycopy(filledCells, 0, reasonCells, i, filledCount);
+            return reasonCells;
+        }
+    }
+}
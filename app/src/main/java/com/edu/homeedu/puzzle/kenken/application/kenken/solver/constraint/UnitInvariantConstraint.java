@@ -0,0 +1,176 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Addition;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.Multiplication;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Sum and product invariants of a row or column.
+ * <p>
+ * Every row (or column) holds each value once, so its values always add up to {@code n(n+1)/2} and
+ * multiply to {@code n!}. The addition (or multiplication) cages lying wholly in the unit and the filled
+ * squares account for part of it, and the other squares must make up the rest. A value of one of them is
+ * kept only if the rest, less that value, is between the smallest and the largest total the other squares
+ * can still reach with distinct values. With a single square left, this gives its value outright.
+ * <p>
+ * {@code n!} does not fit a {@code long} past {@value #MAX_PRODUCT_SIZE}, so larger grids only use the sum.
+ */
+public class UnitInvariantConstraint implements KenkenUnitConstraint {
+    public static final int MAX_PRODUCT_SIZE = 20;
+
+    private static final int FAILED = -1;
+    private static final int UNCHANGED = 0;
+    private static final int CHANGED = 1;
+
+    // Removing a value changes the totals the other squares can reach, so the unit is checked again until
+    // nothing is removed.
+    @Override
+    public boolean testUnit(SolvingContext context, int unitIndex) {
+        int size = context.getTopology().getSize();
+        boolean changed;
+        do {
+            int sumResult = reduce(context, unitIndex, false);
+            int productResult = size <= MAX_PRODUCT_SIZE ? reduce(context, unitIndex, true) : UNCHANGED;
+            if (sumResult == FAILED || productResult == FAILED) {
+                return false;
+            }
+            changed = sumResult == CHANGED || productResult == CHANGED;
+        } while (changed);
+        return true;
+    }
+
+    private static int reduce(SolvingContext context, int unitIndex, boolean product) {
+        SolvingTopology topology = context.getTopology();
+        int[] cells = topology.getUnitCells(unitIndex);
+        long total = total(topology.getSize(), product);
+        long known = product ? 1 : 0;
+        int[] restCells = new int[cells.length];
+        int restCount = 0;
+        boolean[] countedCages = new boolean[topology.getCageCount()];
+        for (int cell : cells) {
+            int cageIndex = topology.getCageIndex(cell);
+            if (isInsideUnit(topology, cageIndex, unitIndex, product)) {
+                if (!countedCages[cageIndex]) {
+                    countedCages[cageIndex] = true;
+                    known = combine(known, topology.getCage(cageIndex).getTarget(), product, total + 1);
+                }
+            }
+            else if (context.isSingle(cell)) {
+                known = combine(known, BitmaskHelpers.lowest(context.getDomain(cell)), product, total + 1);
+            }
+            else {
+                restCells[restCount++] = cell;
+            }
+        }
+
+        if (product ? total % known != 0 : known > total) {
+            return FAILED;
+        }
+        long remaining = product ? total / known : total - known;
+        if (restCount == 0) {
+            return remaining == (product ? 1 : 0) ? UNCHANGED : FAILED;
+        }
+
+        boolean explained = false;
+        for (int i = 0; i < restCount; i++) {
+            int impossible = impossibleValues(context, restCells, restCount, i, remaining, product);
+            if (impossible == 0) {
+                continue;
+            }
+            if (!explained) {
+                context.explainBy(cells);
+                explained = true;
+            }
+            for (int rest = impossible; rest != 0; rest &= rest - 1) {
+                if (!context.eliminate(restCells[i], BitmaskHelpers.lowest(rest))) {
+                    return FAILED;
+                }
+            }
+        }
+        return explained ? CHANGED : UNCHANGED;
+    }
+
+    private static int impossibleValues(
+            SolvingContext context,
+            int[] restCells,
+            int restCount,
+            int position,
+            long remaining,
+            boolean product) {
+        int othersUnion = 0;
+        for (int i = 0; i < restCount; i++) {
+            if (i != position) {
+                othersUnion |= context.getDomain(restCells[i]);
+            }
+        }
+
+        int othersCount = restCount - 1;
+        int impossible = 0;
+        int domain = context.getDomain(restCells[position]);
+        for (int rest = domain; rest != 0; rest &= rest - 1) {
+            int value = BitmaskHelpers.lowest(rest);
+            if (product && remaining % value != 0) {
+                impossible |= BitmaskHelpers.of(value);
+                continue;
+            }
+            long othersTarget = product ? remaining / value : remaining - value;
+            int othersValues = BitmaskHelpers.remove(othersUnion, value);
+            if (BitmaskHelpers.count(othersValues) < othersCount) {
+                impossible |= BitmaskHelpers.of(value);
+                continue;
+            }
+
+            // The other squares take distinct values, so they reach at least their smallest values
+            // and at most their largest ones
+            long lower = product ? 1 : 0;
+            int smallest = othersValues;
+            for (int i = 0; i < othersCount; i++) {
+                lower = combine(lower, BitmaskHelpers.lowest(smallest), product, othersTarget + 1);
+                smallest &= smallest - 1;
+            }
+            long upper = product ? 1 : 0;
+            int largest = othersValues;
+            for (int i = 0; i < othersCount; i++) {
+                int highest = BitmaskHelpers.highest(largest);
+                upper = combine(upper, highest, product, othersTarget + 1);
+                largest = BitmaskHelpers.remove(largest, highest);
+            }
+            if (othersTarget < lower || othersTarget > upper) {
+                impossible |= BitmaskHelpers.of(value);
+            }
+        }
+        return impossible;
+    }
+
+    private static boolean isInsideUnit(SolvingTopology topology, int cageIndex, int unitIndex, boolean product) {
+        Cage cage = topology.getCage(cageIndex);
+        if (!(product ? cage.getOperator() instanceof Multiplication : cage.getOperator() instanceof Addition)) {
+            return false;
+        }
+        for (int cell : topology.getCageCells(cageIndex)) {
+            if (topology.getRowUnitIndex(cell) != unitIndex && topology.getColumnUnitIndex(cell) != unitIndex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long total(int size, boolean product) {
+        long total = product ? 1 : 0;
+        for (int value = 1; value <= size; value++) {
+            total = product ? total * value : total + value;
+        }
+        return total;
+    }
+
+    // Totals are capped at the given value, which is all the comparisons need, so products cannot overflow.
+    private static long combine(long total, long operand, boolean product, long cap) {
+        if (product) {
+            return total > cap / operand ? cap : Math.min(total * operand, cap);
+        }
+        return Math.min(total + operand, cap);
+    }
+}
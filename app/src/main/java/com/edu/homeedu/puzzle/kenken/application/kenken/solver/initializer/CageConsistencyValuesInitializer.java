@@ -1,8 +1,11 @@
 package com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer;
 
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.KenkenHelpers;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.CageCombinations;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageBoundsConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
 
 import java.util.Collections;
 import java.util.Map;
@@ -11,6 +14,20 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 public class CageConsistencyValuesInitializer implements KenkenValuesInitializer {
+    private final int maxEnumeratedCageSize;
+
+    public CageConsistencyValuesInitializer() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEnumeratedCageSize the size above which the cages supported by {@link CageBoundsConstraint}
+     * are left to the solver, as with {@link CageConsistencyConstraint#CageConsistencyConstraint(int)}.
+     */
+    public CageConsistencyValuesInitializer(int maxEnumeratedCageSize) {
+        this.maxEnumeratedCageSize = maxEnumeratedCageSize;
+    }
+
     @Override
     public Map<Square, Set<Integer>> initialValues(KenkenGame kenken, Map<Square, Set<Integer>> given) {
         Map<Square, Set<Integer>> supplied = given != null ? given : Collections.emptyMap();
@@ -18,10 +35,17 @@ public class CageConsistencyValuesInitializer implements KenkenValuesInitializer
                 .getSquares()
                 .stream()
                 .collect(Collectors.toMap(sqr -> sqr, sqr -> valuesForSquare(sqr, kenken, supplied)));
-        kenken.getCages().forEach(cage -> values.putAll(KenkenHelpers.possibleCageValues(values, cage)));
+        kenken.getCages().forEach(cage -> restrictToCage(values, cage, kenken.getSize()));
         return values;
     }
 
+    private void restrictToCage(Map<Square, Set<Integer>> values, Cage cage, int gridSize) {
+        if (cage.size() > maxEnumeratedCageSize && CageBoundsConstraint.supports(cage)) {
+            return;
+        }
+        values.putAll(CageCombinations.of(cage, gridSize).possibleValues(cage, values));
+    }
+
     private Set<Integer> valuesForSquare(Square square, KenkenGame kenken, Map<Square, Set<Integer>> supplied) {
         Set<Integer> suppliedValues =
                 Objects.requireNonNull(
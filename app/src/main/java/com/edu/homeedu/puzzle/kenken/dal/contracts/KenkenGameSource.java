@@ -0,0 +1,13 @@
+package com.edu.homeedu.puzzle.kenken.dal.contracts;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+
+/**
+ * Supplier of the games a pool of ready games is filled with.
+ */
+public interface KenkenGameSource {
+    /**
+     * @return a game of the size, or null if the source has none.
+     */
+    KenkenGame next(int size);
+}
@@ -1,10 +1,47 @@
 package com.edu.homeedu.puzzle.kenken.dal.contracts;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater.DifficultyRating;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
 import com.edu.homeedu.puzzle.kenken.models.Kenken;
 
 public interface KenkenRepository {
     List<Kenken> findAll();
     Kenken findOneById(int id);
+
+    /**
+     * @return the ids of the games of {@link #findAll()}, in the same order, read without the games
+     * when the store can.
+     */
+    default List<Integer> findAllIds() {
+        return findAll().stream().map(Kenken::id).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the rating stored with the game, read without the game when the store can, or null if
+     * there is no such game or it has no rating.
+     */
+    default DifficultyRating findRatingById(int id) {
+        Kenken kenken = findOneById(id);
+        return kenken != null ? kenken.rating() : null;
+    }
+
+    /**
+     * Takes a game of the size and difficulty that is ready to play, without waiting for one.
+     * The game can be found by its id from then on.
+     *
+     * @return the game, or null if none is ready.
+     */
+    default Kenken takeNewGame(int size, Difficulty difficulty) {
+        return null;
+    }
+
+    /**
+     * Starts getting games of the size and difficulty ready in the background, so that a later take
+     * finds one. Does nothing when no game is ever ready.
+     */
+    default void prepareNewGames(int size, Difficulty difficulty) {
+    }
 }
@@ -0,0 +1,17 @@
+package com.edu.homeedu.puzzle.kenken.dal.datasource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Thrown when a puzzle of a pack is found corrupted while it is decoded. The puzzles are decoded when
+ * they are fetched, after the pack was opened, so the error is unchecked; the header and the index are
+ * checked when the pack is opened, with an {@link IOException}.
+ */
+public class CorruptedKenkenPackException extends UncheckedIOException {
+    private static final long serialVersionUID = 1L;
+
+    public CorruptedKenkenPackException(String message) {
+        super(message, new IOException(message));
+    }
+}
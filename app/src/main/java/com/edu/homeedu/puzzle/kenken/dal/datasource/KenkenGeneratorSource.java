@@ -0,0 +1,25 @@
+package com.edu.homeedu.puzzle.kenken.dal.datasource;
+
+import java.util.Random;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.generator.KenkenGenerator;
+import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenGameSource;
+
+/**
+ * {@link KenkenGameSource} that synthesizes a new random game every time.
+ */
+public class KenkenGeneratorSource implements KenkenGameSource {
+    private final KenkenGenerator generator;
+    private final Random random;
+
+    public KenkenGeneratorSource(KenkenGenerator generator, long seed) {
+        this.generator = generator;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public KenkenGame next(int size) {
+        return generator.generate(size, random);
+    }
+}
@@ -0,0 +1,187 @@
+package com.edu.homeedu.puzzle.kenken.dal.datasource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater.DifficultyRating;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+
+/**
+ * Puzzles of a pack file in the {@link KenkenPackFormat}, decoded one at a time by id.
+ * <p>
+ * The file is mapped into memory rather than read, so opening a pack only checks its header and its
+ * index, and the pages of a puzzle are only loaded when it is decoded. The last {@value #CACHE_SIZE} puzzles
+ * decoded are kept, so that fetching the same id again returns the same game. The ratings of a pack that has
+ * them are read from its index, so a catalog is sorted by difficulty without decoding any puzzle.
+ */
+public class KenkenPackDataSource {
+    public static final int CACHE_SIZE = 64;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int ratingsStart;
+    private final int dataStart;
+    private final boolean hasSolutions;
+    private final boolean hasRatings;
+    private final Map<Integer, Kenken> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Kenken> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public KenkenPackDataSource(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Pack too large to map: " + path);
+            }
+            // The mapping stays valid once the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < KenkenPackFormat.HEADER_SIZE || buffer.getInt(0) != KenkenPackFormat.MAGIC) {
+            throw new IOException("Not a kenken pack: " + path);
+        }
+        short version = buffer.getShort(4);
+        if (version < 1 || version > KenkenPackFormat.VERSION) {
+            throw new IOException("Unsupported kenken pack version " + version + ": " + path);
+        }
+        hasSolutions = (buffer.getShort(6) & KenkenPackFormat.FLAG_SOLUTIONS) != 0;
+        hasRatings = version > 1 && (buffer.getShort(6) & KenkenPackFormat.FLAG_RATINGS) != 0;
+        count = buffer.getInt(8);
+        if (count < 0 || count >= (buffer.limit() - KenkenPackFormat.HEADER_SIZE) / Integer.BYTES) {
+            throw new IOException("Truncated kenken pack: " + path);
+        }
+        ratingsStart = KenkenPackFormat.HEADER_SIZE + (count + 1) * Integer.BYTES;
+        long ratingsSize = hasRatings ? (long) count * KenkenPackFormat.RATING_SIZE : 0;
+        if (ratingsSize > buffer.limit() - ratingsStart) {
+            throw new IOException("Truncated kenken pack: " + path);
+        }
+        dataStart = ratingsStart + (int) ratingsSize;
+        if (getOffset(count) > buffer.limit() - dataStart) {
+            throw new IOException("Truncated kenken pack: " + path);
+        }
+        // The offsets start at 0 and grow by a puzzle header at least up to the end of the data,
+        // so decoding a puzzle never reads out of the file
+        if (getOffset(0) != 0) {
+            throw new IOException("Corrupted kenken pack index: " + path);
+        }
+        for (int index = 0; index < count; index++) {
+            if ((long) getOffset(index + 1) - getOffset(index) < KenkenPackFormat.PUZZLE_HEADER_SIZE) {
+                throw new IOException("Corrupted kenken pack index at puzzle " + (index + 1) + ": " + path);
+            }
+            if (hasRatings && getRating(index) == null) {
+                throw new IOException("Corrupted kenken pack rating at puzzle " + (index + 1) + ": " + path);
+            }
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean hasSolutions() {
+        return hasSolutions;
+    }
+
+    public boolean hasRatings() {
+        return hasRatings;
+    }
+
+    /**
+     * @return the ids of every puzzle of the pack, in the order of {@link #fetchAll()}.
+     */
+    public List<Integer> fetchAllIds() {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return index + 1;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * @return the rating of the puzzle of the id, read without decoding the puzzle, or null if the pack
+     * has no ratings or no such puzzle.
+     */
+    public DifficultyRating fetchRatingById(int id) {
+        if (!hasRatings || id < 1 || id > count) {
+            return null;
+        }
+        return getRating(id - 1);
+    }
+
+    /**
+     * @return every puzzle of the pack, each one decoded when it is got from the list.
+     */
+    public List<Kenken> fetchAll() {
+        return new AbstractList<>() {
+            @Override
+            public Kenken get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return fetchById(index + 1);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * @return the puzzle of the id, or null if the pack has none.
+     * @throws CorruptedKenkenPackException if the puzzle is corrupted.
+     */
+    public Kenken fetchById(int id) {
+        if (id < 1 || id > count) {
+            return null;
+        }
+        synchronized (cache) {
+            Kenken kenken = cache.get(id);
+            if (kenken != null) {
+                return kenken;
+            }
+        }
+
+        Kenken kenken = KenkenPackFormat.decode(buffer, dataStart + getOffset(id - 1), dataStart + getOffset(id),
+                id, hasSolutions, fetchRatingById(id));
+        synchronized (cache) {
+            // Another thread may have decoded it meanwhile, the first one decoded is kept
+            Kenken cached = cache.putIfAbsent(id, kenken);
+            return cached != null ? cached : kenken;
+        }
+    }
+
+    private int getOffset(int index) {
+        return buffer.getInt(KenkenPackFormat.HEADER_SIZE + index * Integer.BYTES);
+    }
+
+    // The scores of all puzzles come first, then the levels of their difficulties; null if either is invalid
+    private DifficultyRating getRating(int index) {
+        float score = buffer.getFloat(ratingsStart + index * Float.BYTES);
+        int level = buffer.get(ratingsStart + count * Float.BYTES + index);
+        Difficulty difficulty = KenkenPackFormat.difficultyOfLevel(level);
+        if (!(score >= 0) || Float.isInfinite(score) || difficulty == null) {
+            return null;
+        }
+        return new DifficultyRating(score, difficulty, null, 0, 0, 0);
+    }
+}
@@ -0,0 +1,294 @@
+package com.edu.homeedu.puzzle.kenken.dal.datasource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.operator.OperatorFactory;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater.DifficultyRating;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+/**
+ * Binary format of a puzzle pack, written with {@link #write} and read by {@link KenkenPackDataSource}.
+ * <p>
+ * All numbers are big endian. The pack starts with a header:
+ * <pre>
+ *   int    magic, "KKPK"
+ *   short  version, {@value #VERSION}
+ *   short  flags, {@value #FLAG_SOLUTIONS} if every puzzle has its solution, plus {@value #FLAG_RATINGS}
+ *          if every puzzle has its rating
+ *   int    puzzle count n
+ *   int[n + 1] offsets of the puzzles from the end of the ratings, or of this index if the pack has none,
+ *              the last one being the end of the pack
+ *   float[n]   if the pack has ratings, the difficulty score of every puzzle
+ *   byte[n]    if the pack has ratings, the level of the difficulty of every puzzle
+ * </pre>
+ * The puzzle of id i, from 1 to n, is at offset i - 1, and its rating at index i - 1. Only the score and
+ * the difficulty of a rating are kept, so that a catalog is sorted without decoding its puzzles; a rating
+ * read back has no hardest technique and no search counts. Packs of version 1 have no ratings.
+ * <p>
+ * A puzzle is a few bytes, then a bit stream, most significant bit first, padded to a whole byte:
+ * <pre>
+ *   byte   size of the grid
+ *   short  cage count c
+ *   byte   bits b of the widest target
+ *   bits   the cage of every square, by row then column, in as many bits as c - 1 needs
+ *   bits   the operator of every cage in 3 bits, see {@link #NOTATIONS}, and its target in b bits
+ *   bits   if the pack has solutions, the value minus 1 of every square, in as many bits as size - 1 needs
+ * </pre>
+ * The cages are numbered in the order of their first square. The offsets never decrease, and every puzzle
+ * holds at least its {@value #PUZZLE_HEADER_SIZE} bytes before the bit stream. A generated 6x6 puzzle takes about
+ * 44 bytes, or 57 with its solution, where its text description takes around 150.
+ */
+public final class KenkenPackFormat {
+    public static final int MAGIC = 0x4B4B504B;
+    public static final short VERSION = 2;
+    public static final short FLAG_SOLUTIONS = 1;
+    public static final short FLAG_RATINGS = 2;
+    public static final int HEADER_SIZE = 12;
+    public static final int PUZZLE_HEADER_SIZE = 4;
+    public static final int RATING_SIZE = Float.BYTES + Byte.BYTES;
+    /**
+     * The operators by their code.
+     */
+    static final List<String> NOTATIONS = List.of("+", "-", "x", "÷", "=");
+    static final int OPERATOR_BITS = 3;
+
+    private KenkenPackFormat() {}
+
+    /**
+     * Writes the puzzles as a pack, the first one getting id 1.
+     *
+     * @param withSolutions true to write the solutions too, which every puzzle must then have.
+     * @param withRatings true to write the ratings too, which every puzzle must then have.
+     * @throws IllegalArgumentException if a puzzle has no solution or no rating while it should, or an operator
+     * the format has no code for.
+     */
+    public static void write(OutputStream out, List<Kenken> kenkens, boolean withSolutions, boolean withRatings)
+            throws IOException {
+        ByteArrayOutputStream puzzles = new ByteArrayOutputStream();
+        int[] offsets = new int[kenkens.size() + 1];
+        for (int i = 0; i < kenkens.size(); i++) {
+            Kenken kenken = kenkens.get(i);
+            if (withSolutions && kenken.solution() == null) {
+                throw new IllegalArgumentException("No solution for the puzzle of id " + kenken.id());
+            }
+            if (withRatings && kenken.rating() == null) {
+                throw new IllegalArgumentException("No rating for the puzzle of id " + kenken.id());
+            }
+            puzzles.write(encode(kenken.game(), withSolutions ? kenken.solution() : null));
+            offsets[i + 1] = puzzles.size();
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort((withSolutions ? FLAG_SOLUTIONS : 0) | (withRatings ? FLAG_RATINGS : 0));
+        data.writeInt(kenkens.size());
+        for (int offset : offsets) {
+            data.writeInt(offset);
+        }
+        if (withRatings) {
+            for (Kenken kenken : kenkens) {
+                data.writeFloat((float) kenken.rating().score());
+            }
+            for (Kenken kenken : kenkens) {
+                data.writeByte(kenken.rating().difficulty().getLevel());
+            }
+        }
+        puzzles.writeTo(data);
+        data.flush();
+    }
+
+    static byte[] encode(KenkenGame kenken, KenkenAnswer solution) {
+        int size = kenken.getSize();
+        List<Cage> cages = new ArrayList<>(kenken.getCages());
+        cages.sort(Comparator.comparing(Cage::getFirstSquare));
+        int cageBits = bitsFor(cages.size() - 1);
+        int targetBits = 1;
+        for (Cage cage : cages) {
+            if (cage.getTarget() < 0) {
+                throw new IllegalArgumentException("Negative target of the cage " + cage.getNotation());
+            }
+            targetBits = Math.max(targetBits, bitsFor(cage.getTarget()));
+        }
+
+        BitWriter bits = new BitWriter();
+        bits.write(size, Byte.SIZE);
+        bits.write(cages.size(), Short.SIZE);
+        bits.write(targetBits, Byte.SIZE);
+        int[] cageOf = new int[size * size];
+        for (int i = 0; i < cages.size(); i++) {
+            for (Square square : cages.get(i).getSquares()) {
+                cageOf[(square.row() - 1) * size + square.column() - 1] = i;
+            }
+        }
+        for (int cage : cageOf) {
+            bits.write(cage, cageBits);
+        }
+        for (Cage cage : cages) {
+            int code = NOTATIONS.indexOf(cage.getOperator().notation());
+            if (code < 0) {
+                throw new IllegalArgumentException("No code for the operator " + cage.getOperator().notation());
+            }
+            bits.write(code, OPERATOR_BITS);
+            bits.write(cage.getTarget(), targetBits);
+        }
+        if (solution != null) {
+            int valueBits = bitsFor(size - 1);
+            for (int cell = 0; cell < size * size; cell++) {
+                bits.write(solution.getValue(Square.of(cell / size + 1, cell % size + 1)) - 1, valueBits);
+            }
+        }
+        return bits.toByteArray();
+    }
+
+    /**
+     * Decodes the puzzle between the positions of the buffer; only absolute reads are made,
+     * so the buffer can be shared between threads.
+     *
+     * @param end the position right after the puzzle, which is never read.
+     * @param rating the rating of the puzzle, or null if the pack has none.
+     * @throws CorruptedKenkenPackException if the puzzle does not describe a kenken or does not fit in its bytes.
+     */
+    static Kenken decode(ByteBuffer buffer, int position, int end, int id, boolean withSolution,
+                         DifficultyRating rating) {
+        if (end - position < PUZZLE_HEADER_SIZE) {
+            throw corrupted(id);
+        }
+        int size = buffer.get(position) & 0xFF;
+        int cageCount = buffer.getShort(position + 1) & 0xFFFF;
+        int targetBits = buffer.get(position + 3) & 0xFF;
+        if (size < 1 || size > BitmaskHelpers.MAX_VALUE || cageCount < 1 || cageCount > size * size
+                || targetBits < 1 || targetBits >= Integer.SIZE) {
+            throw corrupted(id);
+        }
+        BitReader bits = new BitReader(buffer, position + PUZZLE_HEADER_SIZE, end, id);
+
+        int cageBits = bitsFor(cageCount - 1);
+        int[] cageOf = new int[size * size];
+        for (int cell = 0; cell < cageOf.length; cell++) {
+            cageOf[cell] = bits.read(cageBits);
+            if (cageOf[cell] >= cageCount) {
+                throw corrupted(id);
+            }
+        }
+        Cage[] cages = new Cage[cageCount];
+        for (int i = 0; i < cageCount; i++) {
+            int code = bits.read(OPERATOR_BITS);
+            if (code >= NOTATIONS.size()) {
+                throw corrupted(id);
+            }
+            cages[i] = new Cage(bits.read(targetBits), OperatorFactory.createOperator(NOTATIONS.get(code)));
+        }
+        for (int cell = 0; cell < cageOf.length; cell++) {
+            cages[cageOf[cell]].add(Square.of(cell / size + 1, cell % size + 1));
+        }
+        for (Cage cage : cages) {
+            if (cage.size() == 0) {
+                throw corrupted(id);
+            }
+        }
+
+        KenkenAnswer solution = null;
+        if (withSolution) {
+            int valueBits = bitsFor(size - 1);
+            solution = KenkenAnswer.emptyAnswer();
+            for (int cell = 0; cell < cageOf.length; cell++) {
+                int value = bits.read(valueBits) + 1;
+                if (value > size) {
+                    throw corrupted(id);
+                }
+                solution.setValue(Square.of(cell / size + 1, cell % size + 1), value);
+            }
+        }
+        return new Kenken(id, new KenkenGame(Arrays.asList(cages)), solution, rating);
+    }
+
+    /**
+     * @return the difficulty of the level, or null if no difficulty has it.
+     */
+    static Difficulty difficultyOfLevel(int level) {
+        for (Difficulty difficulty : Difficulty.values()) {
+            if (difficulty.getLevel() == level) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+
+    private static CorruptedKenkenPackException corrupted(int id) {
+        return new CorruptedKenkenPackException("Corrupted puzzle of id " + id);
+    }
+
+    // The number of bits the value needs, 0 for 0
+    private static int bitsFor(int value) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(value);
+    }
+
+    private static final class BitWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int current;
+        private int currentBits;
+
+        void write(int value, int bitCount) {
+            for (int bit = bitCount - 1; bit >= 0; bit--) {
+                current = (current << 1) | ((value >>> bit) & 1);
+                if (++currentBits == Byte.SIZE) {
+                    bytes.write(current);
+                    current = 0;
+                    currentBits = 0;
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            if (currentBits > 0) {
+                bytes.write(current << (Byte.SIZE - currentBits));
+                current = 0;
+                currentBits = 0;
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class BitReader {
+        private final ByteBuffer buffer;
+        private final long endBit;
+        private final int id;
+        private long bitPosition;
+
+        BitReader(ByteBuffer buffer, int position, int end, int id) {
+            this.buffer = buffer;
+            this.bitPosition = (long) position * Byte.SIZE;
+            this.endBit = (long) end * Byte.SIZE;
+            this.id = id;
+        }
+
+        int read(int bitCount) {
+            if (bitPosition + bitCount > endBit) {
+                throw corrupted(id);
+            }
+            int value = 0;
+            for (int i = 0; i < bitCount; i++) {
+                int currentByte = buffer.get((int) (bitPosition >>> 3));
+                int bit = (currentByte >>> (7 - (int) (bitPosition & 7))) & 1;
+                value = (value << 1) | bit;
+                bitPosition++;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.edu.homeedu.puzzle.kenken.dal.datasource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenGameSource;
+import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenRepository;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+
+/**
+ * {@link KenkenGameSource} that pulls the games of a repository, such as a puzzle pack, in turn.
+ * The ids of every size are listed on the first pull of that size, and the games are found by id
+ * one at a time after that, starting over once they have all been pulled.
+ */
+public class KenkenRepositorySource implements KenkenGameSource {
+    private final KenkenRepository repository;
+    private final Map<Integer, List<Integer>> idsBySize = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> cursorBySize = new ConcurrentHashMap<>();
+
+    public KenkenRepositorySource(KenkenRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public KenkenGame next(int size) {
+        List<Integer> ids = idsBySize.computeIfAbsent(size, key -> repository
+                .findAll()
+                .stream()
+                .filter(kenken -> kenken.game().getSize() == key)
+                .map(Kenken::id)
+                .collect(Collectors.toList()));
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        int cursor = cursorBySize.computeIfAbsent(size, key -> new AtomicInteger()).getAndIncrement();
+        Kenken kenken = repository.findOneById(ids.get(Math.floorMod(cursor, ids.size())));
+        return kenken != null ? kenken.game() : null;
+    }
+}
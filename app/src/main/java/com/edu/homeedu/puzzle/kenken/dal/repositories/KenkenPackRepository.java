@@ -0,0 +1,42 @@
+package com.edu.homeedu.puzzle.kenken.dal.repositories;
+
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater.DifficultyRating;
+import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenRepository;
+import com.edu.homeedu.puzzle.kenken.dal.datasource.KenkenPackDataSource;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+
+public class KenkenPackRepository implements KenkenRepository {
+    private final KenkenPackDataSource kenkenDataSource;
+
+    public KenkenPackRepository(KenkenPackDataSource dataSource) {
+        this.kenkenDataSource = dataSource;
+    }
+
+    /**
+     * @return the puzzles of the pack, decoded only when they are got from the list.
+     */
+    @Override
+    public List<Kenken> findAll() {
+        return kenkenDataSource.fetchAll();
+    }
+
+    @Override
+    public Kenken findOneById(int id) {
+        return kenkenDataSource.fetchById(id);
+    }
+
+    @Override
+    public List<Integer> findAllIds() {
+        return kenkenDataSource.fetchAllIds();
+    }
+
+    /**
+     * @return the rating of the puzzle from the index of the pack, without decoding the puzzle.
+     */
+    @Override
+    public DifficultyRating findRatingById(int id) {
+        return kenkenDataSource.fetchRatingById(id);
+    }
+}
@@ -0,0 +1,203 @@
+package com.edu.homeedu.puzzle.kenken.dal.repositories;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenGameSource;
+import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenRepository;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+
+/**
+ * {@link KenkenRepository} that keeps games ready to play in front of another repository.
+ * <p>
+ * Every bucket of a size and a difficulty holds up to {@code capacity} games, each rated and solved
+ * in advance so that it comes with its solution and its rating. A take polls its bucket and never waits;
+ * when the bucket is left with fewer than {@code watermark} games, or when the games of a bucket are
+ * prepared ({@link #prepareNewGames}), the producer is woken up on the executor, which should run it at
+ * a low priority. The producer pulls games of the size from the source, rates them, and puts each one
+ * into the bucket of its difficulty, or discards it when that bucket is full or was never asked for.
+ * A bucket gets at most {@value #MAX_ATTEMPTS_PER_GAME} games per missing game in a round, so
+ * a difficulty the source hardly ever gives waits for the next take.
+ * <p>
+ * The games taken get ids from {@value #FIRST_GENERATED_ID} up. The last {@value #MAX_TAKEN_GAMES} of them
+ * are found by id like the games of the other repository; older ones, and all of them once the process
+ * is restarted, are not, so a caller that needs a game for longer keeps it itself.
+ */
+public class KenkenPregeneratedRepository implements KenkenRepository {
+    public static final int FIRST_GENERATED_ID = 1 << 30;
+    public static final int MAX_ATTEMPTS_PER_GAME = 20;
+    public static final int MAX_TAKEN_GAMES = 16;
+
+    public record Bucket(int size, Difficulty difficulty) {}
+
+    private final KenkenRepository repository;
+    private final KenkenGameSource source;
+    private final KenkenSolver solver;
+    private final KenkenDifficultyRater rater;
+    private final Executor executor;
+    private final int capacity;
+    private final int watermark;
+    private final Map<Bucket, BlockingQueue<Kenken>> pools = new ConcurrentHashMap<>();
+    private final Map<Integer, Kenken> takenKenkens = new LinkedHashMap<>(MAX_TAKEN_GAMES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Kenken> eldest) {
+            return size() > MAX_TAKEN_GAMES;
+        }
+    };
+    private final AtomicInteger nextId = new AtomicInteger(FIRST_GENERATED_ID);
+    private final AtomicBoolean isRefillRequested = new AtomicBoolean();
+    private final AtomicBoolean isRefilling = new AtomicBoolean();
+
+    /**
+     * @param repository the repository of the games that are not generated.
+     * @param executor the executor the producer runs on.
+     * @param capacity the number of games kept in every bucket.
+     * @param watermark the number of games a bucket is refilled below, at most the capacity.
+     * @param buckets the buckets filled from the start, others are filled once a game is taken from them.
+     */
+    public KenkenPregeneratedRepository(KenkenRepository repository,
+                                        KenkenGameSource source,
+                                        KenkenSolver solver,
+                                        KenkenDifficultyRater rater,
+                                        Executor executor,
+                                        int capacity,
+                                        int watermark,
+                                        Collection<Bucket> buckets) {
+        if (capacity < 1 || watermark < 1 || watermark > capacity) {
+            throw new IllegalArgumentException("Invalid capacity or watermark: " + capacity + ", " + watermark);
+        }
+        this.repository = repository;
+        this.source = source;
+        this.solver = solver;
+        this.rater = rater;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.watermark = watermark;
+        buckets.forEach(this::getPool);
+        if (!buckets.isEmpty()) {
+            requestRefill();
+        }
+    }
+
+    @Override
+    public List<Kenken> findAll() {
+        return repository.findAll();
+    }
+
+    @Override
+    public Kenken findOneById(int id) {
+        Kenken kenken;
+        synchronized (takenKenkens) {
+            kenken = takenKenkens.get(id);
+        }
+        return kenken != null ? kenken : repository.findOneById(id);
+    }
+
+    @Override
+    public List<Integer> findAllIds() {
+        return repository.findAllIds();
+    }
+
+    @Override
+    public KenkenDifficultyRater.DifficultyRating findRatingById(int id) {
+        Kenken kenken;
+        synchronized (takenKenkens) {
+            kenken = takenKenkens.get(id);
+        }
+        return kenken != null ? kenken.rating() : repository.findRatingById(id);
+    }
+
+    @Override
+    public Kenken takeNewGame(int size, Difficulty difficulty) {
+        BlockingQueue<Kenken> pool = getPool(new Bucket(size, difficulty));
+        Kenken kenken = pool.poll();
+        if (kenken != null) {
+            synchronized (takenKenkens) {
+                takenKenkens.put(kenken.id(), kenken);
+            }
+        }
+        if (pool.size() < watermark) {
+            requestRefill();
+        }
+        return kenken;
+    }
+
+    @Override
+    public void prepareNewGames(int size, Difficulty difficulty) {
+        if (getPool(new Bucket(size, difficulty)).size() < watermark) {
+            requestRefill();
+        }
+    }
+
+    /**
+     * @return the number of games ready in the bucket.
+     */
+    public int countReady(int size, Difficulty difficulty) {
+        BlockingQueue<Kenken> pool = pools.get(new Bucket(size, difficulty));
+        return pool != null ? pool.size() : 0;
+    }
+
+    private BlockingQueue<Kenken> getPool(Bucket bucket) {
+        return pools.computeIfAbsent(bucket, key -> new ArrayBlockingQueue<>(capacity));
+    }
+
+    // A request made while the producer is running makes it go over the buckets again
+    private void requestRefill() {
+        isRefillRequested.set(true);
+        if (isRefilling.compareAndSet(false, true)) {
+            executor.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        do {
+            try {
+                while (isRefillRequested.getAndSet(false)) {
+                    fillPools();
+                }
+            }
+            finally {
+                isRefilling.set(false);
+            }
+        } while (isRefillRequested.get() && isRefilling.compareAndSet(false, true));
+    }
+
+    private void fillPools() {
+        for (Map.Entry<Bucket, BlockingQueue<Kenken>> entry : pools.entrySet()) {
+            int size = entry.getKey().size();
+            BlockingQueue<Kenken> pool = entry.getValue();
+            int attempts = MAX_ATTEMPTS_PER_GAME * pool.remainingCapacity();
+            while (pool.remainingCapacity() > 0 && attempts-- > 0 && !Thread.currentThread().isInterrupted()) {
+                KenkenGame game = source.next(size);
+                if (game == null) {
+                    break;
+                }
+                KenkenDifficultyRater.DifficultyRating rating = rater.rate(game);
+                BlockingQueue<Kenken> target = pools.get(new Bucket(size, rating.difficulty()));
+                if (target != null && target.remainingCapacity() > 0) {
+                    target.offer(materialize(game, rating));
+                }
+            }
+        }
+    }
+
+    // Solves the game and builds what it computes lazily, so that nothing is left to do once it is taken
+    private Kenken materialize(KenkenGame game, KenkenDifficultyRater.DifficultyRating rating) {
+        KenkenAnswer solution = solver.solve(game, Map.of());
+        game.getSquarePeersMap();
+        return new Kenken(nextId.getAndIncrement(), game, solution, rating);
+    }
+}
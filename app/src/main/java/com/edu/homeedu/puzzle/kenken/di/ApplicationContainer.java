@@ -2,34 +2,68 @@ package com.edu.homeedu.puzzle.kenken.di;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Debug;
+import android.util.Log;
 
 import androidx.preference.PreferenceManager;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
+import com.edu.homeedu.puzzle.kenken.dal.datasource.KenkenGeneratorSource;
 import com.edu.homeedu.puzzle.kenken.dal.datasource.KenkenInMemoryDataSource;
+import com.edu.homeedu.puzzle.kenken.dal.datasource.KenkenPackDataSource;
 import com.edu.homeedu.puzzle.kenken.dal.datasource.UserSharePreferencesDataSource;
 import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenRepository;
 import com.edu.homeedu.puzzle.kenken.dal.repositories.KenkenInMemoryRepository;
+import com.edu.homeedu.puzzle.kenken.dal.repositories.KenkenPackRepository;
+import com.edu.homeedu.puzzle.kenken.dal.repositories.KenkenPregeneratedRepository;
 import com.edu.homeedu.puzzle.kenken.dal.repositories.UserSharedPreferencesRepository;
 import com.edu.homeedu.puzzle.kenken.dal.contracts.UserRepository;
+import com.edu.homeedu.puzzle.kenken.application.kenken.generator.KenkenGenerator;
+import com.edu.homeedu.puzzle.kenken.application.kenken.generator.RandomKenkenGenerator;
+import com.edu.homeedu.puzzle.kenken.application.kenken.generator.JacobsonMatthewsLatinSquareSampler;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.DeductionHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.KenkenHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.EffortBasedDifficultyRater;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater;
+import com.edu.homeedu.puzzle.kenken.application.kenken.repair.CageSplittingRepairEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.repair.KenkenRepairEngine;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.BranchingStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.DomainOverWeightedDegreeStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.GridSizeBranchingStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.LeastConstrainingValueStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.MinimumRemainingValuesStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.AllDifferentConsistencyConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageBoundsConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.DualConsistencyConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenEliminatingConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.PrimeFactorConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.KenkenValuesInitializer;
+import com.edu.homeedu.puzzle.kenken.utils.AsyncTaskExecutorService;
 import com.edu.homeedu.puzzle.kenken.utils.DefaultGameScoreCalculator;
 import com.edu.homeedu.puzzle.kenken.utils.contracts.GameScoreCalculator;
 
 public class ApplicationContainer {
+    public static final String PACK_FILE_NAME = "kenken.pack";
+
     private final KenkenRepository kenkenRepository;
     private final UserRepository userRepository;
 
     private final KenkenSolver kenkenSolver;
+    private final KenkenHintEngine hintEngine;
+    private final KenkenDifficultyRater difficultyRater;
+    private final KenkenGenerator kenkenGenerator;
+    private final KenkenRepairEngine repairEngine;
     private final GameScoreCalculator gameScoreCalculator;
 
     public ApplicationContainer(Context context) {
@@ -37,16 +71,61 @@ public class ApplicationContainer {
         UserSharePreferencesDataSource userDataSource = new UserSharePreferencesDataSource(sharedPreferences);
         userRepository = new UserSharedPreferencesRepository(userDataSource);
 
-        KenkenInMemoryDataSource kenkenDataSource = new KenkenInMemoryDataSource();
-        kenkenRepository = new KenkenInMemoryRepository(kenkenDataSource);
-
-        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer();
+        // The cages of large grids hold too many tuples to enumerate, the constraints below bound them instead
+        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer(3);
         Collection<KenkenEliminatingConstraint> constraints = Arrays.asList(
                 new ArcConsistencyConstraint(),
                 new DualConsistencyConstraint(),
-                new CageConsistencyConstraint()
+                new AllDifferentConsistencyConstraint(),
+                new PrimeFactorConstraint(),
+                new CageBoundsConstraint(),
+                // Larger addition and multiplication cages are left to the two constraints above
+                new CageConsistencyConstraint(3)
+        );
+        // Small grids are solved with a few branches whatever the order, larger ones gain from learning
+        // which squares keep failing and from trying the values that leave their peers the most room.
+        BranchingStrategy branchingStrategy = new GridSizeBranchingStrategy(
+                new MinimumRemainingValuesStrategy(),
+                Map.of(7, new LeastConstrainingValueStrategy(new DomainOverWeightedDegreeStrategy()))
+        );
+        ConstraintBasedKenkenSolver constraintBasedSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer,
+                constraints,
+                ConstraintBasedKenkenSolver.Backtracking.TRAIL,
+                branchingStrategy
+        );
+        constraintBasedSolver.enableStatistics(Debug::threadCpuTimeNanos);
+        kenkenSolver = constraintBasedSolver;
+        DeductionHintEngine deductionHintEngine = new DeductionHintEngine();
+        hintEngine = deductionHintEngine;
+        difficultyRater = new EffortBasedDifficultyRater(deductionHintEngine, constraintBasedSolver);
+        kenkenGenerator = new RandomKenkenGenerator(constraintBasedSolver, new JacobsonMatthewsLatinSquareSampler());
+        repairEngine = new CageSplittingRepairEngine(constraintBasedSolver);
+
+        // A puzzle pack in the app files replaces the built-in puzzles; an unreadable one is ignored
+        KenkenRepository storedRepository = new KenkenInMemoryRepository(new KenkenInMemoryDataSource());
+        File packFile = new File(context.getFilesDir(), PACK_FILE_NAME);
+        if (packFile.isFile()) {
+            try {
+                storedRepository = new KenkenPackRepository(new KenkenPackDataSource(packFile.toPath()));
+            }
+            catch (IOException | RuntimeException e) {
+                Log.w(ApplicationContainer.class.getSimpleName(), "Cannot open the puzzle pack", e);
+            }
+        }
+
+        // No bucket is filled up front, so nothing is generated until a new game of a size and difficulty
+        // is asked for; its bucket is then kept filled in the background.
+        kenkenRepository = new KenkenPregeneratedRepository(
+                storedRepository,
+                new KenkenGeneratorSource(kenkenGenerator, System.nanoTime()),
+                constraintBasedSolver,
+                difficultyRater,
+                AsyncTaskExecutorService.BACKGROUND_EXECUTOR,
+                3,
+                2,
+                List.of()
         );
-        kenkenSolver = new ConstraintBasedKenkenSolver(valuesInitializer, constraints);
 
         gameScoreCalculator = new DefaultGameScoreCalculator();
     }
@@ -63,6 +142,22 @@ public class ApplicationContainer {
         return kenkenSolver;
     }
 
+    public KenkenHintEngine getHintEngine() {
+        return hintEngine;
+    }
+
+    public KenkenDifficultyRater getDifficultyRater() {
+        return difficultyRater;
+    }
+
+    public KenkenGenerator getKenkenGenerator() {
+        return kenkenGenerator;
+    }
+
+    public KenkenRepairEngine getRepairEngine() {
+        return repairEngine;
+    }
+
     public GameScoreCalculator getGameScoreCalculator() {
         return gameScoreCalculator;
     }
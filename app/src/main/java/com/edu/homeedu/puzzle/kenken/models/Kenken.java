@@ -1,6 +1,19 @@
 package com.edu.homeedu.puzzle.kenken.models;
 
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater.DifficultyRating;
 
-public record Kenken(int id, KenkenGame game) {
+/**
+ * @param solution the solution of the game if it is known in advance, otherwise null.
+ * @param rating the rating of the game if it is known in advance, otherwise null.
+ */
+public record Kenken(int id, KenkenGame game, KenkenAnswer solution, DifficultyRating rating) {
+    public Kenken(int id, KenkenGame game, KenkenAnswer solution) {
+        this(id, game, solution, null);
+    }
+
+    public Kenken(int id, KenkenGame game) {
+        this(id, game, null, null);
+    }
 }
@@ -6,6 +6,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.widget.ContentLoadingProgressBar;
 import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 
 import android.content.Intent;
@@ -13,6 +15,7 @@ import android.os.Bundle;
 import android.widget.Button;
 import android.widget.TextView;
 
+import java.util.List;
 import java.util.Objects;
 
 import com.edu.homeedu.puzzle.kenken.R;
@@ -22,12 +25,12 @@ import com.edu.homeedu.puzzle.kenken.ui.fragments.HintTaskFragment;
 import com.edu.homeedu.puzzle.kenken.ui.fragments.StopwatchFragment;
 import com.edu.homeedu.puzzle.kenken.ui.fragments.ValueSelectionDialogFragment;
 import com.edu.homeedu.puzzle.kenken.constants.Constants;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.KenkenHelpers;
 import com.edu.homeedu.puzzle.kenken.utils.Pair;
 import com.edu.homeedu.puzzle.kenken.utils.Point;
 import com.edu.homeedu.puzzle.kenken.utils.helpers.PreferenceHelpers;
 import com.edu.homeedu.puzzle.kenken.utils.helpers.UiHelpers;
 import com.edu.homeedu.puzzle.kenken.viewmodels.GameViewModel;
+import com.edu.homeedu.puzzle.kenken.viewmodels.GameViewModel.NewGameOption;
 import com.edu.homeedu.puzzle.kenken.viewmodels.UserViewModel;
 
 public class GameActivity extends AppCompatActivity
@@ -39,6 +42,7 @@ public class GameActivity extends AppCompatActivity
     private static final String SAVED_HINT_KEY = "SAVED_HINT";
 
     private Button backButton;
+    private Button newGameButton;
     private Button switchButton;
     private TextView recordTextView;
     private TextView mistakeTextView;
@@ -111,6 +115,7 @@ public class GameActivity extends AppCompatActivity
     private void initDirectViews() {
         progressBar = findViewById(R.id.game_activity_hint_progress_bar);
         backButton = findViewById(R.id.game_back_button);
+        newGameButton = findViewById(R.id.game_new_button);
         switchButton = findViewById(R.id.game_switch_button);
         recordTextView = findViewById(R.id.game_record_textview);
         mistakeTextView = findViewById(R.id.game_mistake_textview);
@@ -143,6 +148,7 @@ public class GameActivity extends AppCompatActivity
         setupGameViewModelObservers();
         setupUserViewModelObservers();
         setBackButtonListener();
+        setNewGameButtonListener();
         setSwitchButtonListener();
         setHintButtonListener();
     }
@@ -194,6 +200,10 @@ public class GameActivity extends AppCompatActivity
         });
     }
 
+    private void setNewGameButtonListener() {
+        newGameButton.setOnClickListener(v -> showNewGameDialog());
+    }
+
     private void setSwitchButtonListener() {
         switchButton.setOnClickListener(v -> showGameSelectionDialog(true));
     }
@@ -279,16 +289,33 @@ public class GameActivity extends AppCompatActivity
     }
 
     private void showGameSelectionDialog(boolean cancelable) {
-        ValueSelectionDialogFragment<Integer> dialog = ValueSelectionDialogFragment.newInstance(
-                gameViewModel.getIdsSortedByGameSize()
-        );
+        // The games are rated in the background, the dialog shows up once they are sorted
+        LiveData<List<Integer>> sortedIds = gameViewModel.getIdsSortedByDifficulty();
+        if (sortedIds.getValue() == null) {
+            progressBar.show();
+        }
+        sortedIds.observe(this, new Observer<>() {
+            @Override
+            public void onChanged(List<Integer> ids) {
+                sortedIds.removeObserver(this);
+                if (!isHintTaskRunning) {
+                    progressBar.hide();
+                }
+                showGameSelectionDialog(ids, cancelable);
+            }
+        });
+        gameViewModel.loadIdsSortedByDifficulty();
+    }
+
+    private void showGameSelectionDialog(List<Integer> sortedIds, boolean cancelable) {
+        ValueSelectionDialogFragment<Integer> dialog = ValueSelectionDialogFragment.newInstance(sortedIds);
         dialog.setCancelable(cancelable);
         dialog.setTitle(getString(R.string.select_game_dialog_title));
         dialog.setValueStringifier((value, index) -> {
-            KenkenGame kenken = gameViewModel.getKenkenById(value);
-            int size = Objects.requireNonNull(kenken).getSize();
+            KenkenGame kenken = Objects.requireNonNull(gameViewModel.getKenkenById(value));
+            int size = kenken.getSize();
             return getString(R.string.game_option_summary,
-                    index + 1, size, KenkenHelpers.assertDifficulty(size).getLabel());
+                    index + 1, size, gameViewModel.getDifficulty(value).getLabel());
         });
         dialog.setDialogListener(new ValueSelectionDialogFragment.ValueSelectionDialogListener<>() {
             @Override
@@ -310,6 +337,42 @@ public class GameActivity extends AppCompatActivity
         dialog.show(getSupportFragmentManager(), ValueSelectionDialogFragment.class.getName());
     }
 
+    private void showNewGameDialog() {
+        // The games still missing are prepared while the player picks one
+        gameViewModel.prepareNewGames();
+        ValueSelectionDialogFragment<NewGameOption> dialog =
+                ValueSelectionDialogFragment.newInstance(gameViewModel.getNewGameOptions());
+        dialog.setTitle(getString(R.string.new_game_dialog_title));
+        dialog.setValueStringifier((value, index) -> getString(R.string.new_game_option_summary,
+                value.size(), value.difficulty().getLabel()));
+        dialog.setDialogListener(new ValueSelectionDialogFragment.ValueSelectionDialogListener<>() {
+            @Override
+            public void onValueClick(DialogFragment dialog, int position, NewGameOption selectedValue) {
+                if (!gameViewModel.fetchNewGame(selectedValue.size(), selectedValue.difficulty())) {
+                    UiHelpers.createInfoDialog(
+                            GameActivity.this,
+                            getString(R.string.new_game_not_ready_dialog_title),
+                            getString(R.string.new_game_not_ready_msg),
+                            null
+                    )
+                            .show();
+                }
+            }
+
+            @Override
+            public void onClearButtonClick(DialogFragment dialog) {
+                // DO NOTHING
+            }
+
+            @Override
+            public void onCancelButtonClick(DialogFragment dialog) {
+                // DO NOTHING
+            }
+        });
+
+        dialog.show(getSupportFragmentManager(), ValueSelectionDialogFragment.class.getName());
+    }
+
     private void handleIsGameCompleted(boolean isGameCompleted) {
         if (!isGameCompleted) {
             stopwatchFragment.startStopwatch();
@@ -335,7 +398,7 @@ public class GameActivity extends AppCompatActivity
         String html = getString(
                 R.string.puzzle_solved_msg_html,
                 size,
-                KenkenHelpers.assertDifficulty(size).getLabel(),
+                Objects.requireNonNull(gameViewModel.getCurrentDifficulty()).getLabel(),
                 timeString,
                 gameViewModel.getMistakeCount().getValue(),
                 gameViewModel.getHintUsedCount().getValue(),
@@ -426,6 +489,8 @@ public class GameActivity extends AppCompatActivity
         if (!isHintTaskRunning) {
             progressBar.hide();
         }
+        // Once a game is shown, new games are prepared so that the first one asked for is ready
+        gameViewModel.prepareNewGames();
         if (kenken.toString().equals(lastSavedStringifiedKenken)) {
             onOldKenkenLoaded();
         }
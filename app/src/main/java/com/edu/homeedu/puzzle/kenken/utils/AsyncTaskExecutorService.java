@@ -25,6 +25,10 @@ public abstract class AsyncTaskExecutorService<Params, Progress, Result> {
      * A serial executor for sequential execution of tasks.
      */
     public static final ExecutorService SERIAL_EXECUTOR = newSerialExecutor();
+    /**
+     * A serial executor for long running work the UI does not wait for, at the lowest thread priority.
+     */
+    public static final ExecutorService BACKGROUND_EXECUTOR = newBackgroundExecutor();
 
     /**
      * Creates a new thread pool executor.
@@ -48,6 +52,20 @@ public abstract class AsyncTaskExecutorService<Params, Progress, Result> {
         });
     }
 
+    /**
+     * Creates a new background executor.
+     *
+     * @return a new instance of {@link ExecutorService} with a single low priority thread executor
+     */
+    private static ExecutorService newBackgroundExecutor() {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
     private ExecutorService executor;
     private Handler handler;
 
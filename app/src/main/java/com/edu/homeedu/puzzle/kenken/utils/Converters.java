@@ -40,6 +40,35 @@ public final class Converters {
         return Character.toString((char) (ordinal - 1 + FIRST_UPPER_CHAR)).charAt(0);
     }
 
+    /**
+     * Converts an ordinal value to its label of uppercase characters, counting like spreadsheet columns:
+     * A to Z for 1 to 26, then AA, AB, ..., AZ, BA and so on.
+     *
+     * @param ordinal The ordinal value to be converted, starting at 1.
+     * @return The label of the ordinal value.
+     */
+    public static String ordinalToUpperLabel(int ordinal) {
+        StringBuilder label = new StringBuilder();
+        for (int rest = ordinal; rest > 0; rest = (rest - 1) / 26) {
+            label.append(ordinalToUpperChar((rest - 1) % 26 + 1));
+        }
+        return label.reverse().toString();
+    }
+
+    /**
+     * Converts a label of uppercase characters to its ordinal value, reversing {@link #ordinalToUpperLabel(int)}.
+     *
+     * @param upperLabel The label to be converted.
+     * @return The ordinal value of the label.
+     */
+    public static int upperLabelToOrdinal(String upperLabel) {
+        int ordinal = 0;
+        for (int i = 0; i < upperLabel.length(); i++) {
+            ordinal = ordinal * 26 + upperCharToOrdinal(upperLabel.charAt(i));
+        }
+        return ordinal;
+    }
+
     /**
      * Converts a value in dp (density-independent pixels) to pixels as a floating point number.
      *
@@ -5,13 +5,13 @@ import java.math.RoundingMode;
 
 import com.edu.homeedu.puzzle.kenken.utils.contracts.GameScoreCalculator;
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
-import com.edu.homeedu.puzzle.kenken.utils.helpers.KenkenHelpers;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
 import com.edu.homeedu.puzzle.kenken.utils.helpers.MathHelpers;
 
 /**
  * DefaultGameScoreCalculator is the default implementation of the GameScoreCalculator interface.
  * It calculates the score for a Kenken game based on various factors such as size, difficulty level,
- * time taken, number of mistakes, and hints used.
+ * time taken, number of mistakes, and hints used. The difficulty level is the one the game was rated with.
  */
 public class DefaultGameScoreCalculator implements GameScoreCalculator {
     private static final BigDecimal SIZE_MULTIPLIER = BigDecimal.valueOf(1e2);
@@ -26,13 +26,14 @@ public class DefaultGameScoreCalculator implements GameScoreCalculator {
      * Calculates the score for the given Kenken game and statistical results.
      *
      * @param kenken The Kenken game for which the score is to be calculated.
+     * @param difficulty The difficulty the game was rated with.
      * @param statistics The statistical results containing game performance metrics.
      * @return The calculated score as an integer.
      */
     @Override
-    public int calculateScore(KenkenGame kenken, StatisticalResult statistics) {
+    public int calculateScore(KenkenGame kenken, Difficulty difficulty, StatisticalResult statistics) {
         int size = kenken.getSize();
-        int difficultyLevel = KenkenHelpers.assertDifficulty(size).getLevel();
+        int difficultyLevel = difficulty.getLevel();
 
         BigDecimal sizeScore = MathHelpers
                 .multiply(Math.pow(size, 3), SIZE_MULTIPLIER);
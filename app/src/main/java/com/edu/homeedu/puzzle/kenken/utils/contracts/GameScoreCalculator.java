@@ -1,9 +1,10 @@
 package com.edu.homeedu.puzzle.kenken.utils.contracts;
 
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
 
 public interface GameScoreCalculator {
     record StatisticalResult(long timeInMillis, int mistakeCount, int hintUsedCount) {}
 
-    int calculateScore(KenkenGame kenken, StatisticalResult statistics);
+    int calculateScore(KenkenGame kenken, Difficulty difficulty, StatisticalResult statistics);
 }
@@ -0,0 +1,158 @@
+package com.edu.homeedu.puzzle.kenken.utils.helpers;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Utility class for working with candidate values packed into an {@code int} bitmask.
+ * Value {@code v} is a candidate when bit {@code v} of the mask is set, so masks can hold
+ * values from 1 up to 31.
+ * This class cannot be instantiated.
+ */
+public final class BitmaskHelpers {
+    /**
+     * The largest value that can be stored in a mask.
+     */
+    public static final int MAX_VALUE = Integer.SIZE - 1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BitmaskHelpers() {}
+
+    /**
+     * Returns the mask containing only the given value.
+     *
+     * @param value the value
+     * @return the mask with only the bit of the value set
+     */
+    public static int of(int value) {
+        return 1 << value;
+    }
+
+    /**
+     * Returns the mask containing every value from {@code from} to {@code to}, both inclusive.
+     *
+     * @param from the smallest value
+     * @param to the largest value
+     * @return the mask of the range, or 0 if the range is empty
+     */
+    public static int range(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        int upper = to >= MAX_VALUE ? -1 : (1 << (to + 1)) - 1;
+        return upper & -(1 << from);
+    }
+
+    /**
+     * Packs the given values into a mask. Null values are ignored.
+     *
+     * @param values the values to pack
+     * @return the mask of the values
+     */
+    public static int fromValues(Collection<Integer> values) {
+        int mask = 0;
+        if (values == null) {
+            return mask;
+        }
+        for (Integer value : values) {
+            if (value != null) {
+                mask |= of(value);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Checks whether the mask contains the given value.
+     *
+     * @param mask the mask
+     * @param value the value to look for
+     * @return true if the value is in the mask, false otherwise
+     */
+    public static boolean contains(int mask, int value) {
+        return (mask & of(value)) != 0;
+    }
+
+    /**
+     * Returns the mask without the given value.
+     *
+     * @param mask the mask
+     * @param value the value to remove
+     * @return the mask with the bit of the value cleared
+     */
+    public static int remove(int mask, int value) {
+        return mask & ~of(value);
+    }
+
+    /**
+     * Returns the number of values in the mask.
+     *
+     * @param mask the mask
+     * @return the number of values in the mask
+     */
+    public static int count(int mask) {
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * Checks if the mask holds exactly one value.
+     *
+     * @param mask the mask
+     * @return true if the mask holds exactly one value, false otherwise
+     */
+    public static boolean isSingle(int mask) {
+        return mask != 0 && (mask & (mask - 1)) == 0;
+    }
+
+    /**
+     * Returns the smallest value of the mask.
+     *
+     * @param mask the mask, must not be 0
+     * @return the smallest value in the mask
+     */
+    public static int lowest(int mask) {
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Returns the largest value of the mask.
+     *
+     * @param mask the mask, must not be 0
+     * @return the largest value in the mask
+     */
+    public static int highest(int mask) {
+        return MAX_VALUE - Integer.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * Unpacks the mask into an ascending array of values.
+     *
+     * @param mask the mask
+     * @return the values of the mask in ascending order
+     */
+    public static int[] toArray(int mask) {
+        int[] values = new int[count(mask)];
+        int i = 0;
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            values[i++] = lowest(rest);
+        }
+        return values;
+    }
+
+    /**
+     * Unpacks the mask into a sorted set of values.
+     *
+     * @param mask the mask
+     * @return a new set containing the values of the mask
+     */
+    public static Set<Integer> toSet(int mask) {
+        Set<Integer> values = new TreeSet<>();
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            values.add(lowest(rest));
+        }
+        return values;
+    }
+}
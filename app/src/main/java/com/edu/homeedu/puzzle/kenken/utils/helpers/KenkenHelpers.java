@@ -1,20 +1,9 @@
 package com.edu.homeedu.puzzle.kenken.utils.helpers;
 
 import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
-import com.edu.homeedu.puzzle.kenken.application.kenken.answer.Answers;
-import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
 import com.edu.homeedu.puzzle.kenken.utils.Point;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
-
 public final class KenkenHelpers {
     private KenkenHelpers() {}
 
@@ -59,6 +48,8 @@ public final class KenkenHelpers {
 
     /**
      * Determines the difficulty level of a KenKen puzzle based on its size.
+     * The {@link com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater} rates
+     * a puzzle by the effort it takes to solve instead, and should be preferred.
      *
      * @param kenkenSize The size of the KenKen puzzle grid.
      * @return The Difficulty enum representing the puzzle's difficulty level.
@@ -92,82 +83,4 @@ public final class KenkenHelpers {
         }
         return difficulties[i];
     }
-
-    /**
-     * Calculates all possible values for each Square within a Cage based on existing possible values.
-     *
-     * @param values A map of Squares to their possible values.
-     * @param cage The Cage for which to calculate possible values.
-     * @return A map of Squares to a set of integers representing all possible values each Square can take.
-     * @usage
-     * Example:
-     * <pre>{@code
-     * Map<Square, Set<Integer>> squareValues = new HashMap<>();
-     * Cage cage = new Cage( ... ); // Cage initialization
-     * Map<Square, Set<Integer>> possibleValues = KenkenHelpers.possibleCageValues(squareValues, cage);
-     * possibleValues.forEach((square, values) -> System.out.println("Square: " + square + " Values: " + values));
-     * // Output will show each square and its possible values after computation
-     * }</pre>
-     */
-    public static Map<Square, Set<Integer>> possibleCageValues(Map<Square, Set<Integer>> values, Cage cage) {
-        Set<Square> squares = cage.getSquares();
-        List<List<Integer>> cageSquaresValues = squares
-                .stream()
-                .filter(values::containsKey)
-                .map(values::get)
-                .map(collection -> collection != null
-                        ? CollectionHelpers.asList(collection)
-                        : Collections.<Integer>emptyList())
-                .collect(Collectors.toList());
-        
-        return CollectionHelpers
-                .cartesianProduct(cageSquaresValues)
-                .stream()
-                .filter(perm -> cage.isSolution(Answers.newCageAnswer(perm)))
-                .reduce(
-                        (Map<Square, Set<Integer>>) new HashMap<Square, Set<Integer>>(),
-                        (possible, perm) -> addPossible(possible, squares, perm),
-                        CollectionHelpers::concatMap
-                );
-    }
-
-    /**
-     * Adds possible values for a Cage to the map of possible values. This method is designed for internal use by
-     * `possibleCageValues` and works by updating the map with new possible values for each Square.
-     *
-     * @param possible A map of Squares to their possible values.
-     * @param squares The collection of Squares in the Cage.
-     * @param numbers The list of numbers representing possible values for the Squares in the Cage.
-     * @return The updated map of Squares to their possible values.
-     * @usage
-     * Example (intended for internal use):
-     * <pre>{@code
-     * Map<Square, Set<Integer>> possible = new HashMap<>();
-     * List<Square> squares = Arrays.asList(Square.of(0, 0), Square.of(0, 1));
-     * List<Integer> numbers = Arrays.asList(1, 2);
-     * Map<Square, Set<Integer>> updatedPossible = KenkenHelpers.addPossible(possible, squares, numbers);
-     * updatedPossible.forEach((square, values) -> System.out.println("Square: " + square + ", Possible values: " + values));
-     * // Output will show each square and its updated set of possible values
-     * }</pre>
-     */
-    private static Map<Square, Set<Integer>> addPossible(
-            Map<Square, Set<Integer>> possible,
-            Collection<Square> squares,
-            List<Integer> numbers) {
-        int i = 0;
-        for (Square square : squares) {
-            int squareNumber = numbers.get(i);
-            Set<Integer> squareValues = possible.getOrDefault(square, null);
-            if (squareValues != null) {
-                squareValues.add(squareNumber);
-            }
-            else {
-                squareValues = new TreeSet<>();
-                squareValues.add(squareNumber);
-                possible.put(square, squareValues);
-            }
-            i++;
-        }
-        return possible;
-    }
 }
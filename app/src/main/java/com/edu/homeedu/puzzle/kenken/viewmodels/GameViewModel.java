@@ -12,7 +12,7 @@ import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.viewmodel.ViewModelInitializer;
 
-import java.lang.ref.SoftReference;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -21,9 +21,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import com.edu.homeedu.puzzle.kenken.constants.Constants;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
 import com.edu.homeedu.puzzle.kenken.dal.contracts.KenkenRepository;
 import com.edu.homeedu.puzzle.kenken.di.ApplicationContainer;
 import com.edu.homeedu.puzzle.kenken.models.Kenken;
@@ -31,8 +34,13 @@ import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
 import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.KenkenHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater;
 import com.edu.homeedu.puzzle.kenken.utils.contracts.GameScoreCalculator;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.CancellationToken;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolvingSession;
+import com.edu.homeedu.puzzle.kenken.utils.AsyncTaskExecutorService;
 import com.edu.homeedu.puzzle.kenken.utils.helpers.CollectionHelpers;
 import com.edu.homeedu.puzzle.kenken.utils.helpers.KenkenHelpers;
 import com.edu.homeedu.puzzle.kenken.utils.helpers.LiveDataHelpers;
@@ -51,6 +59,12 @@ public class GameViewModel extends ViewModel {
             boolean isBottomSameCage) {
     }
 
+    /**
+     * Record of a size and a difficulty a new game can be asked for.
+     */
+    public record NewGameOption(int size, Difficulty difficulty) implements Serializable {
+    }
+
     public static final ViewModelInitializer<GameViewModel> initializer = new ViewModelInitializer<>(
             GameViewModel.class,
             creationExtras -> {
@@ -58,6 +72,8 @@ public class GameViewModel extends ViewModel {
                 return new GameViewModel(
                         container.getKenkenRepository(),
                         container.getKenkenSolver(),
+                        container.getHintEngine(),
+                        container.getDifficultyRater(),
                         container.getGameScoreCalculator(),
                         createSavedStateHandle(creationExtras)
                 );
@@ -65,10 +81,30 @@ public class GameViewModel extends ViewModel {
     );
 
     private static final String ID_KEY = "ID";
+    private static final String NEW_GAME_KEY = "NEW_GAME";
     private static final String IS_PROGRESSING_KEY = "IS_PROGRESSING";
+    private static final int RATING_BATCH_SIZE = 256;
+    // The difficulties the generated games of every size mostly rate at
+    private static final List<NewGameOption> NEW_GAME_OPTIONS = List.of(
+            new NewGameOption(4, Difficulty.Normal),
+            new NewGameOption(5, Difficulty.Normal),
+            new NewGameOption(5, Difficulty.Medium),
+            new NewGameOption(6, Difficulty.Medium),
+            new NewGameOption(6, Difficulty.Hard),
+            new NewGameOption(7, Difficulty.Hard),
+            new NewGameOption(8, Difficulty.VeryHard),
+            new NewGameOption(9, Difficulty.Extreme)
+    );
 
     private final KenkenRepository kenkenRepository;
     private final KenkenSolver kenkenSolver;
+    private final KenkenHintEngine hintEngine;
+    private final KenkenDifficultyRater difficultyRater;
+    // By ID, so that the games of a pack are not kept once they are rated
+    private final Map<Integer, KenkenDifficultyRater.DifficultyRating> ratings = new ConcurrentHashMap<>();
+    private final Set<Integer> ratingIds = ConcurrentHashMap.newKeySet();
+    private final MutableLiveData<List<Integer>> sortedIdsLiveData = new MutableLiveData<>();
+    private final AtomicBoolean isSortingIds = new AtomicBoolean();
     private final GameScoreCalculator scoreCalculator;
     private final SavedStateHandle savedStateHandle;
     private LiveData<KenkenGame> kenkenLiveData;
@@ -78,14 +114,19 @@ public class GameViewModel extends ViewModel {
     private MutableLiveData<Integer> mistakeCountLiveData;
     private MutableLiveData<Integer> hintUsedCountLiveData;
 
-    private SoftReference<KenkenAnswer> kenkenAnswerCache;
+    private KenkenSolvingSession solvingSession;
+    private volatile Kenken restoredKenken;
 
     public GameViewModel(KenkenRepository kenkenRepository,
                          KenkenSolver kenkenSolver,
+                         KenkenHintEngine hintEngine,
+                         KenkenDifficultyRater difficultyRater,
                          GameScoreCalculator scoreCalculator,
                          SavedStateHandle savedStateHandle) {
         this.kenkenRepository = kenkenRepository;
         this.kenkenSolver = kenkenSolver;
+        this.hintEngine = hintEngine;
+        this.difficultyRater = difficultyRater;
         this.scoreCalculator = scoreCalculator;
         this.savedStateHandle = savedStateHandle;
         initLiveData();
@@ -111,26 +152,114 @@ public class GameViewModel extends ViewModel {
         return isGameCompletedLiveData;
     }
 
-    public List<Integer> getIdsSortedByGameSize() {
-        return kenkenRepository
-                .findAll()
-                .stream()
-                .sorted(Comparator.comparingInt(kenkenModel -> kenkenModel.game().getSize()))
-                .map(Kenken::id)
-                .collect(Collectors.toList());
+    /**
+     * Get the IDs of the games, from the easiest to the hardest by their rating, once they are loaded
+     * (see {@link #loadIdsSortedByDifficulty()}).
+     *
+     * @return LiveData of the list of the game IDs.
+     */
+    public LiveData<List<Integer>> getIdsSortedByDifficulty() {
+        return sortedIdsLiveData;
+    }
+
+    /**
+     * Load the IDs of the games sorted by difficulty on a background thread, unless they are loaded
+     * or being loaded. The games not rated yet and stored without a rating are rated together, in parallel.
+     */
+    public void loadIdsSortedByDifficulty() {
+        if (sortedIdsLiveData.getValue() != null || !isSortingIds.compareAndSet(false, true)) {
+            return;
+        }
+        AsyncTaskExecutorService.THREAD_POOL.execute(() -> {
+            try {
+                sortedIdsLiveData.postValue(sortIdsByDifficulty());
+            }
+            finally {
+                isSortingIds.set(false);
+            }
+        });
+    }
+
+    /**
+     * Get the difficulty of a game from its rating. A game not rated yet is rated on a background thread,
+     * and its difficulty is guessed from its size until then.
+     *
+     * @param id ID of the game.
+     * @return Difficulty of the game, null if there is no such game.
+     */
+    public Difficulty getDifficulty(int id) {
+        KenkenDifficultyRater.DifficultyRating rating = ratings.get(id);
+        if (rating != null) {
+            return rating.difficulty();
+        }
+
+        Kenken kenkenModel = findKenken(id);
+        if (kenkenModel == null) {
+            return null;
+        }
+        rateInBackground(kenkenModel);
+        return KenkenHelpers.assertDifficulty(kenkenModel.game().getSize());
+    }
+
+    /**
+     * Get the difficulty of the current game from its rating.
+     *
+     * @return Difficulty of the current game, null if no game is fetched or it is not found.
+     */
+    public Difficulty getCurrentDifficulty() {
+        Integer id = savedStateHandle.get(ID_KEY);
+        return id != null ? getDifficulty(id) : null;
     }
 
     public KenkenGame getKenkenById(int id) {
-        Kenken kenkenModel = kenkenRepository.findOneById(id);
+        Kenken kenkenModel = findKenken(id);
         return kenkenModel != null ? kenkenModel.game() : null;
     }
 
+    /**
+     * Get the sizes and difficulties a new game can be asked for.
+     *
+     * @return List of the new game options, from the smallest to the largest game.
+     */
+    public List<NewGameOption> getNewGameOptions() {
+        return NEW_GAME_OPTIONS;
+    }
+
+    /**
+     * Start getting new games of every option ready in the background, so that they can be fetched
+     * without waiting (see {@link #fetchNewGame(int, Difficulty)}).
+     */
+    public void prepareNewGames() {
+        for (NewGameOption option : NEW_GAME_OPTIONS) {
+            kenkenRepository.prepareNewGames(option.size(), option.difficulty());
+        }
+    }
+
+    /**
+     * Fetch a new game of the size and difficulty from the ready ones, without waiting for one.
+     * The game is kept in the saved state, since the repository does not keep it for long.
+     *
+     * @param size Size of the game.
+     * @param difficulty Difficulty of the game.
+     * @return true if a game was ready and is fetched.
+     */
+    public boolean fetchNewGame(int size, Difficulty difficulty) {
+        Kenken kenkenModel = kenkenRepository.takeNewGame(size, difficulty);
+        if (kenkenModel == null) {
+            return false;
+        }
+        savedStateHandle.set(NEW_GAME_KEY, kenkenModel.game().toString());
+        savedStateHandle.set(ID_KEY, kenkenModel.id());
+        return true;
+    }
+
     /**
      * Fetch a game by ID.
      *
      * @param id ID of the game to fetch.
      */
     public void fetchGame(int id) {
+        savedStateHandle.set(NEW_GAME_KEY, null);
         savedStateHandle.set(ID_KEY, id);
     }
 
@@ -214,7 +343,8 @@ public class GameViewModel extends ViewModel {
     }
 
     /**
-     * Get the next hint for the game.
+     * Get the next hint for the game. The hint engine deduces it without searching when it can,
+     * the solver is only run when the deductions are not enough.
      *
      * @return Pair containing the point and value for the next hint.
      */
@@ -227,12 +357,15 @@ public class GameViewModel extends ViewModel {
             return null;
         }
 
+        KenkenAnswer progress = Objects.requireNonNull(answerLiveData.getValue());
+        KenkenHintEngine.Hint hint = hintEngine.nextHint(kenken, progress);
+        if (hint != null) {
+            return new Pair<>(KenkenHelpers.pointOfSquare(hint.square()), hint.value());
+        }
+
         KenkenAnswer answer;
         synchronized (this) {
-            answer = getKenkenAnswer();
-            if (kenkenAnswerCache.get() != answer) {
-                kenkenAnswerCache = new SoftReference<>(answer);
-            }
+            answer = getKenkenAnswer(kenken);
         }
 
         if (answer == null || answer.isEmpty()) {
@@ -261,7 +394,7 @@ public class GameViewModel extends ViewModel {
     }
 
     public boolean isGameStarted() {
-        return kenkenLiveData.isInitialized();
+        return kenkenLiveData.isInitialized() && kenkenLiveData.getValue() != null;
     }
 
     public boolean isGameProgressing() {
@@ -362,7 +495,7 @@ public class GameViewModel extends ViewModel {
     }
 
     /**
-     * Calculate the score based on the time taken.
+     * Calculate the score based on the time taken and the rating of the game.
      *
      * @param timeInMillis Time taken to complete the game in milliseconds.
      * @return Calculated score.
@@ -376,8 +509,13 @@ public class GameViewModel extends ViewModel {
         int mistake = Objects.requireNonNull(mistakeCountLiveData.getValue());
         int hint = Objects.requireNonNull(hintUsedCountLiveData.getValue());
 
+        Difficulty difficulty = getCurrentDifficulty();
+        if (difficulty == null) {
+            return 0;
+        }
+
         StatisticalResult statistics = new StatisticalResult(timeInMillis, mistake, hint);
-        return scoreCalculator.calculateScore(kenken, statistics);
+        return scoreCalculator.calculateScore(kenken, difficulty, statistics);
     }
 
     /**
@@ -392,12 +530,16 @@ public class GameViewModel extends ViewModel {
                                 ),
                                 id -> {
                                     setIsProgressing(false);
-                                    kenkenAnswerCache = new SoftReference<>(null);
-                                    return kenkenRepository.findOneById(id);
+                                    Kenken kenkenModel = findKenken(id);
+                                    if (kenkenModel != null) {
+                                        // Rated ahead, so that the score does not wait for it
+                                        rateInBackground(kenkenModel);
+                                    }
+                                    return kenkenModel;
                                 }
                         )
                 ),
-                Kenken::game
+                kenkenModel -> kenkenModel != null ? kenkenModel.game() : null
         );
         this.answerLiveData = new MediatorLiveData<>();
         answerLiveData.addSource(
@@ -406,7 +548,10 @@ public class GameViewModel extends ViewModel {
         );
         this.pointValueMapLiveData = Transformations.map(
                 answerLiveData,
-                answer -> answerToPointValueMap(Objects.requireNonNull(kenkenLiveData.getValue()), answer)
+                answer -> {
+                    KenkenGame kenken = kenkenLiveData.getValue();
+                    return kenken != null ? answerToPointValueMap(kenken, answer) : Collections.emptyMap();
+                }
         );
         this.isGameCompletedLiveData = Transformations.distinctUntilChanged(
                 Transformations.map(
@@ -422,54 +567,132 @@ public class GameViewModel extends ViewModel {
     }
 
     /**
-     * Get the current Kenken answer.
+     * Take the ratings stored with the games, so that their games are not even read, and rate the others
+     * a batch at a time so that only the games of a batch are held, then sort the IDs of all games
+     * by their rating.
      *
-     * @return Kenken answer.
-     */
-    private KenkenAnswer getKenkenAnswer() {
-        final KenkenAnswer cache = kenkenAnswerCache.get();
-        if (cache != null) {
-            KenkenAnswer answer = Objects.requireNonNull(answerLiveData.getValue());
-            boolean sameAsCache = answer
-                    .getSquares()
-                    .stream()
-                    .filter(sqr -> answer.getValue(sqr) != Constants.Type.INVALID_INT)
-                    .allMatch(sqr -> answer.getValue(sqr) == cache.getValue(sqr));
-            if (sameAsCache) {
-                return cache;
+     * @return List of the game IDs, from the easiest to the hardest.
+     */
+    private List<Integer> sortIdsByDifficulty() {
+        List<Integer> ids = new ArrayList<>(kenkenRepository.findAllIds());
+        List<Kenken> unratedKenkens = new ArrayList<>(RATING_BATCH_SIZE);
+        for (int id : ids) {
+            if (!ratings.containsKey(id)) {
+                KenkenDifficultyRater.DifficultyRating storedRating = kenkenRepository.findRatingById(id);
+                if (storedRating != null) {
+                    ratings.put(id, storedRating);
+                }
+                else {
+                    unratedKenkens.add(kenkenRepository.findOneById(id));
+                }
+            }
+            if (unratedKenkens.size() == RATING_BATCH_SIZE) {
+                rateAll(unratedKenkens);
             }
         }
+        rateAll(unratedKenkens);
 
-        KenkenAnswer answer = cache;
-        KenkenAnswer currentProgressAnswer = kenkenSolver.solve(
-                kenkenLiveData.getValue(),
-                getCurrentProgress()
-        );
-        if (currentProgressAnswer != null && !currentProgressAnswer.isEmpty()) {
-            answer = currentProgressAnswer;
+        ids.sort(Comparator.comparingDouble(id -> ratings.get(id).score()));
+        return ids;
+    }
+
+    /**
+     * Rate the games together, in parallel, and clear the list.
+     *
+     * @param kenkenModels Games to rate.
+     */
+    private void rateAll(List<Kenken> kenkenModels) {
+        List<KenkenDifficultyRater.DifficultyRating> newRatings = difficultyRater.rateAll(
+                kenkenModels.stream().map(Kenken::game).collect(Collectors.toList()),
+                Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < kenkenModels.size(); i++) {
+            ratings.put(kenkenModels.get(i).id(), newRatings.get(i));
+        }
+        kenkenModels.clear();
+    }
+
+    /**
+     * Rate a game on a background thread, unless it is rated or being rated. A game that comes with
+     * its rating is not rated again.
+     *
+     * @param kenkenModel Game to rate.
+     */
+    private void rateInBackground(Kenken kenkenModel) {
+        int id = kenkenModel.id();
+        if (kenkenModel.rating() != null) {
+            ratings.putIfAbsent(id, kenkenModel.rating());
+            return;
         }
-        else if (cache == null) {
-            answer = kenkenSolver.solve(kenkenLiveData.getValue(), null);
+        if (ratings.containsKey(id) || !ratingIds.add(id)) {
+            return;
         }
-        return answer;
+        AsyncTaskExecutorService.THREAD_POOL.execute(() -> {
+            try {
+                ratings.putIfAbsent(id, difficultyRater.rate(kenkenModel.game()));
+            }
+            finally {
+                ratingIds.remove(id);
+            }
+        });
     }
 
     /**
-     * Get the current progress of the Kenken game.
+     * Find a game by ID. A new game the repository no longer keeps, or lost when the process was
+     * restarted, is rebuilt from the saved state when it is the current one.
      *
-     * @return Map containing the current progress.
+     * @param id ID of the game.
+     * @return The game, or null if it is not found.
      */
-    private Map<Square, Set<Integer>> getCurrentProgress() {
-        KenkenAnswer answer = Objects.requireNonNull(answerLiveData.getValue());
-        return answer
-                .getSquares()
-                .stream()
-                .filter(sqr -> answer.getValue(sqr) != Constants.Type.INVALID_INT)
-                .collect(
-                        HashMap::new,
-                        (map, sqr) -> map.put(sqr, Collections.singleton(answer.getValue(sqr))),
-                        HashMap::putAll
-                );
+    private Kenken findKenken(int id) {
+        Kenken kenkenModel = kenkenRepository.findOneById(id);
+        if (kenkenModel != null) {
+            return kenkenModel;
+        }
+
+        Kenken restored = restoredKenken;
+        if (restored != null && restored.id() == id) {
+            return restored;
+        }
+        Integer currentId = savedStateHandle.get(ID_KEY);
+        String description = savedStateHandle.get(NEW_GAME_KEY);
+        if (currentId == null || currentId != id || description == null) {
+            return null;
+        }
+        restored = new Kenken(id, KenkenGame.parseFromDescriptions(description));
+        restoredKenken = restored;
+        return restored;
+    }
+
+    /**
+     * Get the current Kenken answer. The solution the game came with is used when there is one,
+     * otherwise the solving session is kept between hints, so only the squares changed since
+     * the previous hint are solved again.
+     * The solve stops when the hint task is cancelled, since cancelling interrupts its thread.
+     *
+     * @param kenken Current Kenken game.
+     * @return Kenken answer, empty if the solve was cancelled.
+     */
+    private KenkenAnswer getKenkenAnswer(KenkenGame kenken) {
+        Integer id = savedStateHandle.get(ID_KEY);
+        Kenken kenkenModel = id != null ? findKenken(id) : null;
+        if (kenkenModel != null && kenkenModel.game() == kenken && kenkenModel.solution() != null) {
+            return kenkenModel.solution();
+        }
+
+        if (solvingSession == null || solvingSession.getKenken() != kenken) {
+            solvingSession = kenkenSolver.openSession(kenken);
+        }
+
+        CancellationToken token = new CancellationToken();
+        KenkenSolver.SolvingResult result = solvingSession.solve(
+                Objects.requireNonNull(answerLiveData.getValue()),
+                KenkenSolver.SolvingBudget.UNLIMITED,
+                token
+        );
+        if (result.status() == KenkenSolver.Status.UNSOLVABLE) {
+            result = solvingSession.solve(KenkenAnswer.emptyAnswer(), KenkenSolver.SolvingBudget.UNLIMITED, token);
+        }
+        return result.answer();
     }
 
     /**
@@ -23,4 +23,22 @@ public class CageTest {
 
         assertFalse(cage.isSolution(cageAnswer));
     }
+
+    /**
+     * Test method to verify that checking plain integer values gives the same result as
+     * checking a CageAnswer, for every operator and every pair of values of a 6x6 grid.
+     */
+    @Test
+    public void isSolution_integer_values_should_match_cage_answer() {
+        String[] descriptions = {"7 + a1 a2", "12 × a1 a2", "2 - a1 a2", "3 / a1 a2"};
+        for (String description : descriptions) {
+            Cage cage = Cage.parseCage(description, " ");
+            for (int a = 1; a <= 6; a++) {
+                for (int b = 1; b <= 6; b++) {
+                    CageAnswer cageAnswer = Answers.newCageAnswer(Arrays.asList(a, b));
+                    assertEquals(cage.isSolution(cageAnswer), cage.isSolution(new int[] {a, b}));
+                }
+            }
+        }
+    }
 }
\ No newline at end of file
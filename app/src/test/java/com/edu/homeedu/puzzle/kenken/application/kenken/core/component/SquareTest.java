@@ -0,0 +1,38 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.core.component;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SquareTest {
+
+    /**
+     * Test method to verify that rows past Z are written with several letters
+     * and parsed back to the same square.
+     */
+    @Test
+    public void of_multi_letter_rows_should_round_trip() {
+        assertEquals(Square.of(26, 3), Square.of("Z3"));
+        assertEquals(Square.of(27, 1), Square.of("AA1"));
+        assertEquals(Square.of(28, 12), Square.of("AB12"));
+        for (int row = 1; row <= 60; row++) {
+            Square square = Square.of(row, 25);
+            assertSame(square, Square.of(square.toString()));
+        }
+    }
+
+    /**
+     * Test method to verify that the pool never gives a square for other coordinates,
+     * even when the hash codes of both squares are equal.
+     */
+    @Test
+    public void of_should_keep_coordinates_of_large_grids() {
+        for (int row = 1; row <= 25; row++) {
+            for (int column = 1; column <= 25; column++) {
+                Square square = Square.of(row, column);
+                assertEquals(row, square.row());
+                assertEquals(column, square.column());
+            }
+        }
+    }
+}
\ No newline at end of file
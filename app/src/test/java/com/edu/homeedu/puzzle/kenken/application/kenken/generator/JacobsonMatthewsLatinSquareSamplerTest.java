@@ -0,0 +1,110 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class JacobsonMatthewsLatinSquareSamplerTest {
+    JacobsonMatthewsLatinSquareSampler sampler = new JacobsonMatthewsLatinSquareSampler();
+
+    /**
+     * Test method to verify that the sampled grids are latin squares, cold and warm started.
+     */
+    @Test
+    public void sample_should_latin_square() {
+        Random random = new Random(3);
+        for (int size = 1; size <= 16; size++) {
+            int[][] square = sampler.sample(size, random);
+            assertTrue(isLatinSquare(square));
+            assertTrue(isLatinSquare(sampler.sample(square, random)));
+        }
+    }
+
+    /**
+     * Test method to verify that the same seed gives the same square.
+     */
+    @Test
+    public void sample_same_seed_should_same_square() {
+        int[][] first = sampler.sample(9, new Random(11));
+        int[][] second = sampler.sample(9, new Random(11));
+
+        assertTrue(Arrays.deepEquals(first, second));
+    }
+
+    /**
+     * Test method to verify that the 576 latin squares of size 4 are drawn about as often as each other,
+     * cold and warm started. Unlike size 3, the squares of size 4 are not all alike, so a biased walk shows.
+     */
+    @Test
+    public void sample_should_near_uniform() {
+        final int squareCount = 576;
+        final int sampleCount = 20 * squareCount;
+        // The chi-square statistic has 575 degrees of freedom, so its mean is 575 and its deviation about 34
+        final double maxChiSquare = 750;
+
+        Random random = new Random(5);
+        Map<String, Integer> coldCounts = new HashMap<>();
+        Map<String, Integer> warmCounts = new HashMap<>();
+        int[][] square = sampler.sample(4, random);
+        for (int i = 0; i < sampleCount; i++) {
+            coldCounts.merge(Arrays.deepToString(sampler.sample(4, random)), 1, Integer::sum);
+            square = sampler.sample(square, random);
+            warmCounts.merge(Arrays.deepToString(square), 1, Integer::sum);
+        }
+
+        assertEquals(squareCount, coldCounts.size());
+        assertEquals(squareCount, warmCounts.size());
+        assertTrue(chiSquare(coldCounts, sampleCount, squareCount) < maxChiSquare);
+        assertTrue(chiSquare(warmCounts, sampleCount, squareCount) < maxChiSquare);
+    }
+
+    /**
+     * Test method to verify that a warm start from a grid that is not a latin square is rejected.
+     */
+    @Test
+    public void sample_start_not_latin_square_should_throw() {
+        int[][] start = { { 1, 2 }, { 1, 2 } };
+        try {
+            sampler.sample(start, new Random());
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            assertArrayEquals(new int[] { 1, 2 }, start[1]);
+        }
+    }
+
+    private static double chiSquare(Map<String, Integer> counts, int sampleCount, int squareCount) {
+        double expected = (double) sampleCount / squareCount;
+        double chiSquare = 0;
+        for (int count : counts.values()) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        return chiSquare;
+    }
+
+    private static boolean isLatinSquare(int[][] square) {
+        int size = square.length;
+        for (int i = 0; i < size; i++) {
+            Set<Integer> rowValues = new HashSet<>();
+            Set<Integer> columnValues = new HashSet<>();
+            for (int j = 0; j < size; j++) {
+                if (square[i][j] < 1 || square[i][j] > size) {
+                    return false;
+                }
+                rowValues.add(square[i][j]);
+                columnValues.add(square[j][i]);
+            }
+            if (rowValues.size() != size || columnValues.size() != size) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.generator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+
+public class RandomKenkenGeneratorTest {
+    KenkenSolver solver;
+    RandomKenkenGenerator generator;
+
+    @Before
+    public void setUp() {
+        solver = new ConstraintBasedKenkenSolver(
+                new CageConsistencyValuesInitializer(),
+                List.of(new ArcConsistencyConstraint(), new CageConsistencyConstraint()));
+        generator = new RandomKenkenGenerator(solver, new ShuffledLatinSquareSampler());
+    }
+
+    /**
+     * Test method to verify that the sampled grids are latin squares.
+     */
+    @Test
+    public void sample_should_latin_square() {
+        LatinSquareSampler sampler = new ShuffledLatinSquareSampler();
+        Random random = new Random(7);
+        for (int size = 1; size <= 9; size++) {
+            int[][] square = sampler.sample(size, random);
+            for (int i = 0; i < size; i++) {
+                Set<Integer> rowValues = new HashSet<>();
+                Set<Integer> columnValues = new HashSet<>();
+                for (int j = 0; j < size; j++) {
+                    rowValues.add(square[i][j]);
+                    columnValues.add(square[j][i]);
+                }
+                assertEquals(size, rowValues.size());
+                assertEquals(size, columnValues.size());
+                assertTrue(Collections.min(rowValues) >= 1);
+                assertEquals(size, (int) Collections.max(rowValues));
+            }
+        }
+    }
+
+    /**
+     * Test method to verify that every generated Kenken has a single solution and connected cages
+     * no larger than the limit.
+     */
+    @Test
+    public void generate_should_unique_kenken_with_connected_cages() {
+        Random random = new Random(42);
+        for (int size = 1; size <= 6; size++) {
+            for (int i = 0; i < 10; i++) {
+                KenkenGame kenken = generator.generate(size, random);
+
+                assertEquals(size, kenken.getSize());
+                assertTrue(solver.isUnique(kenken));
+                for (Cage cage : kenken.getCages()) {
+                    assertTrue(cage.size() <= RandomKenkenGenerator.MAX_CAGE_SIZE);
+                    assertTrue(isConnected(cage.getSquares()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test method to verify that the Kenkens generated from a seed don't depend on the parallelism.
+     */
+    @Test
+    public void generateAll_same_seed_should_same_kenkens() {
+        List<KenkenGame> serial = generator.generateAll(5, 20, 1234, 1);
+        List<KenkenGame> parallel = generator.generateAll(5, 20, 1234, 4);
+
+        assertEquals(20, serial.size());
+        assertEquals(serial, parallel);
+        assertTrue(serial.stream().allMatch(solver::isUnique));
+    }
+
+    /**
+     * Test method to verify that the generation gives up when its thread is interrupted.
+     */
+    @Test
+    public void generate_interrupted_should_null() {
+        Thread.currentThread().interrupt();
+        KenkenGame kenken = generator.generate(6, new Random(42));
+        boolean wasInterrupted = Thread.interrupted();
+
+        assertNull(kenken);
+        assertTrue(wasInterrupted);
+    }
+
+    private static boolean isConnected(Set<Square> squares) {
+        Set<Square> reached = new HashSet<>();
+        Deque<Square> pending = new ArrayDeque<>();
+        pending.add(squares.iterator().next());
+        while (!pending.isEmpty()) {
+            Square square = pending.pop();
+            if (!squares.contains(square) || !reached.add(square)) {
+                continue;
+            }
+            for (int[] offset : new int[][] { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } }) {
+                int row = square.row() + offset[0];
+                int column = square.column() + offset[1];
+                if (row >= 1 && column >= 1) {
+                    pending.push(Square.of(row, column));
+                }
+            }
+        }
+        return reached.size() == squares.size();
+    }
+}
\ No newline at end of file
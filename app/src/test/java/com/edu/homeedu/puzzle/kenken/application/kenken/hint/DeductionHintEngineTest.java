@@ -0,0 +1,73 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.hint;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+
+public class DeductionHintEngineTest {
+    DeductionHintEngine hintEngine;
+    KenkenGame kenken;
+
+    /**
+     * Sets up the hint engine with every technique and a 4x4 Kenken game with a single solution.
+     */
+    @Before
+    public void setUp() {
+        hintEngine = new DeductionHintEngine();
+        kenken = KenkenGame.parseFromDescriptions(
+            """
+            7 + A1 B1; 2 / C1 D1;
+            1 - A2 A3; 3 - B2 B3;
+            2 / A4 B4; 3 = C2;
+            12 × C3 C4 D4; 2 / D2 D3
+            """
+        );
+    }
+
+    /**
+     * Test method to verify that the square of a single square cage is the first hint.
+     */
+    @Test
+    public void nextHint_empty_progress_should_give_single_square_cage() {
+        KenkenHintEngine.Hint hint = hintEngine.nextHint(kenken, KenkenAnswer.emptyAnswer());
+
+        assertEquals(new KenkenHintEngine.Hint(Square.of("C2"), 3, KenkenHintEngine.Technique.SINGLES, false), hint);
+    }
+
+    /**
+     * Test method to verify that filling in every hint solves the Kenken, and that no hint is left afterwards.
+     */
+    @Test
+    public void nextHint_filled_hints_should_solve() {
+        KenkenAnswer progress = KenkenAnswer.emptyAnswer();
+        for (int i = 0; i < kenken.getSize() * kenken.getSize(); i++) {
+            KenkenHintEngine.Hint hint = hintEngine.nextHint(kenken, progress);
+            assertNotNull(hint);
+            assertFalse(hint.correction());
+            progress.setValue(hint.square(), hint.value());
+        }
+
+        assertTrue(kenken.isSolution(progress));
+        assertNull(hintEngine.nextHint(kenken, progress));
+    }
+
+    /**
+     * Test method to verify that a wrong value of the player is corrected before any empty square is hinted.
+     */
+    @Test
+    public void nextHint_wrong_value_should_be_corrected() {
+        KenkenAnswer progress = KenkenAnswer.emptyAnswer();
+        progress.setValue(Square.of("C2"), 1);
+
+        KenkenHintEngine.Hint hint = hintEngine.nextHint(kenken, progress);
+
+        assertEquals(Square.of("C2"), hint.square());
+        assertEquals(3, hint.value());
+        assertTrue(hint.correction());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.rating;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.DeductionHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.KenkenHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+
+public class EffortBasedDifficultyRaterTest {
+    EffortBasedDifficultyRater rater;
+
+    /**
+     * Sets up the rater with every technique and a solver collecting statistics.
+     */
+    @Before
+    public void setUp() {
+        ConstraintBasedKenkenSolver solver = new ConstraintBasedKenkenSolver(
+                new CageConsistencyValuesInitializer(),
+                List.of(new ArcConsistencyConstraint(), new CageConsistencyConstraint()));
+        solver.enableStatistics(System::nanoTime);
+        rater = new EffortBasedDifficultyRater(new DeductionHintEngine(), solver);
+    }
+
+    /**
+     * Test method to verify that a Kenken solved with singles alone rates easier than one
+     * needing harder techniques, and that a single square Kenken is the easiest.
+     */
+    @Test
+    public void rate_harder_techniques_should_rate_higher() {
+        KenkenGame trivial = KenkenGame.parseFromDescriptions("1 = A1");
+        KenkenGame singles = KenkenGame.parseFromDescriptions(
+            """
+            3 = A1; 1 - A2 A3;
+            1 - B1 C1; 2 = B2;
+            7 + B3 C2 C3
+            """
+        );
+        KenkenGame subsets = KenkenGame.parseFromDescriptions(
+            """
+            7 + A1 B1; 2 / C1 D1;
+            1 - A2 A3; 3 - B2 B3;
+            2 / A4 B4; 3 = C2;
+            12 × C3 C4 D4; 2 / D2 D3
+            """
+        );
+
+        KenkenDifficultyRater.DifficultyRating trivialRating = rater.rate(trivial);
+        KenkenDifficultyRater.DifficultyRating singlesRating = rater.rate(singles);
+        KenkenDifficultyRater.DifficultyRating subsetsRating = rater.rate(subsets);
+
+        assertEquals(Difficulty.Basic, trivialRating.difficulty());
+        assertEquals(0, singlesRating.nodes());
+        assertTrue(trivialRating.score() < singlesRating.score());
+        assertTrue(singlesRating.score() < subsetsRating.score());
+        assertTrue(subsetsRating.hardestTechnique().compareTo(KenkenHintEngine.Technique.CAGE_COMBINATIONS) >= 0);
+    }
+
+    /**
+     * Test method to verify that a Kenken with several solutions is rated from the search
+     * the techniques leave to the solver.
+     */
+    @Test
+    public void rate_ambiguous_should_count_search() {
+        KenkenGame ambiguous = KenkenGame.parseFromDescriptions(
+            """
+            6 + A1 A2 A3; 6 + B1 B2 B3; 6 + C1 C2 C3
+            """
+        );
+
+        KenkenDifficultyRater.DifficultyRating rating = rater.rate(ambiguous);
+
+        assertTrue(rating.nodes() > 0);
+        assertTrue(rating.maxDepth() > 0);
+    }
+
+    /**
+     * Test method to verify that rating in parallel gives the same ratings as one at a time, in order.
+     */
+    @Test
+    public void rateAll_should_match_rate_in_order() {
+        List<KenkenGame> kenkens = List.of(
+                KenkenGame.parseFromDescriptions("1 = A1"),
+                KenkenGame.parseFromDescriptions("2 × A1 B1; 1 - A2 B2"),
+                KenkenGame.parseFromDescriptions("3 + A1 B1; 5 + A2 B2; 1 = A3; 4 + C1 C2; 5 + B3 C3")
+        );
+
+        List<KenkenDifficultyRater.DifficultyRating> ratings = rater.rateAll(kenkens, 2);
+
+        assertEquals(kenkens.size(), ratings.size());
+        for (int i = 0; i < kenkens.size(); i++) {
+            assertEquals(rater.rate(kenkens.get(i)).score(), ratings.get(i).score(), 1e-9);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.repair;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Cage;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+
+public class CageSplittingRepairEngineTest {
+    KenkenSolver solver;
+    CageSplittingRepairEngine engine;
+
+    @Before
+    public void setUp() {
+        solver = new ConstraintBasedKenkenSolver(
+                new CageConsistencyValuesInitializer(),
+                List.of(new ArcConsistencyConstraint(), new CageConsistencyConstraint()));
+        engine = new CageSplittingRepairEngine(solver);
+    }
+
+    /**
+     * Test method to verify that a Kenken with many solutions is repaired into one with a single
+     * solution, by splitting its cages only.
+     */
+    @Test
+    public void repair_ambiguous_kenken_should_unique() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 A2 A3 A4;
+            10 + B1 B2 B3 B4;
+            10 + C1 C2 C3 C4;
+            10 + D1 D2 D3 D4
+            """
+        );
+
+        KenkenRepairEngine.Repair repair = engine.repair(kenken);
+
+        assertTrue(solver.isUnique(repair.kenken()));
+        assertTrue(repair.kenken().isSolution(repair.solution()));
+        assertTrue(kenken.isSolution(repair.solution()));
+        assertTrue(repair.splitCages() > 0);
+        assertTrue(repair.fullSolves() <= repair.splitCages());
+        for (Cage cage : repair.kenken().getCages()) {
+            Cage original = kenken.getSquareCageMap().get(cage.getFirstSquare());
+            assertTrue(original.getSquares().containsAll(cage.getSquares()));
+        }
+    }
+
+    /**
+     * Test method to verify that a Kenken with a single solution is left as it is.
+     */
+    @Test
+    public void repair_unique_kenken_should_same_kenken() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            3 = A1; 1 - A2 A3;
+            1 - B1 C1; 2 = B2;
+            7 + B3 C2 C3
+            """
+        );
+
+        KenkenRepairEngine.Repair repair = engine.repair(kenken);
+
+        assertSame(kenken, repair.kenken());
+        assertEquals(0, repair.splitCages());
+        assertEquals(1, repair.fullSolves());
+    }
+
+    /**
+     * Test method to verify that a Kenken with no solution can't be repaired.
+     */
+    @Test
+    public void repair_unsolvable_kenken_should_null() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions("1 = A1; 1 = A2; 3 + B1 B2");
+
+        assertNull(engine.repair(kenken));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CageFeasibilityCacheTest {
+    /**
+     * Test method to verify that a result is found again for equal domains of the same cage only,
+     * and that the lookups are counted.
+     */
+    @Test
+    public void get_should_hit_same_cage_and_domains() {
+        CageFeasibilityCache cache = new CageFeasibilityCache();
+        int[] possible = { 0b110, 0b110 };
+        cache.put(3, new int[] { 0b1110, 0b110 }, possible);
+
+        assertSame(possible, cache.get(3, new int[] { 0b1110, 0b110 }));
+        assertNull(cache.get(3, new int[] { 0b1110, 0b1110 }));
+        assertNull(cache.get(4, new int[] { 0b1110, 0b110 }));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Test method to verify that a full cache replaces its entries instead of growing.
+     */
+    @Test
+    public void put_beyond_capacity_should_replace_entries() {
+        CageFeasibilityCache cache = new CageFeasibilityCache(4);
+        for (int domain = 1; domain <= 16; domain++) {
+            cache.put(0, new int[] { domain }, new int[] { domain });
+        }
+
+        int cached = 0;
+        for (int domain = 1; domain <= 16; domain++) {
+            if (cache.get(0, new int[] { domain }) != null) {
+                cached++;
+            }
+        }
+        assertTrue(cached <= 4);
+        assertTrue(cached > 0);
+    }
+}
\ No newline at end of file
@@ -6,14 +6,28 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
 import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.core.component.Square;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.BranchingStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.DomainOverWeightedDegreeStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.GridSizeBranchingStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.ImpactBasedStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.LeastConstrainingValueStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.branching.MinimumRemainingValuesStrategy;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.AllDifferentConsistencyConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageBoundsConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.DualConsistencyConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.KenkenEliminatingConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.PrimeFactorConstraint;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
 import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.KenkenValuesInitializer;
 
@@ -80,4 +94,359 @@ public class ConstraintBasedKenkenSolverTest {
         assertTrue(kenken2.isSolution(answer2));
         assertTrue(kenken3.isSolution(answer3));
     }
+
+    /**
+     * Test method to verify that both backtracking modes of the solver find the same solution,
+     * whether the branches copy the domains or undo their removals from the trail.
+     */
+    @Test
+    public void solve_copy_and_trail_backtracking_should_same() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            3 - a1 b1; 108 × a2 a3 b3; 13 + a4 b4 b5; 2 / a5 a6; 13 + a7 b6 b7;
+            3 - b2 c2; 70 × c1 d1 e1; 5 = d2; 504 × c3 c4 d3 e3 e4; 60 × c5 d4 d5 e5;
+            4 - c6 c7; 1 - d6 d7; 6 - e6 e7; 2 / f1 g1; 2 / g2 g3; 30 × e2 f2 f3;
+            140 × f4 f5 g4; 1 - g5 g6; 14 + f6 f7 g7
+            """
+        );
+        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer();
+        Collection<KenkenEliminatingConstraint> constraints = List.of(
+                new ArcConsistencyConstraint(),
+                new DualConsistencyConstraint(),
+                new CageConsistencyConstraint()
+        );
+        ConstraintBasedKenkenSolver copyingSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer, constraints, ConstraintBasedKenkenSolver.Backtracking.COPY);
+        ConstraintBasedKenkenSolver trailingSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer, constraints, ConstraintBasedKenkenSolver.Backtracking.TRAIL);
+
+        KenkenAnswer copied = copyingSolver.solve(kenken, null);
+        KenkenAnswer trailed = trailingSolver.solve(kenken, null);
+
+        assertTrue(kenken.isSolution(copied));
+        assertEquals(copied, trailed);
+    }
+
+    /**
+     * Test method to verify that the parallel search of the solver finds a correct solution
+     * of a 9x9 Kenken puzzle.
+     */
+    @Test
+    public void solve_parallel_should_correct() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 B1; 7 * A2 A3; 13 + A4 A5 B4; 2 / A6  A7; 12 + A8 B7 B8; 63 * A9 B9;
+            15 * B2 B3; 144 * B5 B6 C5;
+            6 * C1 D1 E1; 4 - C2 C3; 8 + C4 D4; 22 + C6 D5 D6; 2 / C7 D7; 5 + C8 C9;
+            25 + D2 D3 E2 E3; 1 - D8 E8; 11 + D9 E9;
+            36 * E4 F4; 15 * E5 F5; 4 - E6 E7;
+            2 - F1 G1; 6 - F2 F3; 2 / F6 F7; 56 * F8 F9 G8 G9;
+            9 * G2 G3; 10 + G4 G5; 24 * G6 G7;
+            1 - H1 I1; 1 - H2 I2; 3 / H3 I3; 3 - H4 I4; 5 - H5 I5; 35 * H6 I6; 5 - H7 H8; 9 + H9 I9;
+            4 - I7 I8
+            """
+        );
+
+        KenkenAnswer answer = solver.solve(kenken, null, 4);
+
+        assertTrue(kenken.isSolution(answer));
+    }
+
+    /**
+     * Test method to verify that the solver counts every solution of an ambiguous Kenken puzzle,
+     * stops at the given limit, and recognizes a puzzle with a single solution.
+     */
+    @Test
+    public void countSolutions_should_stop_at_limit() {
+        // Every 3x3 latin square solves it, and there are 12 of them
+        KenkenGame ambiguous = KenkenGame.parseFromDescriptions(
+            """
+            6 + A1 A2 A3; 6 + B1 B2 B3; 6 + C1 C2 C3
+            """
+        );
+        KenkenGame unique = KenkenGame.parseFromDescriptions(
+            """
+            7 + A1 B1; 2 / C1 D1;
+            1 - A2 A3; 3 - B2 B3;
+            2 / A4 B4; 3 = C2;
+            12 × C3 C4 D4; 2 / D2 D3
+            """
+        );
+
+        KenkenSolver.SolutionCount all = solver.countSolutions(ambiguous, 100);
+        KenkenSolver.SolutionCount limited = solver.countSolutions(ambiguous, 5);
+
+        assertEquals(12, all.solutions());
+        assertFalse(all.limitReached());
+        assertEquals(5, limited.solutions());
+        assertTrue(limited.limitReached());
+        assertTrue(limited.nodes() < all.nodes());
+        assertFalse(solver.isUnique(ambiguous));
+        assertTrue(solver.isUnique(unique));
+    }
+
+    /**
+     * Test method to verify that a solving session follows the changes of the progress,
+     * reuses its previous solution while it still agrees, and rejects conflicting progress.
+     */
+    @Test
+    public void session_should_follow_progress() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            6 + A1 A2 A3; 6 + B1 B2 B3; 6 + C1 C2 C3
+            """
+        );
+        KenkenSolvingSession session = solver.openSession(kenken);
+        Square a1 = Square.of(1, 1);
+        Square a2 = Square.of(1, 2);
+        KenkenAnswer progress = new KenkenAnswer();
+
+        progress.setValue(a1, 3);
+        KenkenAnswer first = session.solve(progress);
+        assertTrue(kenken.isSolution(first));
+        assertEquals(3, first.getValue(a1));
+        assertSame(first, session.solve(progress));
+
+        progress.setValue(a1, 1);
+        progress.setValue(a2, 3);
+        KenkenAnswer second = session.solve(progress);
+        assertTrue(kenken.isSolution(second));
+        assertEquals(1, second.getValue(a1));
+        assertEquals(3, second.getValue(a2));
+
+        progress.setValue(a2, 1);
+        assertTrue(session.solve(progress).isEmpty());
+
+        progress.removeValue(a2);
+        KenkenAnswer third = session.solve(progress);
+        assertTrue(kenken.isSolution(third));
+        assertEquals(1, third.getValue(a1));
+    }
+
+    /**
+     * Test method to verify that a budgeted solve tells a solved, an unsolvable, an exhausted
+     * and a cancelled solve apart.
+     */
+    @Test
+    public void solve_with_budget_should_report_status() {
+        KenkenGame ambiguous = KenkenGame.parseFromDescriptions(
+            """
+            6 + A1 A2 A3; 6 + B1 B2 B3; 6 + C1 C2 C3
+            """
+        );
+        KenkenGame unsolvable = KenkenGame.parseFromDescriptions(
+            """
+            1 = A1; 1 = A2; 3 + B1 B2
+            """
+        );
+        CancellationToken cancelledToken = new CancellationToken();
+        cancelledToken.cancel();
+
+        KenkenSolver.SolvingResult solved = solver.solve(
+                ambiguous, null, KenkenSolver.SolvingBudget.UNLIMITED, new CancellationToken());
+        KenkenSolver.SolvingResult noSolution = solver.solve(
+                unsolvable, null, KenkenSolver.SolvingBudget.UNLIMITED, new CancellationToken());
+        KenkenSolver.SolvingResult exhausted = solver.solve(
+                ambiguous, null, new KenkenSolver.SolvingBudget(0, Long.MAX_VALUE, Long.MAX_VALUE), new CancellationToken());
+        KenkenSolver.SolvingResult cancelled = solver.solve(
+                ambiguous, null, KenkenSolver.SolvingBudget.UNLIMITED, cancelledToken);
+
+        assertEquals(KenkenSolver.Status.SOLVED, solved.status());
+        assertTrue(ambiguous.isSolution(solved.answer()));
+        assertEquals(KenkenSolver.Status.UNSOLVABLE, noSolution.status());
+        assertEquals(KenkenSolver.Status.BUDGET_EXCEEDED, exhausted.status());
+        assertTrue(exhausted.answer().isEmpty());
+        assertEquals(KenkenSolver.Status.CANCELLED, cancelled.status());
+        assertTrue(cancelled.answer().isEmpty());
+    }
+
+    /**
+     * Test method to verify that the solver collects statistics only when they are enabled,
+     * and counts the work of the search and of every constraint class.
+     */
+    @Test
+    public void solve_with_statistics_should_count_work() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            3 - a1 b1; 108 × a2 a3 b3; 13 + a4 b4 b5; 2 / a5 a6; 13 + a7 b6 b7;
+            3 - b2 c2; 70 × c1 d1 e1; 5 = d2; 504 × c3 c4 d3 e3 e4; 60 × c5 d4 d5 e5;
+            4 - c6 c7; 1 - d6 d7; 6 - e6 e7; 2 / f1 g1; 2 / g2 g3; 30 × e2 f2 f3;
+            140 × f4 f5 g4; 1 - g5 g6; 14 + f6 f7 g7
+            """
+        );
+
+        KenkenSolver.SolvingResult disabled = solver.solve(
+                kenken, null, KenkenSolver.SolvingBudget.UNLIMITED, new CancellationToken());
+        solver.enableStatistics(System::nanoTime);
+        KenkenSolver.SolvingResult enabled = solver.solve(
+                kenken, null, KenkenSolver.SolvingBudget.UNLIMITED, new CancellationToken());
+        SolverStatistics statistics = enabled.statistics();
+
+        assertNull(disabled.statistics());
+        assertTrue(enabled.isSolved());
+        assertNotNull(statistics);
+        assertTrue(statistics.getNodes() >= statistics.getBacktracks());
+        assertTrue(statistics.getMaxDepth() <= statistics.getNodes());
+        assertTrue(statistics.getEliminations() > 0);
+        assertTrue(statistics.getCageTupleEvaluations() > 0);
+        assertEquals(3, statistics.getConstraintStatistics().size());
+        assertEquals(CageConsistencyConstraint.class, statistics.getConstraintStatistics().get(2).constraint());
+        assertTrue(statistics.getConstraintStatistics().get(2).invocations() > 0);
+        assertTrue(statistics.getWallNanos(SolverStatistics.Phase.PROPAGATION) > 0);
+    }
+
+    /**
+     * Test method to verify that the backjumping search finds the same solution as the chronological one,
+     * since it only skips branches without solutions, and that it jumps and learns on the way.
+     */
+    @Test
+    public void solve_backjumping_should_same_as_trail() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 B1; 7 * A2 A3; 13 + A4 A5 B4; 2 / A6  A7; 12 + A8 B7 B8; 63 * A9 B9;
+            15 * B2 B3; 144 * B5 B6 C5;
+            6 * C1 D1 E1; 4 - C2 C3; 8 + C4 D4; 22 + C6 D5 D6; 2 / C7 D7; 5 + C8 C9;
+            25 + D2 D3 E2 E3; 1 - D8 E8; 11 + D9 E9;
+            36 * E4 F4; 15 * E5 F5; 4 - E6 E7;
+            2 - F1 G1; 6 - F2 F3; 2 / F6 F7; 56 * F8 F9 G8 G9;
+            9 * G2 G3; 10 + G4 G5; 24 * G6 G7;
+            1 - H1 I1; 1 - H2 I2; 3 / H3 I3; 3 - H4 I4; 5 - H5 I5; 35 * H6 I6; 5 - H7 H8; 9 + H9 I9;
+            4 - I7 I8
+            """
+        );
+        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer();
+        Collection<KenkenEliminatingConstraint> constraints = List.of(
+                new ArcConsistencyConstraint(),
+                new CageConsistencyConstraint()
+        );
+        ConstraintBasedKenkenSolver trailingSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer, constraints, ConstraintBasedKenkenSolver.Backtracking.TRAIL);
+        ConstraintBasedKenkenSolver backjumpingSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer, constraints, ConstraintBasedKenkenSolver.Backtracking.BACKJUMPING);
+        backjumpingSolver.enableStatistics(System::nanoTime);
+
+        KenkenAnswer trailed = trailingSolver.solve(kenken, null);
+        KenkenSolver.SolvingResult backjumped = backjumpingSolver.solve(
+                kenken, null, KenkenSolver.SolvingBudget.UNLIMITED, new CancellationToken());
+
+        assertTrue(kenken.isSolution(trailed));
+        assertEquals(trailed, backjumped.answer());
+        assertTrue(backjumped.statistics().getBackjumps() > 0);
+        assertTrue(backjumped.statistics().getNogoods() > 0);
+    }
+
+    /**
+     * Test method to verify that every branching strategy leads to a correct solution of a 9x9 Kenken puzzle,
+     * with chronological backtracking and with backjumping.
+     */
+    @Test
+    public void solve_every_branching_strategy_should_correct() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 B1; 7 * A2 A3; 13 + A4 A5 B4; 2 / A6  A7; 12 + A8 B7 B8; 63 * A9 B9;
+            15 * B2 B3; 144 * B5 B6 C5;
+            6 * C1 D1 E1; 4 - C2 C3; 8 + C4 D4; 22 + C6 D5 D6; 2 / C7 D7; 5 + C8 C9;
+            25 + D2 D3 E2 E3; 1 - D8 E8; 11 + D9 E9;
+            36 * E4 F4; 15 * E5 F5; 4 - E6 E7;
+            2 - F1 G1; 6 - F2 F3; 2 / F6 F7; 56 * F8 F9 G8 G9;
+            9 * G2 G3; 10 + G4 G5; 24 * G6 G7;
+            1 - H1 I1; 1 - H2 I2; 3 / H3 I3; 3 - H4 I4; 5 - H5 I5; 35 * H6 I6; 5 - H7 H8; 9 + H9 I9;
+            4 - I7 I8
+            """
+        );
+        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer();
+        Collection<KenkenEliminatingConstraint> constraints = List.of(
+                new ArcConsistencyConstraint(),
+                new CageConsistencyConstraint()
+        );
+        List<BranchingStrategy> strategies = List.of(
+                new MinimumRemainingValuesStrategy(),
+                new DomainOverWeightedDegreeStrategy(),
+                new ImpactBasedStrategy(),
+                new LeastConstrainingValueStrategy(new MinimumRemainingValuesStrategy()),
+                new GridSizeBranchingStrategy(
+                        new MinimumRemainingValuesStrategy(),
+                        Map.of(7, new DomainOverWeightedDegreeStrategy()))
+        );
+
+        for (BranchingStrategy strategy : strategies) {
+            for (ConstraintBasedKenkenSolver.Backtracking backtracking : ConstraintBasedKenkenSolver.Backtracking.values()) {
+                ConstraintBasedKenkenSolver branchingSolver = new ConstraintBasedKenkenSolver(
+                        valuesInitializer, constraints, backtracking, strategy);
+
+                assertTrue(kenken.isSolution(branchingSolver.solve(kenken, null)));
+            }
+        }
+    }
+
+    /**
+     * Test method to verify that a 16x16 Kenken puzzle is solved with bounds reasoning on its larger cages
+     * instead of enumerating their tuples.
+     */
+    @Test
+    public void solve_16x16_kenken_should_correct() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            1680 * A1 B1 C1 A2; 84 * A3 B3 A4; 1890 * A5 A6 B5; 1 - A7 B7; 10 = A8; 1 - A9 A10; 13 = A11;
+            8 - A12 A13; 34 + A14 B14 B13; 5 = A15; 4 = A16; 31 + B2 C2 D2; 12 - B4 C4; 1 - B6 C6; 9 - B8 C8;
+            11648 * B9 B10 C9 C10; 8 * B11 B12; 180 * B15 C15 C14; 19 + B16 C16; 7 - C3 D3; 11 + C5 D5;
+            10 + C7 D7 D6; 6 = C11; 1872 * C12 C13 D12; 2 - D1 E1; 504 * D4 E4 F4; 6 - D8 D9; 11 - D10 D11;
+            132 * D13 D14; 8 / D15 D16; 10 = E2; 9 - E3 F3; 2 - E5 F5; 13 / E6 E7; 192 * E8 E9 E10; 8 = E11;
+            5 = E12; 3 / E13 E14; 3 - E15 F15; 27 + E16 F16 G16; 21 + F1 F2; 1 - F6 F7; 2 - F8 F9;
+            24 + F10 G10; 3 - F11 G11; 14 - F12 G12; 5 = F13; 14 = F14; 8 = G1; 3 * G2 H2; 19 + G3 G4;
+            72 * G5 G6; 7 - G7 G8; 6 - G9 H9; 10 - G13 H13; 338 * G14 G15 H14; 480 * H1 I1 I2; 10 - H3 H4;
+            6 / H5 I5; 31 + H6 H7 I7 I8; 1 = H8; 480 * H10 H11 I11; 14 + H12 I12; 3 - H15 H16; 12 - I3 I4;
+            3 / I6 J6; 30 * I9 I10; 3 - I13 I14; 2 - I15 I16; 29 + J1 K1 L1; 13 = J2; 18 + J3 J4; 13 + J5 K5;
+            176 * J7 K7; 16 + J8 J9 J10; 10 - J11 J12; 1800 * J13 K13 K14; 56 * J14 J15 J16; 6 = K2;
+            1920 * K3 L3 L4; 3 = K4; 2 = K6; 13 = K8; 3 - K9 K10; 5 - K11 K12; 35 * K15 K16; 224 * L2 M2 M1;
+            17 + L5 L6 M5; 5 = L7; 2520 * L8 M8 L9; 9 / L10 L11; 224 * L12 L13 L14; 143 * L15 L16; 1 - M3 M4;
+            195 * M6 M7; 4 - M9 M10; 27 + M11 M12 N12 M13; 8 - M14 N14; 8 = M15; 21 + M16 N16 O16; 1 - N1 O1;
+            468 * N2 N3 N4; 8 - N5 O5; 15 = N6; 10 = N7; 4 - N8 N9; 2 = N10; 33 + N11 O11 O10 P10; 6 = N13;
+            3 = N15; 8 / O2 P2; 25 + O3 O4 P3; 8 - O6 O7; 336 * O8 O9 P9; 20 + O12 P12; 17 + O13 P13;
+            120 * O14 P14; 4 * O15 P15; 1 = P1; 13728 * P4 P5 P6 P7; 5 = P8; 15 = P11; 10 = P16;
+            """
+        );
+        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer(3);
+        Collection<KenkenEliminatingConstraint> constraints = List.of(
+                new ArcConsistencyConstraint(),
+                new AllDifferentConsistencyConstraint(),
+                new PrimeFactorConstraint(),
+                new CageBoundsConstraint(),
+                new CageConsistencyConstraint(3)
+        );
+        ConstraintBasedKenkenSolver largeGridSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer,
+                constraints,
+                ConstraintBasedKenkenSolver.Backtracking.TRAIL,
+                new LeastConstrainingValueStrategy(new DomainOverWeightedDegreeStrategy()));
+
+        assertEquals(16, kenken.getSize());
+        assertTrue(kenken.isSolution(largeGridSolver.solve(kenken, null)));
+    }
+
+    /**
+     * Test method to verify that the solutions are streamed one at a time, every one of them correct
+     * and different, and that limiting the stream stops the search.
+     */
+    @Test
+    public void solutions_should_stream_every_solution() {
+        // Every 4x4 latin square solves it, and there are 576 of them
+        KenkenGame ambiguous = KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 A2 A3 A4; 10 + B1 B2 B3 B4; 10 + C1 C2 C3 C4; 10 + D1 D2 D3 D4
+            """
+        );
+
+        List<KenkenAnswer> all = solver.solutions(ambiguous, null).collect(Collectors.toList());
+        List<KenkenAnswer> limited = solver.solutions(ambiguous, null).limit(5).collect(Collectors.toList());
+
+        assertEquals(576, all.size());
+        assertEquals(576, new HashSet<>(all).size());
+        assertTrue(all.stream().allMatch(ambiguous::isSolution));
+        assertEquals(all.subList(0, 5), limited);
+        assertEquals(1, solver.solutions(ambiguous, Map.of(
+                Square.of("A1"), Set.of(1), Square.of("A2"), Set.of(2), Square.of("A3"), Set.of(3),
+                Square.of("B1"), Set.of(2), Square.of("B2"), Set.of(1), Square.of("B4"), Set.of(3),
+                Square.of("C1"), Set.of(3), Square.of("C3"), Set.of(1), Square.of("C4"), Set.of(2))).count());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+public class AllDifferentConsistencyConstraintTest {
+    AllDifferentConsistencyConstraint constraint;
+    SolvingTopology topology;
+
+    @Before
+    public void setUp() {
+        constraint = new AllDifferentConsistencyConstraint();
+        topology = new SolvingTopology(KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 A2 A3 A4; 10 + B1 B2 B3 B4;
+            10 + C1 C2 C3 C4; 10 + D1 D2 D3 D4
+            """
+        ));
+    }
+
+    /**
+     * Test method to verify that values taken by a group of squares with the same candidates
+     * are removed from the other squares of the row.
+     */
+    @Test
+    public void testUnit_should_remove_values_of_closed_groups() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[0] = BitmaskHelpers.range(1, 2);
+        domains[1] = BitmaskHelpers.range(1, 2);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertTrue(constraint.testUnit(context, topology.getRowUnitIndex(0)));
+        assertEquals(BitmaskHelpers.range(1, 2), context.getDomain(0));
+        assertEquals(BitmaskHelpers.range(3, 4), context.getDomain(2));
+        assertEquals(BitmaskHelpers.range(3, 4), context.getDomain(3));
+    }
+
+    /**
+     * Test method to verify that a row with more squares than candidate values fails.
+     */
+    @Test
+    public void testUnit_without_matching_should_fail() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[0] = BitmaskHelpers.range(1, 2);
+        domains[1] = BitmaskHelpers.range(1, 2);
+        domains[2] = BitmaskHelpers.range(1, 2);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertFalse(constraint.testUnit(context, topology.getRowUnitIndex(0)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+public class CageBoundsConstraintTest {
+    CageBoundsConstraint constraint;
+    SolvingTopology topology;
+
+    @Before
+    public void setUp() {
+        constraint = new CageBoundsConstraint();
+        topology = new SolvingTopology(KenkenGame.parseFromDescriptions(
+            """
+            6 + A1 A2 A3; 12 * A4 B4; 10 + B1 B2 B3 C1;
+            10 + C2 C3 C4 D4; 6 + D1 D2 D3
+            """
+        ));
+    }
+
+    /**
+     * Test method to verify that a value is removed when the other squares of the row cannot take
+     * values small enough, since they must differ.
+     */
+    @Test
+    public void testCage_addition_should_use_distinct_values_of_rows() {
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint);
+
+        assertTrue(constraint.testCage(context, topology.getCageIndex(0)));
+        assertEquals(BitmaskHelpers.range(1, 3), context.getDomain(0));
+        assertEquals(BitmaskHelpers.range(1, 3), context.getDomain(1));
+        assertEquals(BitmaskHelpers.range(1, 3), context.getDomain(2));
+    }
+
+    /**
+     * Test method to verify that the values too small to reach the product are removed.
+     */
+    @Test
+    public void testCage_multiplication_should_remove_values_out_of_bounds() {
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint);
+
+        assertTrue(constraint.testCage(context, topology.getCageIndex(3)));
+        assertEquals(BitmaskHelpers.range(3, 4), context.getDomain(3));
+        assertEquals(BitmaskHelpers.range(3, 4), context.getDomain(7));
+    }
+
+    /**
+     * Test method to verify that a cage whose squares cannot reach the target fails.
+     */
+    @Test
+    public void testCage_out_of_reach_should_fail() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[3] = BitmaskHelpers.range(1, 2);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertFalse(constraint.testCage(context, topology.getCageIndex(3)));
+    }
+}
\ No newline at end of file
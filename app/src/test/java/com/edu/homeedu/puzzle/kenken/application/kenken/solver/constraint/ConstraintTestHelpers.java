@@ -0,0 +1,32 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+
+final class ConstraintTestHelpers {
+    private ConstraintTestHelpers() {}
+
+    static SolvingContext newContext(SolvingTopology topology, KenkenEliminatingConstraint constraint) {
+        return newContext(topology, constraint, fullDomains(topology));
+    }
+
+    /**
+     * @return a context over the given domains, whose removals are propagated by the given constraint only.
+     */
+    static SolvingContext newContext(SolvingTopology topology, KenkenEliminatingConstraint constraint, int[] domains) {
+        ConstraintBasedKenkenSolver processor =
+                new ConstraintBasedKenkenSolver(new CageConsistencyValuesInitializer(), List.of(constraint));
+        return new SolvingContext(topology, processor, domains);
+    }
+
+    static int[] fullDomains(SolvingTopology topology) {
+        int[] domains = new int[topology.getCellCount()];
+        Arrays.fill(domains, topology.getFullDomain());
+        return domains;
+    }
+}
\ No newline at end of file
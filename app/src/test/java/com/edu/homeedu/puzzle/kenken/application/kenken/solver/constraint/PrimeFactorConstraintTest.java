@@ -0,0 +1,49 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+public class PrimeFactorConstraintTest {
+    PrimeFactorConstraint constraint;
+    SolvingTopology topology;
+
+    @Before
+    public void setUp() {
+        constraint = new PrimeFactorConstraint();
+        topology = new SolvingTopology(KenkenGame.parseFromDescriptions(
+            """
+            8 * A1 A2; 11 * A3 A4; 10 + B1 B2 B3 B4;
+            10 + C1 C2 C3 C4; 10 + D1 D2 D3 D4
+            """
+        ));
+    }
+
+    /**
+     * Test method to verify that the values whose factors do not fit the prime exponents of the target are removed.
+     */
+    @Test
+    public void testCage_should_remove_values_out_of_prime_budget() {
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint);
+
+        assertTrue(constraint.testCage(context, topology.getCageIndex(0)));
+        assertEquals(BitmaskHelpers.of(2) | BitmaskHelpers.of(4), context.getDomain(0));
+        assertEquals(BitmaskHelpers.of(2) | BitmaskHelpers.of(4), context.getDomain(1));
+    }
+
+    /**
+     * Test method to verify that a target with a prime factor larger than the grid fails.
+     */
+    @Test
+    public void testCage_with_too_large_prime_should_fail() {
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint);
+
+        assertFalse(constraint.testCage(context, topology.getCageIndex(2)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.answer.KenkenAnswer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.KenkenValuesInitializer;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+public class SubsetConsistencyConstraintTest {
+    SubsetConsistencyConstraint constraint;
+    SolvingTopology topology;
+
+    @Before
+    public void setUp() {
+        // Pairs at most, so that the tests tell naked and hidden subsets apart
+        constraint = new SubsetConsistencyConstraint(2);
+        topology = new SolvingTopology(KenkenGame.parseFromDescriptions(
+            """
+            15 + A1 A2 A3 A4 A5; 15 + B1 B2 B3 B4 B5; 15 + C1 C2 C3 C4 C5;
+            15 + D1 D2 D3 D4 D5; 15 + E1 E2 E3 E4 E5
+            """
+        ));
+    }
+
+    /**
+     * Test method to verify that the values of a naked pair are removed from the other squares of the row.
+     */
+    @Test
+    public void testUnit_should_remove_values_of_naked_pairs() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[1] = BitmaskHelpers.range(4, 5);
+        domains[3] = BitmaskHelpers.range(4, 5);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertTrue(constraint.testUnit(context, topology.getRowUnitIndex(0)));
+        assertEquals(BitmaskHelpers.range(4, 5), context.getDomain(1));
+        assertEquals(BitmaskHelpers.range(1, 3), context.getDomain(0));
+        assertEquals(BitmaskHelpers.range(1, 3), context.getDomain(2));
+        assertEquals(BitmaskHelpers.range(1, 3), context.getDomain(4));
+    }
+
+    /**
+     * Test method to verify that the squares of a hidden pair keep only the values of the pair,
+     * even though the complementary naked triple is larger than the constraint looks for.
+     */
+    @Test
+    public void testUnit_should_remove_other_values_of_hidden_pairs() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[2] = BitmaskHelpers.range(3, 5);
+        domains[3] = BitmaskHelpers.range(3, 5);
+        domains[4] = BitmaskHelpers.range(3, 5);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertTrue(constraint.testUnit(context, topology.getRowUnitIndex(0)));
+        assertEquals(BitmaskHelpers.range(1, 2), context.getDomain(0));
+        assertEquals(BitmaskHelpers.range(1, 2), context.getDomain(1));
+        assertEquals(BitmaskHelpers.range(3, 5), context.getDomain(2));
+    }
+
+    /**
+     * Test method to verify that three squares sharing two values make the column fail.
+     */
+    @Test
+    public void testUnit_with_too_few_values_should_fail() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[0] = BitmaskHelpers.range(1, 2);
+        domains[5] = BitmaskHelpers.range(1, 2);
+        domains[10] = BitmaskHelpers.range(1, 2);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertFalse(constraint.testUnit(context, topology.getColumnUnitIndex(0)));
+    }
+
+    /**
+     * Test method to verify that the backjumping search finds the same solution as the chronological one,
+     * with the removals of the subsets explained for the backjumps.
+     */
+    @Test
+    public void solve_backjumping_should_same_as_trail() {
+        KenkenGame kenken = KenkenGame.parseFromDescriptions(
+            """
+            10 + A1 B1; 7 * A2 A3; 13 + A4 A5 B4; 2 / A6  A7; 12 + A8 B7 B8; 63 * A9 B9;
+            15 * B2 B3; 144 * B5 B6 C5;
+            6 * C1 D1 E1; 4 - C2 C3; 8 + C4 D4; 22 + C6 D5 D6; 2 / C7 D7; 5 + C8 C9;
+            25 + D2 D3 E2 E3; 1 - D8 E8; 11 + D9 E9;
+            36 * E4 F4; 15 * E5 F5; 4 - E6 E7;
+            2 - F1 G1; 6 - F2 F3; 2 / F6 F7; 56 * F8 F9 G8 G9;
+            9 * G2 G3; 10 + G4 G5; 24 * G6 G7;
+            1 - H1 I1; 1 - H2 I2; 3 / H3 I3; 3 - H4 I4; 5 - H5 I5; 35 * H6 I6; 5 - H7 H8; 9 + H9 I9;
+            4 - I7 I8
+            """
+        );
+        List<KenkenEliminatingConstraint> constraints = List.of(
+                new ArcConsistencyConstraint(),
+                new SubsetConsistencyConstraint(),
+                new CageConsistencyConstraint()
+        );
+        KenkenValuesInitializer valuesInitializer = new CageConsistencyValuesInitializer();
+        ConstraintBasedKenkenSolver trailingSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer, constraints, ConstraintBasedKenkenSolver.Backtracking.TRAIL);
+        ConstraintBasedKenkenSolver backjumpingSolver = new ConstraintBasedKenkenSolver(
+                valuesInitializer, constraints, ConstraintBasedKenkenSolver.Backtracking.BACKJUMPING);
+
+        KenkenAnswer trailed = trailingSolver.solve(kenken, null);
+
+        assertTrue(kenken.isSolution(trailed));
+        assertEquals(trailed, backjumpingSolver.solve(kenken, null));
+        assertTrue(backjumpingSolver.isUnique(kenken));
+    }
+}
\ No newline at end of file
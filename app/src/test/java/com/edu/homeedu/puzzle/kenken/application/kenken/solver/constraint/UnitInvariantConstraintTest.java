@@ -0,0 +1,64 @@
+package com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.KenkenGame;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingContext;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.SolvingTopology;
+import com.edu.homeedu.puzzle.kenken.utils.helpers.BitmaskHelpers;
+
+public class UnitInvariantConstraintTest {
+    UnitInvariantConstraint constraint;
+    SolvingTopology topology;
+
+    @Before
+    public void setUp() {
+        constraint = new UnitInvariantConstraint();
+        topology = new SolvingTopology(KenkenGame.parseFromDescriptions(
+            """
+            6 + A1 A2 A3; 12 * A4 B4; 7 + B1 B2 B3;
+            10 + C1 C2 C3 C4; 10 + D1 D2 D3 D4
+            """
+        ));
+    }
+
+    /**
+     * Test method to verify that the only square of a row outside its addition cage
+     * takes the rest of the row sum.
+     */
+    @Test
+    public void testUnit_sum_should_give_square_left_out() {
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint);
+
+        assertTrue(constraint.testUnit(context, topology.getRowUnitIndex(0)));
+        assertEquals(BitmaskHelpers.of(4), context.getDomain(3));
+    }
+
+    /**
+     * Test method to verify that the squares of a column outside its multiplication cage
+     * only keep the values dividing the rest of the column product.
+     */
+    @Test
+    public void testUnit_product_should_keep_divisors_of_rest() {
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint);
+
+        assertTrue(constraint.testUnit(context, topology.getColumnUnitIndex(3)));
+        assertEquals(BitmaskHelpers.range(1, 2), context.getDomain(11));
+        assertEquals(BitmaskHelpers.range(1, 2), context.getDomain(15));
+    }
+
+    /**
+     * Test method to verify that a row that cannot reach its sum fails.
+     */
+    @Test
+    public void testUnit_unreachable_sum_should_fail() {
+        int[] domains = ConstraintTestHelpers.fullDomains(topology);
+        domains[3] = BitmaskHelpers.range(1, 3);
+        SolvingContext context = ConstraintTestHelpers.newContext(topology, constraint, domains);
+
+        assertFalse(constraint.testUnit(context, topology.getRowUnitIndex(0)));
+    }
+}
\ No newline at end of file
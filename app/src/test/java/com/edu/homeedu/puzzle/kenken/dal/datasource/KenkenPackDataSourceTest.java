@@ -0,0 +1,167 @@
+package com.edu.homeedu.puzzle.kenken.dal.datasource;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater.DifficultyRating;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.KenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+
+public class KenkenPackDataSourceTest {
+    List<Kenken> kenkens;
+
+    /**
+     * Sets up the puzzles of the in-memory data source, by ID, along with their solutions.
+     */
+    @Before
+    public void setUp() {
+        KenkenSolver solver = new ConstraintBasedKenkenSolver(
+                new CageConsistencyValuesInitializer(),
+                List.of(new ArcConsistencyConstraint(), new CageConsistencyConstraint()));
+        kenkens = new ArrayList<>();
+        new KenkenInMemoryDataSource()
+                .fetchAll()
+                .stream()
+                .sorted(Comparator.comparingInt(Kenken::id))
+                .forEach(kenken -> kenkens.add(new Kenken(
+                        kenken.id(), kenken.game(), solver.solve(kenken.game(), Map.of()))));
+    }
+
+    /**
+     * Test method to verify that the puzzles and their solutions read from a pack are the ones written.
+     */
+    @Test
+    public void fetchById_written_pack_should_same_kenkens() throws IOException {
+        KenkenPackDataSource dataSource = new KenkenPackDataSource(writePack(true, false));
+
+        assertEquals(kenkens.size(), dataSource.count());
+        assertTrue(dataSource.hasSolutions());
+        for (Kenken kenken : kenkens) {
+            Kenken read = dataSource.fetchById(kenken.id());
+            assertEquals(kenken.game(), read.game());
+            assertEquals(kenken.solution(), read.solution());
+            assertSame(read, dataSource.fetchById(kenken.id()));
+        }
+        assertEquals(kenkens.get(2).game(), dataSource.fetchAll().get(2).game());
+        assertNull(dataSource.fetchById(0));
+        assertNull(dataSource.fetchById(kenkens.size() + 1));
+    }
+
+    /**
+     * Test method to verify that a pack written without solutions is read without them.
+     */
+    @Test
+    public void fetchById_pack_without_solutions_should_null_solution() throws IOException {
+        KenkenPackDataSource dataSource = new KenkenPackDataSource(writePack(false, false));
+
+        assertFalse(dataSource.hasSolutions());
+        assertEquals(kenkens.get(0).game(), dataSource.fetchById(1).game());
+        assertNull(dataSource.fetchById(1).solution());
+    }
+
+    /**
+     * Test method to verify that the ratings written with a pack are read from its index, and come with
+     * the decoded puzzles, while a pack written without them has none.
+     */
+    @Test
+    public void fetchRatingById_pack_with_ratings_should_stored_ratings() throws IOException {
+        Difficulty[] difficulties = Difficulty.values();
+        kenkens.replaceAll(kenken -> new Kenken(kenken.id(), kenken.game(), kenken.solution(), new DifficultyRating(
+                kenken.id() * 1.5, difficulties[kenken.id() % difficulties.length], null, 0, 0, 0)));
+        KenkenPackDataSource dataSource = new KenkenPackDataSource(writePack(true, true));
+
+        assertTrue(dataSource.hasRatings());
+        assertEquals(List.of(1, 2, 3), dataSource.fetchAllIds().subList(0, 3));
+        for (Kenken kenken : kenkens) {
+            DifficultyRating rating = dataSource.fetchRatingById(kenken.id());
+            assertEquals(kenken.rating().score(), rating.score(), 0);
+            assertEquals(kenken.rating().difficulty(), rating.difficulty());
+            assertEquals(rating, dataSource.fetchById(kenken.id()).rating());
+            assertEquals(kenken.game(), dataSource.fetchById(kenken.id()).game());
+        }
+        assertNull(dataSource.fetchRatingById(kenkens.size() + 1));
+        assertNull(new KenkenPackDataSource(writePack(true, false)).fetchRatingById(1));
+    }
+
+    /**
+     * Test method to verify that a file which is not a pack is rejected.
+     */
+    @Test
+    public void open_not_pack_should_throw() throws IOException {
+        Path path = Files.createTempFile("kenken", ".pack");
+        path.toFile().deleteOnExit();
+        Files.write(path, "3 = A1".getBytes());
+        try {
+            new KenkenPackDataSource(path);
+            fail();
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a kenken pack"));
+        }
+    }
+
+    /**
+     * Test method to verify that a pack whose index does not grow puzzle by puzzle is rejected.
+     */
+    @Test
+    public void open_corrupted_index_should_throw() throws IOException {
+        Path path = writePack(false, false);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(KenkenPackFormat.HEADER_SIZE + Integer.BYTES, 0);
+        Files.write(path, bytes);
+        try {
+            new KenkenPackDataSource(path);
+            fail();
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Corrupted kenken pack index"));
+        }
+    }
+
+    /**
+     * Test method to verify that a corrupted puzzle is reported when it is fetched, and the others are still read.
+     */
+    @Test
+    public void fetchById_corrupted_puzzle_should_throw() throws IOException {
+        Path path = writePack(false, false);
+        byte[] bytes = Files.readAllBytes(path);
+        int dataStart = KenkenPackFormat.HEADER_SIZE + (kenkens.size() + 1) * Integer.BYTES;
+        ByteBuffer.wrap(bytes).putShort(dataStart + 1, (short) 0xFFFF);
+        Files.write(path, bytes);
+        KenkenPackDataSource dataSource = new KenkenPackDataSource(path);
+        try {
+            dataSource.fetchById(1);
+            fail();
+        }
+        catch (CorruptedKenkenPackException e) {
+            assertEquals("Corrupted puzzle of id 1", e.getMessage());
+        }
+        assertEquals(kenkens.get(1).game(), dataSource.fetchById(2).game());
+    }
+
+    private Path writePack(boolean withSolutions, boolean withRatings) throws IOException {
+        Path path = Files.createTempFile("kenken", ".pack");
+        path.toFile().deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            KenkenPackFormat.write(out, kenkens, withSolutions, withRatings);
+        }
+        return path;
+    }
+}
\ No newline at end of file
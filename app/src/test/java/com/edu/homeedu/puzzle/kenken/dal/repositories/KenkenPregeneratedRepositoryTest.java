@@ -0,0 +1,110 @@
+package com.edu.homeedu.puzzle.kenken.dal.repositories;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.edu.homeedu.puzzle.kenken.application.kenken.generator.JacobsonMatthewsLatinSquareSampler;
+import com.edu.homeedu.puzzle.kenken.application.kenken.generator.RandomKenkenGenerator;
+import com.edu.homeedu.puzzle.kenken.application.kenken.hint.DeductionHintEngine;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.EffortBasedDifficultyRater;
+import com.edu.homeedu.puzzle.kenken.application.kenken.rating.KenkenDifficultyRater;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.ConstraintBasedKenkenSolver;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.ArcConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.constraint.CageConsistencyConstraint;
+import com.edu.homeedu.puzzle.kenken.application.kenken.solver.initializer.CageConsistencyValuesInitializer;
+import com.edu.homeedu.puzzle.kenken.constants.Difficulty;
+import com.edu.homeedu.puzzle.kenken.dal.datasource.KenkenGeneratorSource;
+import com.edu.homeedu.puzzle.kenken.dal.datasource.KenkenInMemoryDataSource;
+import com.edu.homeedu.puzzle.kenken.models.Kenken;
+
+public class KenkenPregeneratedRepositoryTest {
+    KenkenDifficultyRater rater;
+    KenkenPregeneratedRepository repository;
+    List<Runnable> pendingTasks;
+
+    /**
+     * Sets up a repository that keeps 2 games of the 4x4 normal bucket, whose producer runs
+     * only when the pending tasks are run.
+     */
+    @Before
+    public void setUp() {
+        ConstraintBasedKenkenSolver solver = new ConstraintBasedKenkenSolver(
+                new CageConsistencyValuesInitializer(),
+                List.of(new ArcConsistencyConstraint(), new CageConsistencyConstraint()));
+        solver.enableStatistics(System::nanoTime);
+        rater = new EffortBasedDifficultyRater(new DeductionHintEngine(), solver);
+        RandomKenkenGenerator generator = new RandomKenkenGenerator(solver, new JacobsonMatthewsLatinSquareSampler());
+        pendingTasks = new ArrayList<>();
+        repository = new KenkenPregeneratedRepository(
+                new KenkenInMemoryRepository(new KenkenInMemoryDataSource()),
+                new KenkenGeneratorSource(generator, 17),
+                solver,
+                rater,
+                pendingTasks::add,
+                2,
+                2,
+                List.of(new KenkenPregeneratedRepository.Bucket(4, Difficulty.Normal))
+        );
+    }
+
+    /**
+     * Test method to verify that a taken game is of its bucket, comes with its solution and its rating,
+     * and is found by its ID.
+     */
+    @Test
+    public void takeNewGame_ready_should_solved_game() {
+        runPendingTasks();
+        assertEquals(2, repository.countReady(4, Difficulty.Normal));
+
+        Kenken kenken = repository.takeNewGame(4, Difficulty.Normal);
+
+        assertNotNull(kenken);
+        assertEquals(4, kenken.game().getSize());
+        assertEquals(Difficulty.Normal, kenken.rating().difficulty());
+        assertEquals(rater.rate(kenken.game()).score(), kenken.rating().score(), 0);
+        assertTrue(kenken.game().isSolution(kenken.solution()));
+        assertSame(kenken, repository.findOneById(kenken.id()));
+        assertNotNull(repository.findOneById(1));
+    }
+
+    /**
+     * Test method to verify that a take never waits for a game, and that the bucket is refilled
+     * after the take.
+     */
+    @Test
+    public void takeNewGame_empty_bucket_should_null_then_refill() {
+        assertNull(repository.takeNewGame(5, Difficulty.Normal));
+
+        runPendingTasks();
+        Kenken first = repository.takeNewGame(5, Difficulty.Normal);
+        assertNotNull(first);
+        assertEquals(1, repository.countReady(5, Difficulty.Normal));
+
+        runPendingTasks();
+        assertEquals(2, repository.countReady(5, Difficulty.Normal));
+        assertNotEquals(first.id(), repository.takeNewGame(5, Difficulty.Normal).id());
+    }
+
+    /**
+     * Test method to verify that a bucket is filled once its games are prepared, before any take.
+     */
+    @Test
+    public void prepareNewGames_should_fill_bucket() {
+        repository.prepareNewGames(5, Difficulty.Normal);
+        runPendingTasks();
+
+        assertEquals(2, repository.countReady(5, Difficulty.Normal));
+        assertNotNull(repository.takeNewGame(5, Difficulty.Normal));
+    }
+
+    private void runPendingTasks() {
+        while (!pendingTasks.isEmpty()) {
+            pendingTasks.remove(0).run();
+        }
+    }
+}
\ No newline at end of file